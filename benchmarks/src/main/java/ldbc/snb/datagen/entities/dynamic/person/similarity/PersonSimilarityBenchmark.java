@@ -0,0 +1,111 @@
+package ldbc.snb.datagen.entities.dynamic.person.similarity;
+
+import ldbc.snb.datagen.entities.dynamic.person.Person;
+import ldbc.snb.datagen.generator.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.dictionary.PlaceDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the person similarities with the TreeSet based Jaccard index and the per call z order
+ * lookups they replace, on pairs of persons with interests drawn like the ones of the generator.
+ * Run with: sbt "benchmarks/Jmh/run PersonSimilarityBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonSimilarityBenchmark {
+
+    private static final int NUM_PERSONS = 1024;
+
+    private final InterestsSimilarity interestsSimilarity = new InterestsSimilarity();
+    private final GeoDistanceSimilarity geoDistanceSimilarity = new GeoDistanceSimilarity();
+    private Person[] persons;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Dictionaries.places = new PlaceDictionary();
+        List<Integer> countries = Dictionaries.places.getCountries();
+        Random random = new Random(42);
+        persons = new Person[NUM_PERSONS];
+        for (int i = 0; i < NUM_PERSONS; i++) {
+            Person person = new Person();
+            person.setCountryId(countries.get(random.nextInt(countries.size())));
+            Set<Integer> interests = new TreeSet<>();
+            int mainInterest = random.nextInt(256);
+            interests.add(mainInterest);
+            int numInterests = 1 + random.nextInt(30);
+            while (interests.size() < numInterests) {
+                interests.add(random.nextInt(16000));
+            }
+            person.setInterests(interests);
+            person.setMainInterest(mainInterest);
+            persons[i] = person;
+        }
+    }
+
+    private Person nextPerson() {
+        next = (next + 1) & (NUM_PERSONS - 1);
+        return persons[next];
+    }
+
+    private static float treeSetJaccard(Person personA, Person personB) {
+        Set<Integer> union = new TreeSet<>();
+        Set<Integer> interestsA = new TreeSet<>();
+        for (int interest : personA.getInterests()) {
+            interestsA.add(interest);
+        }
+        union.addAll(interestsA);
+        Set<Integer> intersection = new TreeSet<>();
+        for (int interest : personB.getInterests()) {
+            union.add(interest);
+            if (interestsA.contains(interest)) {
+                intersection.add(interest);
+            }
+        }
+        union.add(personA.getMainInterest());
+        union.add(personB.getMainInterest());
+        if (personA.getMainInterest() == personB.getMainInterest()) intersection.add(personA.getMainInterest());
+        return union.size() > 0 ? intersection.size() / (float) union.size() : 0;
+    }
+
+    @Benchmark
+    public float interestsTreeSet() {
+        return treeSetJaccard(nextPerson(), nextPerson());
+    }
+
+    @Benchmark
+    public float interestsMerge() {
+        return interestsSimilarity.similarity(nextPerson(), nextPerson());
+    }
+
+    @Benchmark
+    public float geoDistanceLookup() {
+        int zorderA = Dictionaries.places.getZorderID(nextPerson().getCountryId());
+        int zorderB = Dictionaries.places.getZorderID(nextPerson().getCountryId());
+        return 1.0f - (Math.abs(zorderA - zorderB) / 256.0f);
+    }
+
+    @Benchmark
+    public float geoDistanceCached() {
+        return geoDistanceSimilarity.similarity(nextPerson(), nextPerson());
+    }
+}
@@ -0,0 +1,113 @@
+package ldbc.snb.datagen.util.sampling;
+
+import java.util.Random;
+
+/**
+ * Samples a discrete distribution in O(1) worst-case time with Walker's alias method, built in
+ * O(n) with Vose's algorithm. Every one of the n columns holds a probability of keeping the
+ * column and the index of the entry donating the rest of its mass, so a draw costs one uniform,
+ * one multiplication and one comparison.
+ * <p>
+ * An alias table maps uniforms to indices in a different order than the inverse CDF. Replacing
+ * an existing cumulative search with it changes the generated data for a given seed, so the
+ * generators use {@link GuideTable}, and the alias table is only kept for the sampling benchmark.
+ */
+public final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights The non-negative, not necessarily normalized, weight of every index.
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Cannot build an alias table without weights");
+        }
+        double total = 0.0;
+        for (double weight : weights) {
+            if (weight < 0.0) {
+                throw new IllegalArgumentException("Negative weight " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0.0) {
+            throw new IllegalArgumentException("The weights sum up to zero");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int numSmall = 0;
+        int numLarge = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[numSmall++] = i;
+            } else {
+                large[numLarge++] = i;
+            }
+        }
+        while (numSmall > 0 && numLarge > 0) {
+            int s = small[--numSmall];
+            int l = large[--numLarge];
+            probability[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) {
+                small[numSmall++] = l;
+            } else {
+                large[numLarge++] = l;
+            }
+        }
+        // whatever is left is full up to rounding errors
+        while (numLarge > 0) {
+            int l = large[--numLarge];
+            probability[l] = 1.0;
+            alias[l] = l;
+        }
+        while (numSmall > 0) {
+            int s = small[--numSmall];
+            probability[s] = 1.0;
+            alias[s] = s;
+        }
+    }
+
+    /**
+     * Builds the table from a nondecreasing cumulative distribution, as stored by the dictionaries.
+     */
+    public static AliasTable fromCumulative(double[] cumulative) {
+        double[] weights = new double[cumulative.length];
+        double previous = 0.0;
+        for (int i = 0; i < cumulative.length; i++) {
+            weights[i] = Math.max(cumulative[i] - previous, 0.0);
+            previous = cumulative[i];
+        }
+        return new AliasTable(weights);
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * @param u A uniform draw in [0, 1).
+     * @return The sampled index.
+     */
+    public int sample(double u) {
+        int n = probability.length;
+        double x = u * n;
+        int column = (int) x;
+        if (column >= n) {
+            column = n - 1;
+        }
+        return x - column < probability[column] ? column : alias[column];
+    }
+
+    public int sample(Random random) {
+        return sample(random.nextDouble());
+    }
+}
@@ -0,0 +1,84 @@
+package ldbc.snb.datagen.util.sampling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bisection previously used by the generators with the guide and alias tables
+ * on power-law distributions of the sizes found in the dictionaries.
+ * Run with: sbt "benchmarks/Jmh/run SamplingBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SamplingBenchmark {
+
+    @Param({"16", "256", "4096", "65536"})
+    public int size;
+
+    private double[] cumulative;
+    private GuideTable guideTable;
+    private AliasTable aliasTable;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        double[] weights = new double[size];
+        cumulative = new double[size];
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, 1.5);
+            total += weights[i];
+        }
+        double acc = 0.0;
+        for (int i = 0; i < size; i++) {
+            acc += weights[i] / total;
+            cumulative[i] = acc;
+        }
+        guideTable = new GuideTable(cumulative);
+        aliasTable = new AliasTable(weights);
+        random = new Random(42);
+    }
+
+    @Benchmark
+    public int bisection() {
+        double prob = random.nextDouble();
+        int lowerBound = 0;
+        int upperBound = cumulative.length;
+        int midPoint = (upperBound + lowerBound) / 2;
+        while (upperBound > (lowerBound + 1)) {
+            if (cumulative[midPoint] > prob) {
+                upperBound = midPoint;
+            } else {
+                lowerBound = midPoint;
+            }
+            midPoint = (upperBound + lowerBound) / 2;
+        }
+        return midPoint;
+    }
+
+    @Benchmark
+    public int guideTable() {
+        return guideTable.floorIndex(random.nextDouble(), 0, size);
+    }
+
+    @Benchmark
+    public int aliasTable() {
+        return aliasTable.sample(random);
+    }
+}
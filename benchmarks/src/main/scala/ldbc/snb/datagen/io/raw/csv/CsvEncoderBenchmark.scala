@@ -0,0 +1,83 @@
+package ldbc.snb.datagen.io.raw.csv
+
+import ldbc.snb.datagen.io.raw.instances._
+import ldbc.snb.datagen.model.raw.{Comment, PersonKnowsPerson}
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+import java.io.OutputStream
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares encoding rows by joining the strings returned by `CsvRowEncoder.row`, as the raw
+ * serializer used to, with appending the fields to a CsvFieldSink.
+ * Run with: sbt "benchmarks/Jmh/run CsvEncoderBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+class CsvEncoderBenchmark {
+
+  private val knows = PersonKnowsPerson(1262304000000L, 1356998400000L, explicitlyDeleted = false, 4398046511104L, 8796093022208L)
+
+  private val comment = Comment(
+    1262304000000L,
+    1356998400000L,
+    explicitlyDeleted = true,
+    1030792151040L,
+    "31.200.128.4",
+    "Firefox",
+    "About Johann Sebastian Bach, ist known for instrumental compositions such as the Art of Fugue.",
+    94,
+    4398046511104L,
+    14,
+    Some(1030792151039L),
+    None
+  )
+
+  private val builder = new StringBuilder
+  private val sink    = new CsvFieldSink("|")
+
+  private object out extends OutputStream {
+    var written = 0L
+
+    override def write(b: Int): Unit = written += 1
+
+    override def write(b: Array[Byte], off: Int, len: Int): Unit = written += len
+  }
+
+  private def join(entry: Seq[String], bh: Blackhole): Unit = {
+    builder.setLength(0)
+    entry.addString(builder, "|")
+    builder ++= "\n"
+    bh.consume(builder.mkString.getBytes(StandardCharsets.UTF_8))
+  }
+
+  private def drain(bh: Blackhole): Unit = {
+    sink.endRow()
+    sink.writeTo(out)
+    bh.consume(out.written)
+  }
+
+  @Benchmark
+  def knowsJoined(bh: Blackhole): Unit = join(PersonKnowsPersonCsvRowEncoder.row(knows), bh)
+
+  @Benchmark
+  def knowsDirect(bh: Blackhole): Unit = {
+    PersonKnowsPersonCsvRowEncoder.writeTo(knows, sink)
+    drain(bh)
+  }
+
+  @Benchmark
+  def commentJoined(bh: Blackhole): Unit = join(CommentEncoder.row(comment), bh)
+
+  @Benchmark
+  def commentDirect(bh: Blackhole): Unit = {
+    CommentEncoder.writeTo(comment, sink)
+    drain(bh)
+  }
+}
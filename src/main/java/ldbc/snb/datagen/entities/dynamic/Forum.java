@@ -25,6 +25,7 @@ public class Forum implements DynamicActivity {
     private int placeId;
     private int language;
     private List<ForumMembership> memberships;
+    private transient MembershipIndex membershipIndex;
     private ForumType forumType;
 
 
@@ -46,6 +47,7 @@ public class Forum implements DynamicActivity {
 
     public void addMember(ForumMembership member) {
         memberships.add(member);
+        membershipIndex = null;
     }
 
     public boolean isExplicitlyDeleted() {
@@ -136,6 +138,17 @@ public class Forum implements DynamicActivity {
 
     public void setMemberships(List<ForumMembership> memberships) {
         this.memberships = memberships;
+        membershipIndex = null;
+    }
+
+    /**
+     * @return The index over the lifespans of the memberships, built on first use.
+     */
+    public MembershipIndex getMembershipIndex() {
+        if (membershipIndex == null) {
+            membershipIndex = new MembershipIndex(memberships);
+        }
+        return membershipIndex;
     }
 
     public ForumType getForumType() {
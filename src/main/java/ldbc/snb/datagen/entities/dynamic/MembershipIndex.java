@@ -0,0 +1,164 @@
+package ldbc.snb.datagen.entities.dynamic;
+
+import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
+
+import java.util.List;
+
+/**
+ * Stabbing queries over the lifespans of the memberships of a forum. A membership is alive at an
+ * instant t if it was created before t and deleted after it.
+ * <p>
+ * The memberships are split into blocks of 64 in list order. Every block keeps the creation and
+ * the deletion dates of its members sorted, together with the bit masks of the members created
+ * before each sorted creation date and deleted after each sorted deletion date. The members of a
+ * block alive at t are then found with two binary searches and an and of two masks, and the
+ * alive members stay in list order, so the k-th one is the k-th one of a scan of the list.
+ * <p>
+ * Not thread safe: the result of the last query is kept for {@link #select(int)}.
+ */
+public final class MembershipIndex {
+
+    private static final int BLOCK_BITS = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+    private final int size;
+    private final int numBlocks;
+    // per block, the sorted creation and deletion dates of its members
+    private final long[] creationDates;
+    private final long[] deletionDates;
+    // per block, BLOCK_SIZE + 1 masks: createdBefore[j] has the members with the j smallest creation dates,
+    // deletedAfter[j] the ones with all but the j smallest deletion dates
+    private final long[] createdBefore;
+    private final long[] deletedAfter;
+    private final long[] matches;
+
+    public MembershipIndex(List<ForumMembership> memberships) {
+        size = memberships.size();
+        numBlocks = (size + BLOCK_SIZE - 1) >>> BLOCK_BITS;
+        creationDates = new long[size];
+        deletionDates = new long[size];
+        createdBefore = new long[numBlocks * (BLOCK_SIZE + 1)];
+        deletedAfter = new long[numBlocks * (BLOCK_SIZE + 1)];
+        matches = new long[numBlocks];
+
+        int[] keys = new int[BLOCK_SIZE];
+        for (int block = 0; block < numBlocks; ++block) {
+            int from = block << BLOCK_BITS;
+            int length = blockLength(block);
+            int masks = block * (BLOCK_SIZE + 1);
+
+            for (int i = 0; i < length; ++i) {
+                creationDates[from + i] = memberships.get(from + i).getCreationDate();
+            }
+            sortWithBits(creationDates, from, length, keys);
+            for (int j = 0; j < length; ++j) {
+                createdBefore[masks + j + 1] = createdBefore[masks + j] | 1L << keys[j];
+            }
+
+            for (int i = 0; i < length; ++i) {
+                deletionDates[from + i] = memberships.get(from + i).getDeletionDate();
+            }
+            sortWithBits(deletionDates, from, length, keys);
+            for (int j = length - 1; j >= 0; --j) {
+                deletedAfter[masks + j] = deletedAfter[masks + j + 1] | 1L << keys[j];
+            }
+        }
+    }
+
+    /**
+     * Sorts dates[from, from + length) by insertion, which is fast enough for a block, and stores in
+     * bits[j] the position in the block that the j-th smallest date had. Equal dates keep their order.
+     */
+    private static void sortWithBits(long[] dates, int from, int length, int[] bits) {
+        for (int i = 0; i < length; ++i) {
+            long date = dates[from + i];
+            int j = i;
+            while (j > 0 && dates[from + j - 1] > date) {
+                dates[from + j] = dates[from + j - 1];
+                bits[j] = bits[j - 1];
+                --j;
+            }
+            dates[from + j] = date;
+            bits[j] = i;
+        }
+    }
+
+    private int blockLength(int block) {
+        return Math.min(BLOCK_SIZE, size - (block << BLOCK_BITS));
+    }
+
+    /**
+     * @return The number of values in dates[from, from + length) lower than value.
+     */
+    private static int countLower(long[] dates, int from, int length, long value) {
+        int low = from;
+        int high = from + length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dates[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - from;
+    }
+
+    /**
+     * @return The number of values in dates[from, from + length) lower than or equal to value.
+     */
+    private static int countLowerOrEqual(long[] dates, int from, int length, long value) {
+        int low = from;
+        int high = from + length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dates[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - from;
+    }
+
+    private long aliveAt(int block, int from, int length, long instant) {
+        int masks = block * (BLOCK_SIZE + 1);
+        return createdBefore[masks + countLower(creationDates, from, length, instant)]
+                & deletedAfter[masks + countLowerOrEqual(deletionDates, from, length, instant)];
+    }
+
+    /**
+     * Finds the memberships alive at the first or at the second instant.
+     *
+     * @return The number of memberships found.
+     */
+    public int stab(long first, long second) {
+        int count = 0;
+        for (int block = 0; block < numBlocks; ++block) {
+            int from = block << BLOCK_BITS;
+            int length = blockLength(block);
+            long found = aliveAt(block, from, length, first) | aliveAt(block, from, length, second);
+            matches[block] = found;
+            count += Long.bitCount(found);
+        }
+        return count;
+    }
+
+    /**
+     * @param k The rank of a membership found by the last {@link #stab(long, long)}, lower than their number.
+     * @return The position in the membership list of the k-th membership found, in list order.
+     */
+    public int select(int k) {
+        int block = 0;
+        int inBlock = Long.bitCount(matches[block]);
+        while (k >= inBlock) {
+            k -= inBlock;
+            inBlock = Long.bitCount(matches[++block]);
+        }
+        long found = matches[block];
+        for (int i = 0; i < k; ++i) {
+            found &= found - 1;
+        }
+        return (block << BLOCK_BITS) + Long.numberOfTrailingZeros(found);
+    }
+}
@@ -16,8 +16,7 @@ public class Comment extends Message {
     }
 
     public Comment(Comment comment) {
-        super(comment.getMessageId(), comment.getCreationDate(), comment.getDeletionDate(), comment.getAuthor(), comment.getForumId(), comment.getContent(),
-              comment.getTags(), comment.getCountryId(), comment.getIpAddress(), comment.getBrowserId(),comment.isExplicitlyDeleted());
+        super(comment);
         rootPostId = comment.getRootPostId();
         parentMessageId = comment.getParentMessageId();
     }
@@ -27,7 +26,7 @@ public class Comment extends Message {
                    long deletionDate,
                    PersonSummary author,
                    long forumId,
-                   String content,
+                   CharSequence content,
                    List<Integer> tags,
                    int countryId,
                    IP ipAddress,
@@ -47,7 +46,7 @@ public class Comment extends Message {
                            long deletionDate,
                            PersonSummary author,
                            long forumId,
-                           String content,
+                           CharSequence content,
                            List<Integer> tags,
                            int countryId,
                            IP ipAddress,
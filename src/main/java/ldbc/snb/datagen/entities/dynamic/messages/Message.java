@@ -16,7 +16,7 @@ abstract public class Message implements DynamicActivity {
     private long deletionDate;
     private PersonSummary author;
     private long forumId;
-    private String content;
+    private CharSequence content;
     private List<Integer> tags;
     private IP ipAddress;
     private int browserId;
@@ -28,7 +28,7 @@ abstract public class Message implements DynamicActivity {
     }
 
     public Message(long messageId, long creationDate, long deletionDate, PersonSummary author, long forumId,
-                   String content, List<Integer> tags, int countryId, IP ipAddress, int browserId,
+                   CharSequence content, List<Integer> tags, int countryId, IP ipAddress, int browserId,
                    boolean isExplicitlyDeleted
     ) {
         assert ((author.getCreationDate() + DatagenParams.delta) <= creationDate);
@@ -45,8 +45,14 @@ abstract public class Message implements DynamicActivity {
         this.isExplicitlyDeleted = isExplicitlyDeleted;
     }
 
+    protected Message(Message message) {
+        this(message.messageId, message.creationDate, message.deletionDate, message.author, message.forumId,
+             message.content, message.tags, message.countryId, message.ipAddress, message.browserId,
+             message.isExplicitlyDeleted);
+    }
+
     public void initialize(long messageId, long creationDate, long deletionDate, PersonSummary author, long forumId,
-                           String content, List<Integer> tags, int countryId, IP ipAddress, int browserId,
+                           CharSequence content, List<Integer> tags, int countryId, IP ipAddress, int browserId,
                            boolean isExplicitlyDeleted
     ) {
         this.messageId = messageId;
@@ -113,11 +119,25 @@ abstract public class Message implements DynamicActivity {
         this.forumId = forumId;
     }
 
+    /**
+     * @return The text of the message. Generated texts are built on every call.
+     */
     public String getContent() {
+        return content == null ? null : content.toString();
+    }
+
+    /**
+     * @return The text of the message, which for generated texts is not built.
+     */
+    public CharSequence getContentText() {
         return content;
     }
 
-    public void setContent(String content) {
+    public int getContentLength() {
+        return content.length();
+    }
+
+    public void setContent(CharSequence content) {
         this.content = content;
     }
 
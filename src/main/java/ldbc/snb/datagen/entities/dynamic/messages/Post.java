@@ -18,7 +18,7 @@ public class Post extends Message {
                 long deletionDate,
                 PersonSummary author,
                 long forumId,
-                String content,
+                CharSequence content,
                 List<Integer> tags,
                 int countryId,
                 IP ipAddress,
@@ -31,7 +31,7 @@ public class Post extends Message {
     }
 
     public void initialize(long postId, long creationDate, long deletionDate, PersonSummary author, long forumId,
-                           String content, List<Integer> tags, int countryId, IP ipAddress, int browserId, int language,
+                           CharSequence content, List<Integer> tags, int countryId, IP ipAddress, int browserId, int language,
                            boolean isExplicitlyDeleted
     ) {
         super.initialize(postId, creationDate, deletionDate, author, forumId, content, tags, countryId, ipAddress, browserId,isExplicitlyDeleted);
@@ -0,0 +1,25 @@
+package ldbc.snb.datagen.entities.dynamic.person;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo serializer for IP. The network is not written, it is recomputed from the address and the mask.
+ */
+public class IPKryoSerializer extends Serializer<IP> {
+
+    @Override
+    public void write(Kryo kryo, Output output, IP ip) {
+        output.writeInt(ip.getIp());
+        output.writeInt(ip.getMask());
+    }
+
+    @Override
+    public IP read(Kryo kryo, Input input, Class<IP> type) {
+        int ip = input.readInt();
+        int mask = input.readInt();
+        return new IP(ip, mask);
+    }
+}
@@ -1,6 +1,8 @@
 package ldbc.snb.datagen.entities.dynamic.person;
 
 import ldbc.snb.datagen.entities.dynamic.relations.Knows;
+import ldbc.snb.datagen.entities.dynamic.relations.KnowsList;
+import ldbc.snb.datagen.generator.dictionary.Dictionaries;
 import org.apache.hadoop.io.Writable;
 
 import java.io.DataInput;
@@ -17,12 +19,14 @@ public final class Person implements Writable, Serializable, Comparable<Person>
     private long creationDate;
     private long deletionDate;
     private long maxNumKnows;
-    private List<Knows> knows;
+    private KnowsList knows;
     private int browserId;
     private IP ipAddress;
     private int countryId;
+    // the z order of the country plus one, 0 until it is looked up, which is also what deserialization leaves
+    private transient int countryZOrderPlusOne;
     private int cityId;
-    private List<Integer> interests;
+    private int[] interests;
     private int mainInterest;
     private int universityLocationId;
     private byte gender;
@@ -31,7 +35,7 @@ public final class Person implements Writable, Serializable, Comparable<Person>
     private long randomId;
 
     private List<String> emails;
-    private List<Integer> languages;
+    private int[] languages;
     private String firstName;
     private String lastName;
     private Map<Long, Long> companies;
@@ -60,9 +64,9 @@ public final class Person implements Writable, Serializable, Comparable<Person>
                 classYear == person.classYear &&
                 Objects.equals(knows, person.knows) &&
                 Objects.equals(ipAddress, person.ipAddress) &&
-                Objects.equals(interests, person.interests) &&
+                Arrays.equals(interests, person.interests) &&
                 Objects.equals(emails, person.emails) &&
-                Objects.equals(languages, person.languages) &&
+                Arrays.equals(languages, person.languages) &&
                 Objects.equals(firstName, person.firstName) &&
                 Objects.equals(lastName, person.lastName) &&
                 Objects.equals(companies, person.companies);
@@ -70,7 +74,7 @@ public final class Person implements Writable, Serializable, Comparable<Person>
 
     @Override
     public int hashCode() {
-        return Objects.hash(isExplicitlyDeleted, isMessageDeleter, accountId, creationDate, deletionDate, maxNumKnows, knows, browserId, ipAddress, countryId, cityId, interests, mainInterest, universityLocationId, gender, birthday, isLargePoster, randomId, emails, languages, firstName, lastName, companies, classYear);
+        return Objects.hash(isExplicitlyDeleted, isMessageDeleter, accountId, creationDate, deletionDate, maxNumKnows, knows, browserId, ipAddress, countryId, cityId, Arrays.hashCode(interests), mainInterest, universityLocationId, gender, birthday, isLargePoster, randomId, emails, Arrays.hashCode(languages), firstName, lastName, companies, classYear);
     }
 
     @Override
@@ -87,7 +91,7 @@ public final class Person implements Writable, Serializable, Comparable<Person>
                 ", ipAddress=" + ipAddress +
                 ", countryId=" + countryId +
                 ", cityId=" + cityId +
-                ", interests=" + interests +
+                ", interests=" + Arrays.toString(interests) +
                 ", mainInterest=" + mainInterest +
                 ", universityLocationId=" + universityLocationId +
                 ", gender=" + gender +
@@ -95,7 +99,7 @@ public final class Person implements Writable, Serializable, Comparable<Person>
                 ", isLargePoster=" + isLargePoster +
                 ", randomId=" + randomId +
                 ", emails=" + emails +
-                ", languages=" + languages +
+                ", languages=" + Arrays.toString(languages) +
                 ", firstName='" + firstName + '\'' +
                 ", lastName='" + lastName + '\'' +
                 ", companies=" + companies +
@@ -114,10 +118,10 @@ public final class Person implements Writable, Serializable, Comparable<Person>
     }
 
     public Person() {
-        knows = new ArrayList<>();
+        knows = new KnowsList();
         emails = new ArrayList<>();
-        interests = new ArrayList<>();
-        languages = new ArrayList<>();
+        interests = new int[0];
+        languages = new int[0];
         companies = new HashMap<>();
         ipAddress = new IP();
     }
@@ -126,26 +130,21 @@ public final class Person implements Writable, Serializable, Comparable<Person>
 
         isExplicitlyDeleted = p.isExplicitlyDeleted();
         isMessageDeleter = p.isMessageDeleter();
-        knows = new ArrayList<>();
         emails = new ArrayList<>();
-        interests = new ArrayList<>();
-        languages = new ArrayList<>();
         companies = new HashMap<>();
 
         accountId = p.getAccountId();
         creationDate = p.getCreationDate();
         deletionDate = p.getDeletionDate();
         maxNumKnows = p.getMaxNumKnows();
-        for (Knows k : p.getKnows()) {
-            knows.add(new Knows(k));
-        }
+        knows = new KnowsList(p.getKnows());
 
         browserId = p.getBrowserId();
         ipAddress = new IP(p.getIpAddress());
 
         countryId = p.getCountryId();
         cityId = p.getCityId();
-        interests.addAll(p.getInterests());
+        interests = p.getInterests().clone();
         mainInterest = p.getMainInterest();
 
         universityLocationId = p.getUniversityLocationId();
@@ -156,7 +155,7 @@ public final class Person implements Writable, Serializable, Comparable<Person>
 
         emails.addAll(p.getEmails());
 
-        languages.addAll(p.getLanguages());
+        languages = p.getLanguages().clone();
 
         firstName = p.getFirstName();
         lastName = p.getLastName();
@@ -215,7 +214,7 @@ public final class Person implements Writable, Serializable, Comparable<Person>
         maxNumKnows = maxKnows;
     }
 
-    public List<Knows> getKnows() {
+    public KnowsList getKnows() {
         return knows;
     }
 
@@ -224,6 +223,13 @@ public final class Person implements Writable, Serializable, Comparable<Person>
         this.knows.addAll(knows);
     }
 
+    /**
+     * Makes the list the knows edges of the person, without copying them.
+     */
+    public void setKnows(KnowsList knows) {
+        this.knows = knows;
+    }
+
     public int getBrowserId() {
         return browserId;
     }
@@ -246,6 +252,17 @@ public final class Person implements Writable, Serializable, Comparable<Person>
 
     public void setCountryId(int countryId) {
         this.countryId = countryId;
+        this.countryZOrderPlusOne = 0;
+    }
+
+    /**
+     * @return The z order of the person's country, looked up on first use.
+     */
+    public int getCountryZOrder() {
+        if (countryZOrderPlusOne == 0) {
+            countryZOrderPlusOne = Dictionaries.places.getZorderID(countryId) + 1;
+        }
+        return countryZOrderPlusOne - 1;
     }
 
     public int getCityId() {
@@ -256,13 +273,21 @@ public final class Person implements Writable, Serializable, Comparable<Person>
         this.cityId = cityId;
     }
 
-    public List<Integer> getInterests() {
+    /**
+     * @return The distinct interests of the person in ascending order.
+     */
+    public int[] getInterests() {
         return interests;
     }
 
-    public void setInterests(List<Integer> interests) {
-        this.interests.clear();
-        this.interests.addAll(interests);
+    public void setInterests(int[] interests) {
+        this.interests = interests.clone();
+        Arrays.sort(this.interests);
+    }
+
+    public void setInterests(Collection<Integer> interests) {
+        this.interests = toIntArray(interests);
+        Arrays.sort(this.interests);
     }
 
     public int getMainInterest() {
@@ -322,13 +347,25 @@ public final class Person implements Writable, Serializable, Comparable<Person>
         this.emails.addAll(emails);
     }
 
-    public List<Integer> getLanguages() {
+    public int[] getLanguages() {
         return languages;
     }
 
-    public void setLanguages(List<Integer> languages) {
-        this.languages.clear();
-        this.languages.addAll(languages);
+    public void setLanguages(int[] languages) {
+        this.languages = languages.clone();
+    }
+
+    public void setLanguages(Collection<Integer> languages) {
+        this.languages = toIntArray(languages);
+    }
+
+    private static int[] toIntArray(Collection<Integer> values) {
+        int[] result = new int[values.size()];
+        int i = 0;
+        for (Integer value : values) {
+            result[i++] = value;
+        }
+        return result;
     }
 
     public String getFirstName() {
@@ -370,25 +407,21 @@ public final class Person implements Writable, Serializable, Comparable<Person>
         creationDate = arg0.readLong();
         deletionDate = arg0.readLong();
         maxNumKnows = arg0.readLong();
-        int numFriends = arg0.readShort();
-        knows = new ArrayList<>();
-        for (int i = 0; i < numFriends; i++) {
-            Knows fr = new Knows();
-            fr.readFields(arg0);
-            knows.add(fr);
-        }
+        knows = new KnowsList();
+        knows.readFields(arg0);
 
         browserId = arg0.readInt();
 
         ipAddress.readFields(arg0);
 
         countryId = arg0.readInt();
+        countryZOrderPlusOne = 0;
         cityId = arg0.readInt();
 
         byte numTags = arg0.readByte();
-        interests = new ArrayList<>();
+        interests = new int[numTags];
         for (byte i = 0; i < numTags; i++) {
-            interests.add(arg0.readInt());
+            interests[i] = arg0.readInt();
         }
         mainInterest = arg0.readInt();
 
@@ -404,9 +437,9 @@ public final class Person implements Writable, Serializable, Comparable<Person>
             emails.add(arg0.readUTF());
         }
         int numLanguages = arg0.readInt();
-        languages = new ArrayList<>();
+        languages = new int[numLanguages];
         for (int i = 0; i < numLanguages; ++i) {
-            languages.add(arg0.readInt());
+            languages[i] = arg0.readInt();
         }
         firstName = arg0.readUTF();
         lastName = arg0.readUTF();
@@ -425,11 +458,7 @@ public final class Person implements Writable, Serializable, Comparable<Person>
         arg0.writeLong(creationDate);
         arg0.writeLong(deletionDate);
         arg0.writeLong(maxNumKnows);
-        arg0.writeShort(knows.size());
-
-        for (Knows f : knows) {
-            f.write(arg0);
-        }
+        knows.write(arg0);
 
         arg0.writeInt(browserId);
         ipAddress.write(arg0);
@@ -437,8 +466,8 @@ public final class Person implements Writable, Serializable, Comparable<Person>
         arg0.writeInt(countryId);
         arg0.writeInt(cityId);
 
-        arg0.writeByte((byte) interests.size());
-        for (Integer interest : interests) {
+        arg0.writeByte((byte) interests.length);
+        for (int interest : interests) {
             arg0.writeInt(interest);
         }
         arg0.writeInt(mainInterest);
@@ -452,8 +481,8 @@ public final class Person implements Writable, Serializable, Comparable<Person>
         for (String s : emails) {
             arg0.writeUTF(s);
         }
-        arg0.writeInt(languages.size());
-        for (Integer l : languages) {
+        arg0.writeInt(languages.length);
+        for (int l : languages) {
             arg0.writeInt(l);
         }
         arg0.writeUTF(firstName);
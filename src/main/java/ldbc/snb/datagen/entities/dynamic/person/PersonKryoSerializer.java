@@ -0,0 +1,116 @@
+package ldbc.snb.datagen.entities.dynamic.person;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import ldbc.snb.datagen.entities.dynamic.relations.KnowsListKryoSerializer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kryo serializer for Person. Unlike the default FieldSerializer it does not write
+ * class tags for the nested collections, and the knows edges are written column-wise.
+ * Ids and small integers are written as varints, and the deletion date as its distance
+ * to the creation date.
+ */
+public class PersonKryoSerializer extends Serializer<Person> {
+
+    private final KnowsListKryoSerializer knowsSerializer = new KnowsListKryoSerializer();
+
+    @Override
+    public void write(Kryo kryo, Output output, Person person) {
+        output.writeBoolean(person.isExplicitlyDeleted());
+        output.writeBoolean(person.isMessageDeleter());
+        output.writeVarLong(person.getAccountId(), true);
+        output.writeLong(person.getCreationDate());
+        output.writeVarLong(person.getDeletionDate() - person.getCreationDate(), false);
+        output.writeVarLong(person.getMaxNumKnows(), true);
+        knowsSerializer.write(kryo, output, person.getKnows());
+        output.writeVarInt(person.getBrowserId(), false);
+        output.writeInt(person.getIpAddress().getIp());
+        output.writeInt(person.getIpAddress().getMask());
+        output.writeVarInt(person.getCountryId(), false);
+        output.writeVarInt(person.getCityId(), false);
+        writeInts(output, person.getInterests());
+        output.writeVarInt(person.getMainInterest(), false);
+        output.writeVarInt(person.getUniversityLocationId(), false);
+        output.writeByte(person.getGender());
+        output.writeLong(person.getBirthday());
+        output.writeBoolean(person.getIsLargePoster());
+        output.writeLong(person.getRandomId());
+        List<String> emails = person.getEmails();
+        output.writeVarInt(emails.size(), true);
+        for (String email : emails) {
+            output.writeString(email);
+        }
+        writeInts(output, person.getLanguages());
+        output.writeString(person.getFirstName());
+        output.writeString(person.getLastName());
+        Map<Long, Long> companies = person.getCompanies();
+        output.writeVarInt(companies.size(), true);
+        for (Map.Entry<Long, Long> e : companies.entrySet()) {
+            output.writeVarLong(e.getKey(), true);
+            output.writeVarLong(e.getValue(), false);
+        }
+        output.writeVarLong(person.getClassYear(), false);
+    }
+
+    @Override
+    public Person read(Kryo kryo, Input input, Class<Person> type) {
+        Person person = new Person();
+        person.setExplicitlyDeleted(input.readBoolean());
+        person.setMessageDeleter(input.readBoolean());
+        person.setAccountId(input.readVarLong(true));
+        person.setCreationDate(input.readLong());
+        person.setDeletionDate(person.getCreationDate() + input.readVarLong(false));
+        person.setMaxNumKnows(input.readVarLong(true));
+        person.setKnows(knowsSerializer.read(kryo, input, null));
+        person.setBrowserId(input.readVarInt(false));
+        int ip = input.readInt();
+        int mask = input.readInt();
+        person.setIpAddress(new IP(ip, mask));
+        person.setCountryId(input.readVarInt(false));
+        person.setCityId(input.readVarInt(false));
+        person.setInterests(readInts(input));
+        person.setMainInterest(input.readVarInt(false));
+        person.setUniversityLocationId(input.readVarInt(false));
+        person.setGender(input.readByte());
+        person.setBirthday(input.readLong());
+        person.setIsLargePoster(input.readBoolean());
+        person.setRandomId(input.readLong());
+        int numEmails = input.readVarInt(true);
+        List<String> emails = person.getEmails();
+        for (int i = 0; i < numEmails; i++) {
+            emails.add(input.readString());
+        }
+        person.setLanguages(readInts(input));
+        person.setFirstName(input.readString());
+        person.setLastName(input.readString());
+        int numCompanies = input.readVarInt(true);
+        Map<Long, Long> companies = new HashMap<>();
+        for (int i = 0; i < numCompanies; i++) {
+            companies.put(input.readVarLong(true), input.readVarLong(false));
+        }
+        person.setCompanies(companies);
+        person.setClassYear(input.readVarLong(false));
+        return person;
+    }
+
+    private static void writeInts(Output output, int[] values) {
+        output.writeVarInt(values.length, true);
+        for (int value : values) {
+            output.writeVarInt(value, true);
+        }
+    }
+
+    private static int[] readInts(Input input) {
+        int[] values = new int[input.readVarInt(true)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = input.readVarInt(true);
+        }
+        return values;
+    }
+}
@@ -33,6 +33,18 @@ public final class PersonSummary implements Writable, Serializable {
         isMessageDeleter = p.isMessageDeleter();
     }
 
+    public PersonSummary(long accountId, long creationDate, long deletionDate, int browserId, int country,
+                         IP ipAddress, boolean isLargePoster, boolean isMessageDeleter) {
+        this.accountId = accountId;
+        this.creationDate = creationDate;
+        this.deletionDate = deletionDate;
+        this.browserId = browserId;
+        this.country = country;
+        this.ipAddress = ipAddress;
+        this.isLargePoster = isLargePoster;
+        this.isMessageDeleter = isMessageDeleter;
+    }
+
     public PersonSummary(PersonSummary p) {
         accountId = p.getAccountId();
         creationDate = p.getCreationDate();
@@ -0,0 +1,41 @@
+package ldbc.snb.datagen.entities.dynamic.person;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo serializer for PersonSummary, with the same layout as its Writable encoding
+ * but varint ids, a deletion date relative to the creation date and an inline IP.
+ */
+public class PersonSummaryKryoSerializer extends Serializer<PersonSummary> {
+
+    @Override
+    public void write(Kryo kryo, Output output, PersonSummary summary) {
+        output.writeVarLong(summary.getAccountId(), true);
+        output.writeLong(summary.getCreationDate());
+        output.writeVarLong(summary.getDeletionDate() - summary.getCreationDate(), false);
+        output.writeVarInt(summary.getBrowserId(), false);
+        output.writeVarInt(summary.getCountry(), false);
+        output.writeInt(summary.getIpAddress().getIp());
+        output.writeInt(summary.getIpAddress().getMask());
+        output.writeBoolean(summary.isLargePoster());
+        output.writeBoolean(summary.isMessageDeleter());
+    }
+
+    @Override
+    public PersonSummary read(Kryo kryo, Input input, Class<PersonSummary> type) {
+        long accountId = input.readVarLong(true);
+        long creationDate = input.readLong();
+        long deletionDate = creationDate + input.readVarLong(false);
+        int browserId = input.readVarInt(false);
+        int country = input.readVarInt(false);
+        int ip = input.readInt();
+        int mask = input.readInt();
+        boolean isLargePoster = input.readBoolean();
+        boolean isMessageDeleter = input.readBoolean();
+        return new PersonSummary(accountId, creationDate, deletionDate, browserId, country,
+                new IP(ip, mask), isLargePoster, isMessageDeleter);
+    }
+}
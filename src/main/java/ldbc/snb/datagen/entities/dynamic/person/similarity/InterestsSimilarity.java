@@ -2,18 +2,46 @@ package ldbc.snb.datagen.entities.dynamic.person.similarity;
 
 import ldbc.snb.datagen.entities.dynamic.person.Person;
 
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Arrays;
 
+/**
+ * The Jaccard index of the interests of two persons, main interests included. The interests are
+ * sorted, so they are intersected by merging them, without allocating.
+ */
 public class InterestsSimilarity implements Person.PersonSimilarity {
     public float similarity(Person personA, Person personB) {
-        Set<Integer> union = new TreeSet<>(personA.getInterests());
-        union.addAll(personB.getInterests());
-        union.add(personA.getMainInterest());
-        union.add(personB.getMainInterest());
-        Set<Integer> intersection = new TreeSet<>(personA.getInterests());
-        intersection.retainAll(personB.getInterests());
-        if (personA.getMainInterest() == personB.getMainInterest()) intersection.add(personA.getMainInterest());
-        return union.size() > 0 ? intersection.size() / (float) union.size() : 0;
+        int[] interestsA = personA.getInterests();
+        int[] interestsB = personB.getInterests();
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < interestsA.length && j < interestsB.length) {
+            if (interestsA[i] < interestsB[j]) {
+                i++;
+            } else if (interestsA[i] > interestsB[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        int union = interestsA.length + interestsB.length - intersection;
+
+        int mainInterestA = personA.getMainInterest();
+        int mainInterestB = personB.getMainInterest();
+        boolean mainAInA = Arrays.binarySearch(interestsA, mainInterestA) >= 0;
+        boolean mainAInB = Arrays.binarySearch(interestsB, mainInterestA) >= 0;
+        if (!mainAInA && !mainAInB) {
+            union++;
+        }
+        if (mainInterestA == mainInterestB) {
+            if (!mainAInA || !mainAInB) {
+                intersection++;
+            }
+        } else if (Arrays.binarySearch(interestsA, mainInterestB) < 0 && Arrays.binarySearch(interestsB, mainInterestB) < 0) {
+            union++;
+        }
+        return union > 0 ? intersection / (float) union : 0;
     }
 }
@@ -42,6 +42,14 @@ public final class Knows implements Writable, Comparable<Knows>, Serializable {
         this.isExplicitlyDeleted = isExplicitlyDeleted;
     }
 
+    public Knows(PersonSummary to, long creationDate, long deletionDate, float weight, boolean isExplicitlyDeleted) {
+        this.to = to;
+        this.creationDate = creationDate;
+        this.deletionDate = deletionDate;
+        this.weight = weight;
+        this.isExplicitlyDeleted = isExplicitlyDeleted;
+    }
+
     public boolean isExplicitlyDeleted() {
         return isExplicitlyDeleted;
     }
@@ -173,8 +181,8 @@ public final class Knows implements Writable, Comparable<Knows>, Serializable {
         }
         assert (creationDate <= deletionDate) : "Knows creation date is larger than knows deletion date";
 
-        return personB.getKnows().add(new Knows(personA, creationDate, deletionDate, similarity,isExplicitlyDeleted)) &&
-                personA.getKnows().add(new Knows(personB, creationDate, deletionDate, similarity,isExplicitlyDeleted));
+        return personB.getKnows().add(personA, creationDate, deletionDate, similarity, isExplicitlyDeleted) &&
+                personA.getKnows().add(personB, creationDate, deletionDate, similarity, isExplicitlyDeleted);
     }
 
     //     TODO: used for uni and interest dimension in knows gen
@@ -207,8 +215,8 @@ public final class Knows implements Writable, Comparable<Knows>, Serializable {
 
         assert (creationDate <= deletionDate) : "Knows creation date is larger than knows deletion date";
 
-        if (personB.getKnows().add(new Knows(personA, creationDate, deletionDate, similarity, isExplicitlyDeleted))) {
-            personA.getKnows().add(new Knows(personB, creationDate, deletionDate, similarity, isExplicitlyDeleted));
+        if (personB.getKnows().add(personA, creationDate, deletionDate, similarity, isExplicitlyDeleted)) {
+            personA.getKnows().add(personB, creationDate, deletionDate, similarity, isExplicitlyDeleted);
         }
     }
 
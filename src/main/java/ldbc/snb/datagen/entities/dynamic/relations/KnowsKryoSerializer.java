@@ -0,0 +1,35 @@
+package ldbc.snb.datagen.entities.dynamic.relations;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import ldbc.snb.datagen.entities.dynamic.person.PersonSummary;
+import ldbc.snb.datagen.entities.dynamic.person.PersonSummaryKryoSerializer;
+
+/**
+ * Kryo serializer for a single Knows, with the target written inline by PersonSummaryKryoSerializer.
+ */
+public class KnowsKryoSerializer extends Serializer<Knows> {
+
+    private final PersonSummaryKryoSerializer summarySerializer = new PersonSummaryKryoSerializer();
+
+    @Override
+    public void write(Kryo kryo, Output output, Knows knows) {
+        output.writeBoolean(knows.isExplicitlyDeleted());
+        summarySerializer.write(kryo, output, knows.to());
+        output.writeLong(knows.getCreationDate());
+        output.writeVarLong(knows.getDeletionDate() - knows.getCreationDate(), false);
+        output.writeFloat(knows.getWeight());
+    }
+
+    @Override
+    public Knows read(Kryo kryo, Input input, Class<Knows> type) {
+        boolean isExplicitlyDeleted = input.readBoolean();
+        PersonSummary to = summarySerializer.read(kryo, input, null);
+        long creationDate = input.readLong();
+        long deletionDate = creationDate + input.readVarLong(false);
+        float weight = input.readFloat();
+        return new Knows(to, creationDate, deletionDate, weight, isExplicitlyDeleted);
+    }
+}
@@ -0,0 +1,385 @@
+package ldbc.snb.datagen.entities.dynamic.relations;
+
+import ldbc.snb.datagen.entities.dynamic.person.IP;
+import ldbc.snb.datagen.entities.dynamic.person.Person;
+import ldbc.snb.datagen.entities.dynamic.person.PersonSummary;
+import org.apache.hadoop.io.Writable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * The knows edges of a Person, stored column-wise in parallel primitive arrays.
+ * Each edge keeps the fields of the target's PersonSummary inline, so no Knows,
+ * PersonSummary or IP objects are retained. {@link #get(int)} materializes a Knows
+ * on demand; hot paths should use the primitive accessors instead.
+ */
+public final class KnowsList extends AbstractList<Knows> implements Writable, Serializable {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    int size;
+
+    long[] targetIds;
+    long[] targetCreationDates;
+    long[] targetDeletionDates;
+    int[] targetBrowserIds;
+    int[] targetCountries;
+    int[] targetIps;
+    int[] targetMasks;
+    BitSet targetLargePosters;
+    BitSet targetMessageDeleters;
+
+    long[] creationDates;
+    long[] deletionDates;
+    float[] weights;
+    BitSet explicitlyDeleted;
+
+    public KnowsList() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public KnowsList(int capacity) {
+        allocate(capacity);
+    }
+
+    public KnowsList(KnowsList other) {
+        allocate(other.size);
+        addAll(other);
+    }
+
+    private void allocate(int capacity) {
+        size = 0;
+        targetIds = new long[capacity];
+        targetCreationDates = new long[capacity];
+        targetDeletionDates = new long[capacity];
+        targetBrowserIds = new int[capacity];
+        targetCountries = new int[capacity];
+        targetIps = new int[capacity];
+        targetMasks = new int[capacity];
+        targetLargePosters = new BitSet();
+        targetMessageDeleters = new BitSet();
+        creationDates = new long[capacity];
+        deletionDates = new long[capacity];
+        weights = new float[capacity];
+        explicitlyDeleted = new BitSet();
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity <= targetIds.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, Math.max(INITIAL_CAPACITY, targetIds.length + (targetIds.length >> 1)));
+        targetIds = Arrays.copyOf(targetIds, newCapacity);
+        targetCreationDates = Arrays.copyOf(targetCreationDates, newCapacity);
+        targetDeletionDates = Arrays.copyOf(targetDeletionDates, newCapacity);
+        targetBrowserIds = Arrays.copyOf(targetBrowserIds, newCapacity);
+        targetCountries = Arrays.copyOf(targetCountries, newCapacity);
+        targetIps = Arrays.copyOf(targetIps, newCapacity);
+        targetMasks = Arrays.copyOf(targetMasks, newCapacity);
+        creationDates = Arrays.copyOf(creationDates, newCapacity);
+        deletionDates = Arrays.copyOf(deletionDates, newCapacity);
+        weights = Arrays.copyOf(weights, newCapacity);
+    }
+
+    /**
+     * Appends an edge to the given person without allocating any intermediate objects.
+     */
+    public boolean add(Person to, long creationDate, long deletionDate, float weight, boolean isExplicitlyDeleted) {
+        int i = appendTarget(to.getAccountId(), to.getCreationDate(), to.getDeletionDate(), to.getBrowserId(),
+                to.getCountryId(), to.getIpAddress().getIp(), to.getIpAddress().getMask(),
+                to.getIsLargePoster(), to.isMessageDeleter());
+        setEdge(i, creationDate, deletionDate, weight, isExplicitlyDeleted);
+        return true;
+    }
+
+    @Override
+    public boolean add(Knows knows) {
+        ensureCapacity(size + 1);
+        setKnows(size++, knows);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Appends the edge at position index of another list.
+     */
+    public void add(KnowsList other, int index) {
+        int i = appendTarget(other.targetIds[index], other.targetCreationDates[index], other.targetDeletionDates[index],
+                other.targetBrowserIds[index], other.targetCountries[index], other.targetIps[index],
+                other.targetMasks[index], other.targetLargePosters.get(index), other.targetMessageDeleters.get(index));
+        setEdge(i, other.creationDates[index], other.deletionDates[index], other.weights[index],
+                other.explicitlyDeleted.get(index));
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Knows> c) {
+        if (c instanceof KnowsList) {
+            KnowsList other = (KnowsList) c;
+            int n = other.size;
+            ensureCapacity(size + n);
+            for (int i = 0; i < n; i++) {
+                add(other, i);
+            }
+            return n > 0;
+        }
+        return super.addAll(c);
+    }
+
+    @Override
+    public void add(int index, Knows knows) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ensureCapacity(size + 1);
+        move(index, index + 1, size - index);
+        size++;
+        modCount++;
+        setKnows(index, knows);
+    }
+
+    @Override
+    public Knows set(int index, Knows knows) {
+        Knows previous = get(index);
+        setKnows(index, knows);
+        return previous;
+    }
+
+    @Override
+    public Knows remove(int index) {
+        Knows previous = get(index);
+        move(index + 1, index, size - index - 1);
+        size--;
+        targetLargePosters.clear(size);
+        targetMessageDeleters.clear(size);
+        explicitlyDeleted.clear(size);
+        modCount++;
+        return previous;
+    }
+
+    /**
+     * Moves the edges [from, from + length) to [to, to + length), as System.arraycopy does for every column.
+     */
+    private void move(int from, int to, int length) {
+        System.arraycopy(targetIds, from, targetIds, to, length);
+        System.arraycopy(targetCreationDates, from, targetCreationDates, to, length);
+        System.arraycopy(targetDeletionDates, from, targetDeletionDates, to, length);
+        System.arraycopy(targetBrowserIds, from, targetBrowserIds, to, length);
+        System.arraycopy(targetCountries, from, targetCountries, to, length);
+        System.arraycopy(targetIps, from, targetIps, to, length);
+        System.arraycopy(targetMasks, from, targetMasks, to, length);
+        System.arraycopy(creationDates, from, creationDates, to, length);
+        System.arraycopy(deletionDates, from, deletionDates, to, length);
+        System.arraycopy(weights, from, weights, to, length);
+        moveBits(targetLargePosters, from, to, length);
+        moveBits(targetMessageDeleters, from, to, length);
+        moveBits(explicitlyDeleted, from, to, length);
+    }
+
+    private static void moveBits(BitSet bits, int from, int to, int length) {
+        BitSet moved = bits.get(from, from + length);
+        bits.clear(to, to + length);
+        for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) {
+            bits.set(to + i);
+        }
+    }
+
+    private void setKnows(int i, Knows knows) {
+        PersonSummary to = knows.to();
+        setTarget(i, to.getAccountId(), to.getCreationDate(), to.getDeletionDate(), to.getBrowserId(),
+                to.getCountry(), to.getIpAddress().getIp(), to.getIpAddress().getMask(),
+                to.isLargePoster(), to.isMessageDeleter());
+        setEdge(i, knows.getCreationDate(), knows.getDeletionDate(), knows.getWeight(), knows.isExplicitlyDeleted());
+    }
+
+    private int appendTarget(long accountId, long creationDate, long deletionDate, int browserId, int country,
+                             int ip, int mask, boolean isLargePoster, boolean isMessageDeleter) {
+        ensureCapacity(size + 1);
+        int i = size++;
+        setTarget(i, accountId, creationDate, deletionDate, browserId, country, ip, mask, isLargePoster, isMessageDeleter);
+        modCount++;
+        return i;
+    }
+
+    private void setTarget(int i, long accountId, long creationDate, long deletionDate, int browserId, int country,
+                           int ip, int mask, boolean isLargePoster, boolean isMessageDeleter) {
+        targetIds[i] = accountId;
+        targetCreationDates[i] = creationDate;
+        targetDeletionDates[i] = deletionDate;
+        targetBrowserIds[i] = browserId;
+        targetCountries[i] = country;
+        targetIps[i] = ip;
+        targetMasks[i] = mask;
+        targetLargePosters.set(i, isLargePoster);
+        targetMessageDeleters.set(i, isMessageDeleter);
+    }
+
+    private void setEdge(int i, long creationDate, long deletionDate, float weight, boolean isExplicitlyDeleted) {
+        creationDates[i] = creationDate;
+        deletionDates[i] = deletionDate;
+        weights[i] = weight;
+        explicitlyDeleted.set(i, isExplicitlyDeleted);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        targetLargePosters.clear();
+        targetMessageDeleters.clear();
+        explicitlyDeleted.clear();
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Knows get(int index) {
+        checkIndex(index);
+        return new Knows(summary(index), creationDates[index], deletionDates[index], weights[index],
+                explicitlyDeleted.get(index));
+    }
+
+    /**
+     * Materializes the PersonSummary of the target of the edge at position index.
+     */
+    public PersonSummary summary(int index) {
+        checkIndex(index);
+        return new PersonSummary(targetIds[index], targetCreationDates[index], targetDeletionDates[index],
+                targetBrowserIds[index], targetCountries[index], new IP(targetIps[index], targetMasks[index]),
+                targetLargePosters.get(index), targetMessageDeleters.get(index));
+    }
+
+    public long targetId(int index) {
+        checkIndex(index);
+        return targetIds[index];
+    }
+
+    public long targetCreationDate(int index) {
+        checkIndex(index);
+        return targetCreationDates[index];
+    }
+
+    public long targetDeletionDate(int index) {
+        checkIndex(index);
+        return targetDeletionDates[index];
+    }
+
+    public long creationDate(int index) {
+        checkIndex(index);
+        return creationDates[index];
+    }
+
+    public long deletionDate(int index) {
+        checkIndex(index);
+        return deletionDates[index];
+    }
+
+    public float weight(int index) {
+        checkIndex(index);
+        return weights[index];
+    }
+
+    public boolean isExplicitlyDeleted(int index) {
+        checkIndex(index);
+        return explicitlyDeleted.get(index);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Reads the edges in the same layout as a short count followed by Knows.write for each edge.
+     */
+    public void readFields(DataInput arg0) throws IOException {
+        int numFriends = arg0.readShort();
+        allocate(numFriends);
+        for (int i = 0; i < numFriends; i++) {
+            boolean isExplicitlyDeleted = arg0.readBoolean();
+            long accountId = arg0.readLong();
+            long targetCreationDate = arg0.readLong();
+            long targetDeletionDate = arg0.readLong();
+            int browserId = arg0.readInt();
+            int country = arg0.readInt();
+            int ip = arg0.readInt();
+            int mask = arg0.readInt();
+            arg0.readInt(); // network, always ip & mask
+            boolean isLargePoster = arg0.readBoolean();
+            boolean isMessageDeleter = arg0.readBoolean();
+            int j = appendTarget(accountId, targetCreationDate, targetDeletionDate, browserId, country, ip, mask,
+                    isLargePoster, isMessageDeleter);
+            long creationDate = arg0.readLong();
+            long deletionDate = arg0.readLong();
+            float weight = arg0.readFloat();
+            setEdge(j, creationDate, deletionDate, weight, isExplicitlyDeleted);
+        }
+    }
+
+    public void write(DataOutput arg0) throws IOException {
+        arg0.writeShort(size);
+        for (int i = 0; i < size; i++) {
+            arg0.writeBoolean(explicitlyDeleted.get(i));
+            arg0.writeLong(targetIds[i]);
+            arg0.writeLong(targetCreationDates[i]);
+            arg0.writeLong(targetDeletionDates[i]);
+            arg0.writeInt(targetBrowserIds[i]);
+            arg0.writeInt(targetCountries[i]);
+            arg0.writeInt(targetIps[i]);
+            arg0.writeInt(targetMasks[i]);
+            arg0.writeInt(targetIps[i] & targetMasks[i]);
+            arg0.writeBoolean(targetLargePosters.get(i));
+            arg0.writeBoolean(targetMessageDeleters.get(i));
+            arg0.writeLong(creationDates[i]);
+            arg0.writeLong(deletionDates[i]);
+            arg0.writeFloat(weights[i]);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KnowsList)) return false;
+        KnowsList that = (KnowsList) o;
+        if (size != that.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (targetIds[i] != that.targetIds[i] ||
+                    targetCreationDates[i] != that.targetCreationDates[i] ||
+                    targetDeletionDates[i] != that.targetDeletionDates[i] ||
+                    targetBrowserIds[i] != that.targetBrowserIds[i] ||
+                    targetCountries[i] != that.targetCountries[i] ||
+                    targetIps[i] != that.targetIps[i] ||
+                    targetMasks[i] != that.targetMasks[i] ||
+                    targetLargePosters.get(i) != that.targetLargePosters.get(i) ||
+                    targetMessageDeleters.get(i) != that.targetMessageDeleters.get(i) ||
+                    creationDates[i] != that.creationDates[i] ||
+                    deletionDates[i] != that.deletionDates[i] ||
+                    Float.compare(weights[i], that.weights[i]) != 0 ||
+                    explicitlyDeleted.get(i) != that.explicitlyDeleted.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + Long.hashCode(targetIds[i]);
+            result = 31 * result + Long.hashCode(creationDates[i]);
+            result = 31 * result + Long.hashCode(deletionDates[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package ldbc.snb.datagen.entities.dynamic.relations;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.util.BitSet;
+
+/**
+ * Kryo serializer writing the columns of a KnowsList one after the other. Ids and creation dates
+ * are written as zigzag varints of the difference to the previous edge, and deletion dates as the
+ * difference to the creation date of the same edge, so most of them take a few bytes. Browsers and
+ * countries are small varints. Ips, masks and weights are written with their fixed width.
+ */
+public class KnowsListKryoSerializer extends Serializer<KnowsList> {
+
+    @Override
+    public void write(Kryo kryo, Output output, KnowsList knows) {
+        int size = knows.size;
+        output.writeVarInt(size, true);
+        writeDeltas(output, knows.targetIds, size);
+        writeDeltas(output, knows.targetCreationDates, size);
+        writeDifferences(output, knows.targetDeletionDates, knows.targetCreationDates, size);
+        for (int i = 0; i < size; i++) output.writeVarInt(knows.targetBrowserIds[i], false);
+        for (int i = 0; i < size; i++) output.writeVarInt(knows.targetCountries[i], false);
+        for (int i = 0; i < size; i++) output.writeInt(knows.targetIps[i]);
+        for (int i = 0; i < size; i++) output.writeInt(knows.targetMasks[i]);
+        writeDeltas(output, knows.creationDates, size);
+        writeDifferences(output, knows.deletionDates, knows.creationDates, size);
+        for (int i = 0; i < size; i++) output.writeFloat(knows.weights[i]);
+        writeBitSet(output, knows.targetLargePosters);
+        writeBitSet(output, knows.targetMessageDeleters);
+        writeBitSet(output, knows.explicitlyDeleted);
+    }
+
+    @Override
+    public KnowsList read(Kryo kryo, Input input, Class<KnowsList> type) {
+        int size = input.readVarInt(true);
+        KnowsList knows = new KnowsList(size);
+        knows.size = size;
+        readDeltas(input, knows.targetIds, size);
+        readDeltas(input, knows.targetCreationDates, size);
+        readDifferences(input, knows.targetDeletionDates, knows.targetCreationDates, size);
+        for (int i = 0; i < size; i++) knows.targetBrowserIds[i] = input.readVarInt(false);
+        for (int i = 0; i < size; i++) knows.targetCountries[i] = input.readVarInt(false);
+        for (int i = 0; i < size; i++) knows.targetIps[i] = input.readInt();
+        for (int i = 0; i < size; i++) knows.targetMasks[i] = input.readInt();
+        readDeltas(input, knows.creationDates, size);
+        readDifferences(input, knows.deletionDates, knows.creationDates, size);
+        for (int i = 0; i < size; i++) knows.weights[i] = input.readFloat();
+        knows.targetLargePosters = readBitSet(input);
+        knows.targetMessageDeleters = readBitSet(input);
+        knows.explicitlyDeleted = readBitSet(input);
+        return knows;
+    }
+
+    private static void writeDeltas(Output output, long[] values, int size) {
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            output.writeVarLong(values[i] - previous, false);
+            previous = values[i];
+        }
+    }
+
+    private static void readDeltas(Input input, long[] values, int size) {
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            previous += input.readVarLong(false);
+            values[i] = previous;
+        }
+    }
+
+    private static void writeDifferences(Output output, long[] values, long[] bases, int size) {
+        for (int i = 0; i < size; i++) output.writeVarLong(values[i] - bases[i], false);
+    }
+
+    private static void readDifferences(Input input, long[] values, long[] bases, int size) {
+        for (int i = 0; i < size; i++) values[i] = bases[i] + input.readVarLong(false);
+    }
+
+    private static void writeBitSet(Output output, BitSet bits) {
+        long[] words = bits.toLongArray();
+        output.writeVarInt(words.length, true);
+        for (long word : words) output.writeLong(word);
+    }
+
+    private static BitSet readBitSet(Input input) {
+        int numWords = input.readVarInt(true);
+        long[] words = new long[numWords];
+        for (int i = 0; i < numWords; i++) words[i] = input.readLong();
+        return BitSet.valueOf(words);
+    }
+}
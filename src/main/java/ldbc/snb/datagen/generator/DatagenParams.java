@@ -3,10 +3,13 @@ package ldbc.snb.datagen.generator;
 import ldbc.snb.datagen.entities.dynamic.person.Person;
 import ldbc.snb.datagen.entities.dynamic.person.similarity.GeoDistanceSimilarity;
 import ldbc.snb.datagen.entities.dynamic.person.similarity.InterestsSimilarity;
+import ldbc.snb.datagen.generator.distribution.AltmannDistribution;
 import ldbc.snb.datagen.generator.distribution.DegreeDistribution;
+import ldbc.snb.datagen.generator.distribution.DiscreteWeibullDistribution;
 import ldbc.snb.datagen.generator.distribution.FacebookDegreeDistribution;
 import ldbc.snb.datagen.generator.distribution.ZipfDistribution;
 import ldbc.snb.datagen.util.GeneratorConfiguration;
+import ldbc.snb.datagen.util.PhaseProfiler;
 
 public class DatagenParams {
 
@@ -189,6 +192,7 @@ public class DatagenParams {
     public static String degreeDistributionName;
     public static String knowsGeneratorName;
     public static String personSimularity;
+    public static String randomGeneratorName;
 
     public static int delta = 10000;
     public static long numPersons = 10000;
@@ -276,6 +280,11 @@ public class DatagenParams {
             knowsGeneratorName = conf.get("generator.knowsGenerator");
             personSimularity = conf.get("generator.person.similarity");
             degreeDistributionName = conf.get("generator.degreeDistribution");
+            randomGeneratorName = conf.get("generator.randomGenerator", "Random");
+            if (!"Random".equals(randomGeneratorName) && !"SplitMix".equals(randomGeneratorName)) {
+                throw new IllegalStateException("Unexpected random generator: " + randomGeneratorName);
+            }
+            PhaseProfiler.setEnabled(Boolean.parseBoolean(conf.get("generator.profile", "false")));
 
             System.out.println(" ... Num Persons " + numPersons);
             System.out.println(" ... Start Year " + startYear);
@@ -301,6 +310,12 @@ public class DatagenParams {
             case "Zipf":
                 output = new ZipfDistribution();
                 break;
+            case "Altmann":
+                output = new AltmannDistribution();
+                break;
+            case "DiscreteWeibull":
+                output = new DiscreteWeibullDistribution();
+                break;
             default:
                 throw new IllegalStateException("Unexpected degree distribution: " + degreeDistributionName);
         }
@@ -310,10 +325,18 @@ public class DatagenParams {
 
     public static String getKnowsGenerator() {
         String output;
-        if ("Distance".equals(knowsGeneratorName)) {
-            output = "ldbc.snb.datagen.generator.generators.knowsgenerators.DistanceKnowsGenerator";
-        } else {
-            throw new IllegalStateException("Unexpected degree distribution: " + knowsGeneratorName);
+        switch (knowsGeneratorName) {
+            case "Distance":
+                output = "ldbc.snb.datagen.generator.generators.knowsgenerators.DistanceKnowsGenerator";
+                break;
+            case "GeometricDistance":
+                output = "ldbc.snb.datagen.generator.generators.knowsgenerators.GeometricDistanceKnowsGenerator";
+                break;
+            case "Random":
+                output = "ldbc.snb.datagen.generator.generators.knowsgenerators.RandomKnowsGenerator";
+                break;
+            default:
+                throw new IllegalStateException("Unexpected knows generator: " + knowsGeneratorName);
         }
 
         return output;
@@ -1,11 +1,14 @@
 package ldbc.snb.datagen.generator;
 
 import ldbc.snb.datagen.entities.dynamic.person.Person;
-import ldbc.snb.datagen.entities.dynamic.relations.Knows;
+import ldbc.snb.datagen.entities.dynamic.relations.KnowsList;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Merges the knows edges generated for a person in the different correlation dimensions. For every
+ * target only the edge with the earliest creation date is kept, and the edges are ordered by target.
+ */
 public class FriendshipMerger {
     public int getNumRepeated() {
         return numRepeated;
@@ -13,33 +16,65 @@ public class FriendshipMerger {
 
     private int numRepeated = 0;
 
+    /**
+     * Merges the edges of copies of the same person into the first copy, which is returned.
+     */
     public Person apply(Iterable<Person> valueSet) {
-        List<Knows> knows = new ArrayList<>();
+        KnowsList knows = new KnowsList();
         Person person = null;
-        int index = 0;
         for (Person p : valueSet) {
-            if (index == 0) {
-                person = new Person(p);
+            if (person == null) {
+                person = p;
             }
             knows.addAll(p.getKnows());
-            index++;
         }
-        person.getKnows().clear();
-        Knows.FullComparator comparator = new Knows.FullComparator();
-        knows.sort(comparator);
-        if (knows.size() > 0) {
-            long currentTo = knows.get(0).to().getAccountId();
-            person.getKnows().add(knows.get(0));
-            for (index = 1; index < knows.size(); ++index) {
-                Knows nextKnows = knows.get(index);
-                if (currentTo != knows.get(index).to().getAccountId()) {
-                    person.getKnows().add(nextKnows);
-                    currentTo = nextKnows.to().getAccountId();
-                } else {
-                    numRepeated++;
-                }
-            }
+        merge(person, knows);
+        return person;
+    }
+
+    /**
+     * Merges edge lists generated for the person separately into the person's own knows.
+     */
+    public Person apply(Person person, Iterable<KnowsList> edges) {
+        KnowsList knows = new KnowsList(person.getKnows());
+        for (KnowsList e : edges) {
+            knows.addAll(e);
         }
+        merge(person, knows);
         return person;
     }
+
+    private void merge(Person person, KnowsList knows) {
+        int numKnows = knows.size();
+
+        // distinct targets, in ascending order
+        long[] targets = new long[numKnows];
+        for (int i = 0; i < numKnows; i++) {
+            targets[i] = knows.targetId(i);
+        }
+        Arrays.sort(targets);
+        int numTargets = 0;
+        for (int i = 0; i < numKnows; i++) {
+            if (numTargets == 0 || targets[i] != targets[numTargets - 1]) {
+                targets[numTargets++] = targets[i];
+            }
+        }
+
+        // earliest edge per target, the first one seen on ties
+        int[] selected = new int[numTargets];
+        Arrays.fill(selected, -1);
+        for (int i = 0; i < numKnows; i++) {
+            int slot = Arrays.binarySearch(targets, 0, numTargets, knows.targetId(i));
+            if (selected[slot] == -1 || knows.creationDate(i) < knows.creationDate(selected[slot])) {
+                selected[slot] = i;
+            }
+        }
+        numRepeated += numKnows - numTargets;
+
+        KnowsList merged = person.getKnows();
+        merged.clear();
+        for (int slot = 0; slot < numTargets; slot++) {
+            merged.add(knows, selected[slot]);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package ldbc.snb.datagen.generator.dictionary;
 import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.entities.statictype.place.Place;
 import ldbc.snb.datagen.util.ZOrder;
+import ldbc.snb.datagen.util.sampling.GuideTable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -21,7 +22,8 @@ public class PlaceDictionary {
     private static final String SEPARATOR_CITY = " ";
 
     private PlaceZOrder[] sortedPlace;
-    private Float[] cumulativeDistribution;
+    private float[] cumulativeDistribution;
+    private GuideTable cumulativeDistributionTable;
 
     /**
      * The set of countries. *
@@ -249,8 +251,13 @@ public class PlaceDictionary {
                 citiesByCountry.put(place.getId(), new ArrayList<>());
             }
             dictionary.close();
-            cumulativeDistribution = new Float[temporalCumulative.size()];
-            cumulativeDistribution = temporalCumulative.toArray(cumulativeDistribution);
+            cumulativeDistribution = new float[temporalCumulative.size()];
+            double[] cumulative = new double[temporalCumulative.size()];
+            for (int i = 0; i < cumulativeDistribution.length; i++) {
+                cumulativeDistribution[i] = temporalCumulative.get(i);
+                cumulative[i] = cumulativeDistribution[i];
+            }
+            cumulativeDistributionTable = new GuideTable(cumulative);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -303,11 +310,13 @@ public class PlaceDictionary {
      * Gets a country for a person.
      */
     public int getCountryForPerson(Random random) {
-        int position = Arrays.binarySearch(cumulativeDistribution, random.nextFloat());
-        if (position >= 0) {
-            return position;
+        float prob = random.nextFloat();
+        int position = cumulativeDistributionTable.upperBound(prob);
+        if (position > 0 && cumulativeDistribution[position - 1] == prob) {
+            // exact hit, resolved the way the binary search always did
+            return Arrays.binarySearch(cumulativeDistribution, prob);
         }
-        return (-(position + 1));
+        return position;
     }
 
     public float getCumProbabilityCountry(int countryId) {
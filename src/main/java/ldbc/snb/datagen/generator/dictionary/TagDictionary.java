@@ -1,6 +1,7 @@
 package ldbc.snb.datagen.generator.dictionary;
 
 import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.util.sampling.GuideTable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -28,6 +29,10 @@ public class TagDictionary {
     /**
      *  The tags by country cumulative distribution.
      */
+    private GuideTable[] tagCummulativeTables;
+    /**
+     *  The lookup tables over the tags by country cumulative distribution.
+     */
     private Map<Integer, String> tagClassName;
     /**
      *  The tag class names.
@@ -184,6 +189,15 @@ public class TagDictionary {
                     numPopularTags = tagId + 1;
                 }
             }
+            tagCummulativeTables = new GuideTable[tagCummulativeDist.size()];
+            for (int i = 0; i < tagCummulativeTables.length; i++) {
+                List<Double> dist = tagCummulativeDist.get(i);
+                double[] cummulative = new double[dist.size()];
+                for (int j = 0; j < cummulative.length; j++) {
+                    cummulative[j] = dist.get(j);
+                }
+                tagCummulativeTables[i] = new GuideTable(cummulative);
+            }
 
             dictionary.close();
         } catch (IOException e) {
@@ -207,18 +221,7 @@ public class TagDictionary {
         }
 
         double randomDis = randomTagCountryProb.nextDouble();
-        int lowerBound = 0;
-        int upperBound = tagsByCountry.get(countryId).size();
-        int curIdx = (upperBound + lowerBound) / 2;
-
-        while (upperBound > (lowerBound + 1)) {
-            if (tagCummulativeDist.get(countryId).get(curIdx) > randomDis) {
-                upperBound = curIdx;
-            } else {
-                lowerBound = curIdx;
-            }
-            curIdx = (upperBound + lowerBound) / 2;
-        }
+        int curIdx = tagCummulativeTables[countryId].floorIndex(randomDis, 0, tagsByCountry.get(countryId).size());
 
         return tagsByCountry.get(countryId).get(curIdx);
     }
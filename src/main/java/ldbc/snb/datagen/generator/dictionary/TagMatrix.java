@@ -1,6 +1,7 @@
 package ldbc.snb.datagen.generator.dictionary;
 
 import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.util.sampling.GuideTable;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
@@ -16,6 +17,12 @@ public class TagMatrix {
      */
     private TreeMap<Integer, List<Double>> cumulative;
 
+    /**
+     *  The related tags and their cumulative distribution per tag, indexed by tag id.
+     */
+    private int[][] relatedTagArrays;
+    private GuideTable[] cumulativeTables;
+
     private List<Integer> nonZeroTags;
 
     /**
@@ -54,6 +61,21 @@ public class TagMatrix {
             for (Integer tag : relatedTags.keySet()) {
                 nonZeroTags.add(tag);
             }
+            int maxTag = relatedTags.isEmpty() ? -1 : relatedTags.lastKey();
+            relatedTagArrays = new int[maxTag + 1][];
+            cumulativeTables = new GuideTable[maxTag + 1];
+            for (Map.Entry<Integer, List<Integer>> entry : relatedTags.entrySet()) {
+                List<Integer> related = entry.getValue();
+                List<Double> cum = cumulative.get(entry.getKey());
+                int[] tags = new int[related.size()];
+                double[] dist = new double[related.size()];
+                for (int i = 0; i < tags.length; i++) {
+                    tags[i] = related.get(i);
+                    dist[i] = cum.get(i);
+                }
+                relatedTagArrays[entry.getKey()] = tags;
+                cumulativeTables[entry.getKey()] = new GuideTable(dist);
+            }
             dictionary.close();
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -89,25 +111,13 @@ public class TagMatrix {
             int tagId;
             tagId = popularTagId;
 
-            if (relatedTags.get(tagId) == null) {
+            if (tagId < 0 || tagId >= relatedTagArrays.length || relatedTagArrays[tagId] == null) {
                 tagId = nonZeroTags.get(randomTag.nextInt(nonZeroTags.size()));
             }
 
-            // Doing binary search for finding the tag
             double randomDis = randomTag.nextDouble();
-            int lowerBound = 0;
-            int upperBound = relatedTags.get(tagId).size();
-            int midPoint = (upperBound + lowerBound) / 2;
-
-            while (upperBound > (lowerBound + 1)) {
-                if (cumulative.get(tagId).get(midPoint) > randomDis) {
-                    upperBound = midPoint;
-                } else {
-                    lowerBound = midPoint;
-                }
-                midPoint = (upperBound + lowerBound) / 2;
-            }
-            resultTags.add(relatedTags.get(tagId).get(midPoint));
+            int[] related = relatedTagArrays[tagId];
+            resultTags.add(related[cumulativeTables[tagId].floorIndex(randomDis, 0, related.length)]);
         }
         return resultTags;
 
@@ -0,0 +1,178 @@
+package ldbc.snb.datagen.generator.dictionary;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The text of a message, kept as the slices of the tag texts it is made of instead of as a String.
+ * Every segment is either the whole text of a tag or the "About tag, " prefix of the tag followed by
+ * a slice of its text. The text may end with a period and a space, and is cut at its length.
+ * <p>
+ * The length is known without building the text. It is read from the tag texts by {@link #getChars}, which
+ * the writers use, and only built as a String by {@link #toString()} and {@link #subSequence}. Pipes are
+ * written as spaces, like the text generator always did.
+ */
+public final class TagText implements CharSequence, Serializable {
+
+    private static final int WHOLE_TEXT = -1;
+    private static final int FIELDS = 4;
+
+    private final TagTextDictionary dictionary;
+    // tag, offset in the tag text or WHOLE_TEXT, length of the slice and start in the text of each segment
+    private int[] segments;
+    private int numSegments;
+    private int rawLength;
+    private boolean period;
+    private boolean space;
+    private int length;
+
+    TagText(TagTextDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.segments = new int[FIELDS * 4];
+    }
+
+    private void addSegment(int tag, int offset, int sliceLength) {
+        if (FIELDS * (numSegments + 1) > segments.length) {
+            segments = Arrays.copyOf(segments, segments.length * 2);
+        }
+        segments[FIELDS * numSegments] = tag;
+        segments[FIELDS * numSegments + 1] = offset;
+        segments[FIELDS * numSegments + 2] = sliceLength;
+        segments[FIELDS * numSegments + 3] = rawLength;
+        numSegments++;
+    }
+
+    void addWholeText(int tag, int textLength) {
+        addSegment(tag, WHOLE_TEXT, textLength);
+        rawLength += textLength;
+    }
+
+    void addSlice(int tag, int prefixLength, int offset, int sliceLength) {
+        addSegment(tag, offset, sliceLength);
+        rawLength += prefixLength + sliceLength;
+    }
+
+    int rawLength() {
+        return rawLength;
+    }
+
+    /**
+     * Appends a period unless the text already ends with one, then a space if the text is still
+     * shorter than textSize - 1, and cuts the text to textSize - 1 characters if it is longer than textSize.
+     */
+    void finish(boolean endsWithPeriod, int textSize) {
+        period = !endsWithPeriod;
+        int total = rawLength + (period ? 1 : 0);
+        space = total < textSize - 1;
+        total += space ? 1 : 0;
+        length = total > textSize ? textSize - 1 : total;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * The last segment that starts at or before index, which is the one holding it, as the segments that
+     * start at the same position before it are empty.
+     */
+    private int segmentAt(int index) {
+        int low = 0;
+        int high = numSegments - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments[FIELDS * middle + 3] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        char c;
+        if (index < rawLength) {
+            int segment = segmentAt(index);
+            int tag = segments[FIELDS * segment];
+            int offset = segments[FIELDS * segment + 1];
+            int at = index - segments[FIELDS * segment + 3];
+            String text = dictionary.getTagText(tag);
+            if (offset == WHOLE_TEXT) {
+                c = text.charAt(at);
+            } else {
+                String prefix = dictionary.getTagPrefix(tag);
+                c = at < prefix.length() ? prefix.charAt(at) : text.charAt(offset + at - prefix.length());
+            }
+        } else {
+            c = index == rawLength && period ? '.' : ' ';
+        }
+        return c == '|' ? ' ' : c;
+    }
+
+    /**
+     * Copies the characters from srcBegin to srcEnd to dst at dstBegin, like {@link String#getChars}, slice
+     * by slice from the tag texts.
+     */
+    public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+        if (srcBegin < 0 || srcBegin > srcEnd || srcEnd > length) {
+            throw new IndexOutOfBoundsException("begin " + srcBegin + ", end " + srcEnd + ", length " + length);
+        }
+        int shift = dstBegin - srcBegin;
+        int position = srcBegin;
+        for (int i = srcBegin < rawLength ? segmentAt(srcBegin) : numSegments; i < numSegments && position < srcEnd; ++i) {
+            int tag = segments[FIELDS * i];
+            int offset = segments[FIELDS * i + 1];
+            int sliceLength = segments[FIELDS * i + 2];
+            int start = segments[FIELDS * i + 3];
+            String text = dictionary.getTagText(tag);
+            if (offset == WHOLE_TEXT) {
+                position = copy(text, 0, sliceLength, start, position, srcEnd, dst, shift);
+            } else {
+                String prefix = dictionary.getTagPrefix(tag);
+                position = copy(prefix, 0, prefix.length(), start, position, srcEnd, dst, shift);
+                position = copy(text, offset, sliceLength, start + prefix.length(), position, srcEnd, dst, shift);
+            }
+        }
+        for (; position < srcEnd; ++position) {
+            dst[shift + position] = position == rawLength && period ? '.' : ' ';
+        }
+        for (int i = dstBegin; i < dstBegin + srcEnd - srcBegin; ++i) {
+            if (dst[i] == '|') {
+                dst[i] = ' ';
+            }
+        }
+    }
+
+    /**
+     * Copies the characters of the chunk, the chunkLength characters of s from sBegin which start at chunkStart
+     * in the text, that are between position and end, and returns the position after them.
+     */
+    private static int copy(String s, int sBegin, int chunkLength, int chunkStart, int position, int end, char[] dst, int shift) {
+        int chunkEnd = Math.min(chunkStart + chunkLength, end);
+        if (position >= chunkEnd) {
+            return position;
+        }
+        s.getChars(sBegin + position - chunkStart, sBegin + chunkEnd - chunkStart, dst, shift + position);
+        return chunkEnd;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        char[] chars = new char[end - start];
+        getChars(start, end, chars, 0);
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        getChars(0, length, chars, 0);
+        return new String(chars);
+    }
+}
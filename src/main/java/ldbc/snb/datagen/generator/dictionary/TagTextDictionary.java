@@ -16,13 +16,25 @@ public class TagTextDictionary {
     /**
      *  The tag text. *
      */
+    private Map<Integer, String> tagPrefix;
+    /**
+     *  The "About tag, " prefix of the text slices of each tag. *
+     */
     private double reducedTextRatio;
 
     public TagTextDictionary(TagDictionary tagDic, double reducedTextRatio) {
         this.tagText = new HashMap<>();
+        this.tagPrefix = new HashMap<>();
         this.tagDic = tagDic;
         this.reducedTextRatio = reducedTextRatio;
         load(DatagenParams.tagTextFile);
+        for (Integer id : tagText.keySet()) {
+            String tagName = tagDic.getName(id);
+            if (tagName != null) {
+                tagName = tagName.replace("_", " ").replace("\"", "\\\"");
+                tagPrefix.put(id, "About " + tagName + ", ");
+            }
+        }
     }
 
     /**
@@ -54,6 +66,14 @@ public class TagTextDictionary {
         return tagText.get(id);
     }
 
+    /**
+     * @param id The tag identifier.
+     * @return The prefix of the slices of the tag's text.
+     */
+    String getTagPrefix(int id) {
+        return tagPrefix.get(id);
+    }
+
     /**
      * @param randomTextSize    The random number generator to generate the text's size.
      * @param randomReducedText The random number generator to generate a small text size.
@@ -84,45 +104,37 @@ public class TagTextDictionary {
      * @param randomTextSize The random number generator to generate the amount of text devoted to each tag.
      * @param tags           The set of tags to generate the text from.
      * @param textSize       The final text size.
-     * @return The final text.
+     * @return The final text, built when it is written.
      * @brief Generates a text given a set of tags.
      */
-    public String generateText(Random randomTextSize, TreeSet<Integer> tags, int textSize) {
-        StringBuilder returnString = new StringBuilder(1024);
-        returnString.setLength(0);
+    public TagText generateText(Random randomTextSize, TreeSet<Integer> tags, int textSize) {
+        TagText text = new TagText(this);
+        boolean endsWithPeriod = false;
         int textSizePerTag = (int) Math.ceil(textSize / (double) tags.size());
-        while (returnString.length() < textSize) {
+        while (text.rawLength() < textSize) {
             Iterator<Integer> it = tags.iterator();
-            while (it.hasNext() && returnString.length() < textSize) {
+            while (it.hasNext() && text.rawLength() < textSize) {
                 Integer tag = it.next();
                 String content = getTagText(tag);
-                int thisTagTextSize = Math.min(textSizePerTag, textSize - returnString.length());
-                String tagName = tagDic.getName(tag).replace("_", " ");
-                tagName = tagName.replace("\"", "\\\"");
-                String prefix = "About " + tagName + ", ";
+                int thisTagTextSize = Math.min(textSizePerTag, textSize - text.rawLength());
+                String prefix = getTagPrefix(tag);
                 thisTagTextSize += prefix.length();
                 if (thisTagTextSize >= content.length()) {
-                    returnString.append(content);
+                    text.addWholeText(tag, content.length());
+                    if (!content.isEmpty()) {
+                        endsWithPeriod = content.charAt(content.length() - 1) == '.';
+                    }
                 } else {
                     int startingPos = randomTextSize.nextInt(content.length() - thisTagTextSize + prefix.length());
-                    String finalString = content.substring(startingPos, startingPos + thisTagTextSize - prefix
-                            .length());
-                    returnString.append(prefix);
-                    returnString.append(finalString);
+                    int sliceLength = thisTagTextSize - prefix.length();
+                    text.addSlice(tag, prefix.length(), startingPos, sliceLength);
+                    endsWithPeriod = sliceLength > 0
+                            ? content.charAt(startingPos + sliceLength - 1) == '.'
+                            : prefix.charAt(prefix.length() - 1) == '.';
                 }
             }
         }
-
-        if (returnString.charAt(returnString.length() - 1) != '.') {
-            returnString.append(".");
-        }
-        if (returnString.length() < textSize - 1) {
-            returnString.append(" ");
-        }
-        if (returnString.length() > textSize) {
-            returnString.delete(textSize - 1, returnString.length());
-            returnString.trimToSize();
-        }
-        return returnString.toString().replace("|", " ");
+        text.finish(endsWithPeriod, textSize);
+        return text;
     }
 }
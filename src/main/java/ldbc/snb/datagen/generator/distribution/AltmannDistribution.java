@@ -3,9 +3,6 @@ package ldbc.snb.datagen.generator.distribution;
 import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.util.GeneratorConfiguration;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class AltmannDistribution extends CumulativeBasedDegreeDistribution {
 
     private double normalization_factor_ = 0.0;
@@ -13,23 +10,27 @@ public class AltmannDistribution extends CumulativeBasedDegreeDistribution {
     private double BETA_ = 0.0162;
 
 
-    public List<CumulativeEntry> cumulativeProbability(GeneratorConfiguration conf) {
+    public CumulativeDistribution cumulativeProbability(GeneratorConfiguration conf) {
         ALPHA_ = conf.getDouble("ldbc.snb.datagen.generator.distribution.AltmannDistribution.alpha", ALPHA_);
         BETA_ = conf.getDouble("ldbc.snb.datagen.generator.distribution.AltmannDistribution.beta", BETA_);
 
         long POPULATION_ = DatagenParams.numPersons;
+        boolean decreasing = ALPHA_ >= 0 && BETA_ >= 0;
         for (int i = 1; i <= POPULATION_; ++i) {
-            normalization_factor_ += Math.pow(i, -ALPHA_) * Math.exp(-BETA_ * i);
+            double term = Math.pow(i, -ALPHA_) * Math.exp(-BETA_ * i);
+            // the terms decrease, so once one is below half an ulp of the sum no later one changes it
+            if (decreasing && term < Math.ulp(normalization_factor_) / 2) {
+                break;
+            }
+            normalization_factor_ += term;
         }
-        List<CumulativeEntry> cumulative = new ArrayList<>();
-        for (int i = 1; i <= POPULATION_; ++i) {
-            double prob = Math.pow(i, -ALPHA_) * Math.exp(-BETA_ * i) / normalization_factor_;
-            prob += cumulative.size() > 0 ? cumulative.get(i - 2).prob_ : 0.0;
-            CumulativeEntry entry = new CumulativeEntry();
-            entry.prob_ = prob;
-            entry.value_ = i;
-            cumulative.add(entry);
+        CumulativeDistribution.Builder cumulative = newBuilder(conf);
+        double prob = 0.0;
+        boolean more = true;
+        for (int i = 1; more; ++i) {
+            prob += Math.pow(i, -ALPHA_) * Math.exp(-BETA_ * i) / normalization_factor_;
+            more = cumulative.add(prob, i);
         }
-        return cumulative;
+        return cumulative.build();
     }
 }
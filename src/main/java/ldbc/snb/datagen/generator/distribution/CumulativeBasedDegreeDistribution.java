@@ -1,49 +1,44 @@
 package ldbc.snb.datagen.generator.distribution;
 
+import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.util.GeneratorConfiguration;
 
-import java.util.List;
 import java.util.Random;
 
 public abstract class CumulativeBasedDegreeDistribution extends DegreeDistribution {
 
-    private List<CumulativeEntry> cumulativeProbability_;
+    private CumulativeDistribution cumulativeProbability_;
     private Random random_;
 
-    public class CumulativeEntry {
-        public double prob_;
-        public int value_;
+    public void initialize(GeneratorConfiguration conf) {
+        initialize(conf, null);
     }
 
-    public void initialize(GeneratorConfiguration conf) {
-        cumulativeProbability_ = cumulativeProbability(conf);
+    /**
+     * @param precomputed The distribution computed on the driver, or null to compute it here.
+     */
+    public void initialize(GeneratorConfiguration conf, CumulativeDistribution precomputed) {
+        cumulativeProbability_ = precomputed != null ? precomputed : cumulativeProbability(conf);
         random_ = new Random();
     }
 
+    public CumulativeDistribution getCumulativeProbability() {
+        return cumulativeProbability_;
+    }
+
     public void reset(long seed) {
         random_.setSeed(seed);
     }
 
     public long nextDegree() {
         double prob = random_.nextDouble();
-        int index = binarySearch(cumulativeProbability_, prob);
-        return cumulativeProbability_.get(index).value_;
+        return cumulativeProbability_.valueOf(prob);
     }
 
-    private int binarySearch(List<CumulativeEntry> cumulative, double prob) {
-        int upperBound = cumulative.size() - 1;
-        int lowerBound = 0;
-        int midPoint = (upperBound + lowerBound) / 2;
-        while (upperBound > (lowerBound + 1)) {
-            if (cumulative.get(midPoint).prob_ > prob) {
-                upperBound = midPoint;
-            } else {
-                lowerBound = midPoint;
-            }
-            midPoint = (upperBound + lowerBound) / 2;
-        }
-        return midPoint;
+    protected CumulativeDistribution.Builder newBuilder(GeneratorConfiguration conf) {
+        double epsilon = conf.getDouble("ldbc.snb.datagen.generator.distribution.CumulativeBasedDegreeDistribution.epsilon", 0.0);
+        return new CumulativeDistribution.Builder(DatagenParams.numPersons, DatagenParams.maxNumFriends, epsilon);
     }
 
-    public abstract List<CumulativeEntry> cumulativeProbability(GeneratorConfiguration conf);
+    public abstract CumulativeDistribution cumulativeProbability(GeneratorConfiguration conf);
 }
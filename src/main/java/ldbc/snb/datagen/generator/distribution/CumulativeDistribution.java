@@ -0,0 +1,86 @@
+package ldbc.snb.datagen.generator.distribution;
+
+import ldbc.snb.datagen.util.sampling.GuideTable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The immutable, truncated cumulative distribution of a CumulativeBasedDegreeDistribution.
+ * It does not depend on the partition, so it is computed once on the driver and broadcast.
+ */
+public final class CumulativeDistribution implements Serializable {
+
+    private final GuideTable table;
+    private final int[] values;
+
+    private CumulativeDistribution(double[] cumulative, int[] values) {
+        this.table = new GuideTable(cumulative);
+        this.values = values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param prob A uniform draw in [0, 1).
+     * @return The degree drawn, selected as the bisection over the full distribution did.
+     */
+    public int valueOf(double prob) {
+        return values[table.floorIndex(prob, 0, values.length - 1)];
+    }
+
+    /**
+     * Accumulates the entries of a distribution until the remaining ones cannot change a degree.
+     * Degrees are clamped to maxNumFriends, and the tail whose probability is not above epsilon
+     * is dropped. One entry is kept past either limit as the lookup never selects the last one.
+     */
+    public static final class Builder {
+
+        private final int maxEntries;
+        private final double epsilon;
+        private double[] cumulative = new double[16];
+        private int[] values = new int[16];
+        private int size = 0;
+        private boolean lastEntry = false;
+
+        /**
+         * @param numPersons    The number of persons, an upper bound of any degree.
+         * @param maxNumFriends The degree all larger ones are clamped to, or non-positive if none.
+         * @param epsilon       The tail probability that can be dropped.
+         */
+        public Builder(long numPersons, int maxNumFriends, double epsilon) {
+            long limit = maxNumFriends > 0 ? Math.min(numPersons, maxNumFriends + 1L) : numPersons;
+            this.maxEntries = (int) Math.min(limit, Integer.MAX_VALUE - 8);
+            this.epsilon = epsilon;
+        }
+
+        public int capacity() {
+            return maxEntries;
+        }
+
+        /**
+         * @return Whether more entries are needed.
+         */
+        public boolean add(double prob, int value) {
+            if (size == cumulative.length) {
+                int newCapacity = Math.min(Math.max(16, size * 2), maxEntries);
+                cumulative = Arrays.copyOf(cumulative, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+            }
+            cumulative[size] = prob;
+            values[size] = value;
+            size++;
+            if (lastEntry || size >= maxEntries) {
+                return false;
+            }
+            lastEntry = 1.0 - prob <= epsilon;
+            return true;
+        }
+
+        public CumulativeDistribution build() {
+            return new CumulativeDistribution(Arrays.copyOf(cumulative, size), Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ldbc.snb.datagen.generator.distribution;
 
 import ldbc.snb.datagen.util.GeneratorConfiguration;
+import ldbc.snb.datagen.util.sampling.GuideTable;
 
 import java.util.*;
 
@@ -10,8 +11,8 @@ public class ZipfDistribution extends DegreeDistribution {
     private double ALPHA = 2.0;
     private Random random = new Random();
     private Map<Integer, Integer> histogram = new HashMap<>();
-    private double[] probabilities;
-    private Integer[] values;
+    private GuideTable probabilities;
+    private int[] values;
     private double mean = 0.0;
     private int maxDegree = 1000;
     private int numSamples = 10000;
@@ -27,18 +28,22 @@ public class ZipfDistribution extends DegreeDistribution {
             }
         }
         int numDifferentValues = histogram.keySet().size();
-        probabilities = new double[numDifferentValues];
-        values = new Integer[numDifferentValues];
-        histogram.keySet().toArray(values);
-        Arrays.sort(values, Comparator.comparingInt(o -> o));
+        double[] cumulative = new double[numDifferentValues];
+        values = new int[numDifferentValues];
+        int index = 0;
+        for (int value : histogram.keySet()) {
+            values[index++] = value;
+        }
+        Arrays.sort(values);
 
-        probabilities[0] = histogram.get(values[0]) / (double) numSamples;
+        cumulative[0] = histogram.get(values[0]) / (double) numSamples;
         for (int i = 1; i < numDifferentValues; ++i) {
             int occurrences = histogram.get(values[i]);
             double prob = occurrences / (double) numSamples;
             mean += prob * values[i];
-            probabilities[i] = probabilities[i - 1] + prob;
+            cumulative[i] = cumulative[i - 1] + prob;
         }
+        probabilities = new GuideTable(cumulative);
     }
 
     public void reset(long seed) {
@@ -47,19 +52,8 @@ public class ZipfDistribution extends DegreeDistribution {
     }
 
     public long nextDegree() {
-        int min = 0;
-        int max = probabilities.length;
         double prob = random.nextDouble();
-        int currentPosition = (max - min) / 2 + min;
-        while (max > (min + 1)) {
-            if (probabilities[currentPosition] > prob) {
-                max = currentPosition;
-            } else {
-                min = currentPosition;
-            }
-            currentPosition = (max - min) / 2 + min;
-        }
-        return values[currentPosition];
+        return values[probabilities.floorIndex(prob, 0, values.length)];
     }
 
     public double mean(long numPersons) {
@@ -0,0 +1,27 @@
+package ldbc.snb.datagen.generator.generators;
+
+import ldbc.snb.datagen.entities.dynamic.Forum;
+import ldbc.snb.datagen.entities.dynamic.messages.Comment;
+import ldbc.snb.datagen.entities.dynamic.messages.Photo;
+import ldbc.snb.datagen.entities.dynamic.messages.Post;
+import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
+import ldbc.snb.datagen.entities.dynamic.relations.Like;
+
+/**
+ * Receives the activity of a block as it is generated. A forum is followed by its memberships and then
+ * by its messages, and every message is followed by its likes and, for posts, by its comments.
+ * Likes and photos are reused by the generators, so they must not be retained after the call returns.
+ */
+public interface ActivitySink {
+    void onForum(Forum forum);
+
+    void onMembership(ForumMembership membership);
+
+    void onPost(Post post);
+
+    void onComment(Comment comment);
+
+    void onPhoto(Photo photo);
+
+    void onLike(Like like);
+}
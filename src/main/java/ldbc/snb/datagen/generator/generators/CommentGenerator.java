@@ -3,6 +3,7 @@ package ldbc.snb.datagen.generator.generators;
 import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.generator.dictionary.Dictionaries;
 import ldbc.snb.datagen.entities.dynamic.Forum;
+import ldbc.snb.datagen.entities.dynamic.MembershipIndex;
 import ldbc.snb.datagen.entities.dynamic.messages.Comment;
 import ldbc.snb.datagen.entities.dynamic.messages.Message;
 import ldbc.snb.datagen.entities.dynamic.messages.Post;
@@ -10,15 +11,12 @@ import ldbc.snb.datagen.entities.dynamic.person.IP;
 import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
 import ldbc.snb.datagen.entities.dynamic.relations.Like;
 import ldbc.snb.datagen.generator.generators.textgenerators.TextGenerator;
-import ldbc.snb.datagen.util.Iterators;
 import ldbc.snb.datagen.util.PersonBehavior;
+import ldbc.snb.datagen.util.PhaseProfiler;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
-import ldbc.snb.datagen.util.Streams;
 import ldbc.snb.datagen.generator.vocabulary.SN;
-import org.javatuples.Pair;
 
 import java.util.*;
-import java.util.stream.Stream;
 
 public class CommentGenerator {
     private String[] shortComments = {"ok", "good", "great", "cool", "thx", "fine", "LOL", "roflol", "no way!", "I see", "right", "yes", "no", "duh", "thanks", "maybe"};
@@ -30,7 +28,7 @@ public class CommentGenerator {
         this.likeGenerator = likeGenerator;
     }
 
-    public Stream<Pair<Comment, Stream<Like>>> createComments(RandomGeneratorFarm randomFarm, final Forum forum, final Post post, long numComments, Iterator<Long> idIterator, long blockId) {
+    public void createComments(RandomGeneratorFarm randomFarm, final Forum forum, final Post post, long numComments, Iterator<Long> idIterator, long blockId, ActivitySink sink) {
 
         List<Message> parentCandidates = new ArrayList<>();
         parentCandidates.add(post);
@@ -39,30 +37,23 @@ public class CommentGenerator {
         prop.setProperty("type", "comment");
 
         // each iteration adds a new leaf node, for the first iteration this is a child of root Post
-        return Streams.stream(Iterators.forIterator(0, i -> i < numComments, i -> ++i, i -> {
+        for (int i = 0; i < numComments; ++i) {
             int parentIndex = randomFarm.get(RandomGeneratorFarm.Aspect.REPLY_TO).nextInt(parentCandidates.size()); // pick from parent candidates
             Message parentMessage = parentCandidates.get(parentIndex);
-            List<ForumMembership> validMemberships = new ArrayList<>(); // memberships that overlap with the existence of the parent message
-
-            for (ForumMembership membership : forum.getMemberships()) { // parent and membership lifespans overlap
-
-                if ((membership.getCreationDate() < parentMessage.getCreationDate() && membership.getDeletionDate() > parentMessage.getCreationDate()) ||
-                        membership.getCreationDate() < parentMessage.getDeletionDate() && membership.getDeletionDate() > parentMessage.getDeletionDate()) {
-                    validMemberships.add(membership);
-                }
+            // memberships alive when the parent message is created or deleted, in list order
+            MembershipIndex membershipIndex = forum.getMembershipIndex();
+            int numValidMemberships = membershipIndex.stab(parentMessage.getCreationDate(), parentMessage.getDeletionDate());
 
-            }
-
-            if (validMemberships.size() == 0) { // skip if no valid membership
-                return Iterators.ForIterator.BREAK();
+            if (numValidMemberships == 0) { // skip if no valid membership
+                break;
             }
 
             // get random membership from valid memberships - picking who created the comment
-            int membershipIndex = randomFarm.get(RandomGeneratorFarm.Aspect.MEMBERSHIP_INDEX).nextInt(validMemberships.size());
-            ForumMembership membership = validMemberships.get(membershipIndex);
+            int validMembershipIndex = randomFarm.get(RandomGeneratorFarm.Aspect.MEMBERSHIP_INDEX).nextInt(numValidMemberships);
+            ForumMembership membership = forum.getMemberships().get(membershipIndex.select(validMembershipIndex));
 
             TreeSet<Integer> tags = new TreeSet<>();
-            String content;
+            CharSequence content;
 
             boolean isShort = false;
             if (randomFarm.get(RandomGeneratorFarm.Aspect.REDUCED_TEXT).nextDouble() > 0.6666) {
@@ -80,7 +71,9 @@ public class CommentGenerator {
                             .nextInt(currentTags.size()));
                     tags.add(Dictionaries.tagMatrix.getRandomRelated(randomFarm.get(RandomGeneratorFarm.Aspect.TOPIC), randomTag));
                 }
+                long start = PhaseProfiler.start();
                 content = this.generator.generateText(membership.getPerson(), tags, prop);
+                PhaseProfiler.stop(PhaseProfiler.Phase.COMMENT_TEXT, start);
             } else {
                 isShort = true;
                 int index = randomFarm.get(RandomGeneratorFarm.Aspect.TEXT_SIZE).nextInt(shortComments.length);
@@ -91,12 +84,12 @@ public class CommentGenerator {
             long minCreationDate = Math.max(parentMessage.getCreationDate(), membership.getCreationDate()) + DatagenParams.delta;
             long maxCreationDate = Collections.min(Arrays.asList(membership.getDeletionDate(), parentMessage.getDeletionDate(), Dictionaries.dates.getSimulationEnd()));
             if (maxCreationDate <= minCreationDate) {
-                return Iterators.ForIterator.CONTINUE();
+                continue;
             }
             // powerlaw distribtion
             long creationDate = Dictionaries.dates.powerLawCommDateDay(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), minCreationDate);
             if (creationDate > maxCreationDate) {
-                return Iterators.ForIterator.CONTINUE();
+                continue;
             }
 
             long deletionDate;
@@ -108,7 +101,7 @@ public class CommentGenerator {
                 long minDeletionDate = creationDate + DatagenParams.delta;
                 long maxDeletionDate = Collections.min(Arrays.asList(parentMessage.getDeletionDate(), membership.getDeletionDate(), Dictionaries.dates.getSimulationEnd()));
                 if (maxDeletionDate <= minDeletionDate) {
-                    return Iterators.ForIterator.CONTINUE();
+                    continue;
                 }
                 deletionDate = Dictionaries.dates.powerLawDeleteDate(randomFarm.get(RandomGeneratorFarm.Aspect.DATE), minDeletionDate, maxDeletionDate);
             } else {
@@ -144,15 +137,15 @@ public class CommentGenerator {
                     isExplicitlyDeleted);
             if (!isShort) parentCandidates.add(new Comment(comment));
 
-            Stream<Like> likeStream = comment.getContent().length() > 10
-                    && randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE).nextDouble() <= 0.1
-                    ? likeGenerator.generateLikes(
-                            randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_LIKES),
-                    randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE), forum, comment, Like.LikeType.COMMENT)
-                    : Stream.empty();
+            sink.onComment(comment);
 
-            return Iterators.ForIterator.RETURN(new Pair<>(comment, likeStream));
-        }));
+            if (comment.getContentLength() > 10
+                    && randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE).nextDouble() <= 0.1) {
+                likeGenerator.generateLikes(
+                        randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_LIKES),
+                        randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE), forum, comment, Like.LikeType.COMMENT, sink);
+            }
+        }
     }
 
 }
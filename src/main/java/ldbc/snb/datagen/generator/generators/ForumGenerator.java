@@ -7,7 +7,7 @@ import ldbc.snb.datagen.entities.dynamic.Forum;
 import ldbc.snb.datagen.entities.dynamic.person.Person;
 import ldbc.snb.datagen.entities.dynamic.person.PersonSummary;
 import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
-import ldbc.snb.datagen.entities.dynamic.relations.Knows;
+import ldbc.snb.datagen.entities.dynamic.relations.KnowsList;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
 import ldbc.snb.datagen.util.StringUtils;
 import ldbc.snb.datagen.generator.vocabulary.SN;
@@ -29,7 +29,7 @@ public class ForumGenerator {
      */
     Forum createWall(RandomGeneratorFarm randomFarm, long forumId, Person person, long blockId) {
 
-        int language = person.getLanguages().get(randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(person.getLanguages().size()));
+        int language = person.getLanguages()[randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(person.getLanguages().length)];
 
         // Check moderator can be added
         if (person.getDeletionDate() - person.getCreationDate() + DatagenParams.delta < 0){
@@ -49,20 +49,23 @@ public class ForumGenerator {
                 false);
 
         // wall inherits tags from person
-        List<Integer> forumTags = new ArrayList<>(person.getInterests());
+        List<Integer> forumTags = new ArrayList<>(person.getInterests().length);
+        for (int interest : person.getInterests()) {
+            forumTags.add(interest);
+        }
         forum.setTags(forumTags);
 
         // adds all friends as members of wall
-        List<Knows> knows = person.getKnows();
+        KnowsList knows = person.getKnows();
 
         // for each friend generate hasMember edge
-        for (Knows know : knows) {
-            long hasMemberCreationDate = know.getCreationDate() + DatagenParams.delta;
-            long hasMemberDeletionDate = Math.min(forum.getDeletionDate(), know.getDeletionDate());
+        for (int i = 0; i < knows.size(); i++) {
+            long hasMemberCreationDate = knows.creationDate(i) + DatagenParams.delta;
+            long hasMemberDeletionDate = Math.min(forum.getDeletionDate(), knows.deletionDate(i));
             if (hasMemberDeletionDate - hasMemberCreationDate < 0){
                 continue;
             }
-            forum.addMember(new ForumMembership(forum.getId(), hasMemberCreationDate, hasMemberDeletionDate, know.to(), Forum.ForumType.WALL, false));
+            forum.addMember(new ForumMembership(forum.getId(), hasMemberCreationDate, hasMemberDeletionDate, knows.summary(i), Forum.ForumType.WALL, false));
         }
         return forum;
     }
@@ -99,14 +102,10 @@ public class ForumGenerator {
         // the hasModerator edge is deleted if either the Forum (group) or the Person (moderator) is deleted
         long moderatorDeletionDate = Math.min(groupDeletionDate, moderator.getDeletionDate());
 
-        int language = moderator.getLanguages().get(randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(moderator.getLanguages().size()));
+        int language = moderator.getLanguages()[randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(moderator.getLanguages().length)];
 
-        Iterator<Integer> iter = moderator.getInterests().iterator();
-        int idx = randomFarm.get(RandomGeneratorFarm.Aspect.FORUM_INTEREST).nextInt(moderator.getInterests().size());
-        for (int i = 0; i < idx; i++) {
-            iter.next();
-        }
-        int interestId = iter.next();
+        int idx = randomFarm.get(RandomGeneratorFarm.Aspect.FORUM_INTEREST).nextInt(moderator.getInterests().length);
+        int interestId = moderator.getInterests()[idx];
         List<Integer> interest = new ArrayList<>();
         interest.add(interestId);
 
@@ -130,7 +129,7 @@ public class ForumGenerator {
 
         // Add members
         TreeSet<Long> groupMembers = new TreeSet<>();
-        List<Knows> moderatorKnows = new ArrayList<>(moderator.getKnows());
+        KnowsList moderatorKnows = moderator.getKnows();
         int numModeratorKnows = moderatorKnows.size();
         int groupSize = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_USERS_PER_FORUM).nextInt(DatagenParams.maxGroupSize);
         int numLoop = 0;
@@ -139,11 +138,12 @@ public class ForumGenerator {
             if (prob < 0.3 && numModeratorKnows > 0) {
                 // pick random knows edge from friends
                 int knowsIndex = randomFarm.get(RandomGeneratorFarm.Aspect.MEMBERSHIP_INDEX).nextInt(numModeratorKnows);
-                Knows knows = moderatorKnows.get(knowsIndex);
-                if (!groupMembers.contains(knows.to().getAccountId())) { // if friend not already member of group
+                long friendId = moderatorKnows.targetId(knowsIndex);
+                if (!groupMembers.contains(friendId)) { // if friend not already member of group
 
-                    long minCreationDate = Math.max(forum.getCreationDate(), knows.to().getCreationDate()) + DatagenParams.delta;
-                    long maxCreationDate = Collections.min(Arrays.asList(forum.getDeletionDate(), knows.to().getDeletionDate(), Dictionaries.dates.getSimulationEnd()));
+                    long friendDeletionDate = moderatorKnows.targetDeletionDate(knowsIndex);
+                    long minCreationDate = Math.max(forum.getCreationDate(), moderatorKnows.targetCreationDate(knowsIndex)) + DatagenParams.delta;
+                    long maxCreationDate = Collections.min(Arrays.asList(forum.getDeletionDate(), friendDeletionDate, Dictionaries.dates.getSimulationEnd()));
 
                     if (maxCreationDate - minCreationDate > 0) {
 
@@ -155,18 +155,18 @@ public class ForumGenerator {
                         if (randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_MEMB).nextDouble() < DatagenParams.probMembDeleted) {
                             isHasMemberExplicitlyDeleted = true;
                             long minDeletionDate = hasMemberCreationDate + DatagenParams.delta;
-                            long maxDeletionDate = Collections.min(Arrays.asList(knows.to().getDeletionDate(), forum.getDeletionDate(), Dictionaries.dates.getSimulationEnd()));
+                            long maxDeletionDate = Collections.min(Arrays.asList(friendDeletionDate, forum.getDeletionDate(), Dictionaries.dates.getSimulationEnd()));
                             if (maxDeletionDate - minDeletionDate < 0) {
                                 continue;
                             }
                             hasMemberDeletionDate = Dictionaries.dates.randomDate(random, minDeletionDate, maxDeletionDate);
                         } else {
                             isHasMemberExplicitlyDeleted = false;
-                            hasMemberDeletionDate = Collections.min(Arrays.asList(knows.to().getDeletionDate(), forum.getDeletionDate()));
+                            hasMemberDeletionDate = Collections.min(Arrays.asList(friendDeletionDate, forum.getDeletionDate()));
                         }
-                        ForumMembership hasMember = new ForumMembership(forum.getId(), hasMemberCreationDate, hasMemberDeletionDate, knows.to(), Forum.ForumType.GROUP, isHasMemberExplicitlyDeleted);
+                        ForumMembership hasMember = new ForumMembership(forum.getId(), hasMemberCreationDate, hasMemberDeletionDate, moderatorKnows.summary(knowsIndex), Forum.ForumType.GROUP, isHasMemberExplicitlyDeleted);
                         forum.addMember(hasMember);
-                        groupMembers.add(knows.to().getAccountId());
+                        groupMembers.add(friendId);
                     }
                 }
             } else { // pick from the person block
@@ -238,7 +238,7 @@ public class ForumGenerator {
             albumDeletionDate = person.getDeletionDate();
         }
 
-        int language = person.getLanguages().get(randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(person.getLanguages().size()));
+        int language = person.getLanguages()[randomFarm.get(RandomGeneratorFarm.Aspect.LANGUAGE).nextInt(person.getLanguages().length)];
         Forum forum = new Forum(SN.formId(SN.composeId(forumId, albumCreationDate), blockId),
                 albumCreationDate,
                 albumDeletionDate,
@@ -252,12 +252,8 @@ public class ForumGenerator {
                 isExplicitlyDeleted
         );
 
-        Iterator<Integer> iter = person.getInterests().iterator();
-        int idx = randomFarm.get(RandomGeneratorFarm.Aspect.FORUM_INTEREST).nextInt(person.getInterests().size());
-        for (int i = 0; i < idx; i++) {
-            iter.next();
-        }
-        int interestId = iter.next();
+        int idx = randomFarm.get(RandomGeneratorFarm.Aspect.FORUM_INTEREST).nextInt(person.getInterests().length);
+        int interestId = person.getInterests()[idx];
         List<Integer> interest = new ArrayList<>();
         interest.add(interestId);
         forum.setTags(interest);
@@ -266,14 +262,14 @@ public class ForumGenerator {
         int randomCountry = randomFarm.get(RandomGeneratorFarm.Aspect.COUNTRY).nextInt(countries.size());
         forum.setPlaceId(countries.get(randomCountry));
 
-        List<Knows> friends = new ArrayList<>(person.getKnows());
-        for (Knows knows : friends) {
+        KnowsList friends = person.getKnows();
+        for (int i = 0; i < friends.size(); i++) {
             double prob = randomFarm.get(RandomGeneratorFarm.Aspect.ALBUM_MEMBERSHIP).nextDouble();
             if (prob < 0.7) {
-                long hasMemberCreationDate = Math.max(knows.to().getCreationDate(), forum.getCreationDate()) + DatagenParams.delta;
-                long hasMemberDeletionDate = Collections.min(Arrays.asList(knows.to().getDeletionDate(), forum.getDeletionDate()));
+                long hasMemberCreationDate = Math.max(friends.targetCreationDate(i), forum.getCreationDate()) + DatagenParams.delta;
+                long hasMemberDeletionDate = Collections.min(Arrays.asList(friends.targetDeletionDate(i), forum.getDeletionDate()));
                 if (hasMemberDeletionDate - hasMemberCreationDate > 0) {
-                    forum.addMember(new ForumMembership(forum.getId(), hasMemberCreationDate, hasMemberDeletionDate, knows.to(), Forum.ForumType.ALBUM, false));
+                    forum.addMember(new ForumMembership(forum.getId(), hasMemberCreationDate, hasMemberDeletionDate, friends.summary(i), Forum.ForumType.ALBUM, false));
                 }
             }
         }
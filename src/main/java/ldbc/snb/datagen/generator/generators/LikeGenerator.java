@@ -8,14 +8,12 @@ import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
 import ldbc.snb.datagen.entities.dynamic.relations.Like;
 import ldbc.snb.datagen.entities.dynamic.relations.Like.LikeType;
 import ldbc.snb.datagen.generator.tools.PowerDistribution;
-import ldbc.snb.datagen.util.Iterators;
-import ldbc.snb.datagen.util.Streams;
+import ldbc.snb.datagen.util.PhaseProfiler;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Stream;
 
 public class LikeGenerator {
 
@@ -27,13 +25,14 @@ public class LikeGenerator {
         this.like = new Like();
     }
 
-    public Stream<Like> generateLikes(Random randomDeleteLike, Random random, final Forum forum, final Message message, LikeType type) {
+    public void generateLikes(Random randomDeleteLike, Random random, final Forum forum, final Message message, LikeType type, ActivitySink sink) {
+        long start = PhaseProfiler.start();
         final int numMembers = forum.getMemberships().size();
         final int numLikes = Math.min(likesGenerator.getValue(random), numMembers);
         List<ForumMembership> memberships = forum.getMemberships();
         final int startIndex = numLikes < numMembers ? random.nextInt(numMembers - numLikes) : 0;
 
-        return Streams.stream(Iterators.forIterator(0, i -> i < numLikes, i -> ++i, i -> {
+        for (int i = 0; i < numLikes; ++i) {
             ForumMembership membership = memberships.get(startIndex + i);
 
             long minCreationDate = Math.max(membership.getPerson().getCreationDate(), message.getCreationDate()) + DatagenParams.delta;
@@ -44,7 +43,7 @@ public class LikeGenerator {
                     Dictionaries.dates.getSimulationEnd()
             ));
             if (maxCreationDate <= minCreationDate) {
-                return Iterators.ForIterator.CONTINUE();
+                continue;
             }
             long likeCreationDate = Dictionaries.dates.randomDate(random, minCreationDate, maxCreationDate);
 
@@ -59,7 +58,7 @@ public class LikeGenerator {
                         message.getDeletionDate(),
                         Dictionaries.dates.getSimulationEnd()));
                 if (maxDeletionDate <= minDeletionDate) {
-                    return Iterators.ForIterator.CONTINUE();
+                    continue;
                 }
                 likeDeletionDate = Dictionaries.dates.powerLawDeleteDate(random, minDeletionDate, maxDeletionDate);
             } else {
@@ -76,7 +75,8 @@ public class LikeGenerator {
             like.setCreationDate(likeCreationDate);
             like.setDeletionDate(likeDeletionDate);
             like.setType(type);
-            return Iterators.ForIterator.RETURN(like);
-        }));
+            sink.onLike(like);
+        }
+        PhaseProfiler.stop(PhaseProfiler.Phase.LIKES, start);
     }
 }
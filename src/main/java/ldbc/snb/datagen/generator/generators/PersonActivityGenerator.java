@@ -3,28 +3,21 @@ package ldbc.snb.datagen.generator.generators;
 import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.generator.dictionary.Dictionaries;
 import ldbc.snb.datagen.entities.dynamic.Forum;
-import ldbc.snb.datagen.entities.dynamic.messages.Comment;
-import ldbc.snb.datagen.entities.dynamic.messages.Photo;
-import ldbc.snb.datagen.entities.dynamic.messages.Post;
 import ldbc.snb.datagen.entities.dynamic.person.Person;
 import ldbc.snb.datagen.entities.dynamic.person.PersonSummary;
 import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
-import ldbc.snb.datagen.entities.dynamic.relations.Like;
 import ldbc.snb.datagen.generator.generators.postgenerators.FlashmobPostGenerator;
 import ldbc.snb.datagen.generator.generators.postgenerators.UniformPostGenerator;
 import ldbc.snb.datagen.generator.generators.textgenerators.LdbcSnbTextGenerator;
 import ldbc.snb.datagen.generator.generators.textgenerators.TextGenerator;
 import ldbc.snb.datagen.util.Iterators;
+import ldbc.snb.datagen.util.PhaseProfiler;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
-import ldbc.snb.datagen.util.Streams;
-import org.javatuples.Pair;
-import org.javatuples.Triplet;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Stream;
 
 public class PersonActivityGenerator {
 
@@ -52,19 +45,19 @@ public class PersonActivityGenerator {
         messageIdIterator = Iterators.numbers(0);
     }
 
-    private GenActivity generateActivity(Person person, List<Person> block, long blockId) throws AssertionError {
+    private void generateActivity(Person person, List<Person> block, long blockId, ActivitySink sink) throws AssertionError {
+        long start = PhaseProfiler.start();
         try {
-            return new GenActivity(
-                    generateWall(person, blockId),
-                    generateGroups(person, block, blockId),
-                    generateAlbums(person, blockId)
-            );
+            generateWall(person, blockId, sink);
+            generateGroups(person, block, blockId, sink);
+            generateAlbums(person, blockId, sink);
 
         } catch (AssertionError e) {
             System.out.println("Assertion error when generating activity!");
             System.out.println(e.getMessage());
             throw e;
         }
+        PhaseProfiler.stop(PhaseProfiler.Phase.ACTIVITY, start);
     }
 
     /**
@@ -72,14 +65,14 @@ public class PersonActivityGenerator {
      *
      * @param person Person
      */
-    private GenWall<Triplet<Post, Stream<Like>, Stream<Pair<Comment, Stream<Like>>>>> generateWall(Person person, long blockId) {
+    private void generateWall(Person person, long blockId, ActivitySink sink) {
 
         // Generate wall
         Forum wall = forumGenerator.createWall(randomFarm, startForumId++, person, blockId);
 
         // Could be null as moderator can't be added
         if (wall == null)
-            return new GenWall<>(Stream.empty());
+            return;
 
         // creates a forum membership for the moderator
         // only the moderator can post on their wall
@@ -93,19 +86,12 @@ public class PersonActivityGenerator {
         List<ForumMembership> memberships = new ArrayList<>();
         memberships.add(moderator);
 
-        Stream<Triplet<Post, Stream<Like>, Stream<Pair<Comment, Stream<Like>>>>> uniform = uniformPostGenerator.createPosts(
-                randomFarm, wall, memberships,
-                numPostsPerGroup(randomFarm, wall, DatagenParams.maxNumPostPerMonth, DatagenParams.maxNumFriends),
-                messageIdIterator, blockId);
+        int numUniformPosts = numPostsPerGroup(randomFarm, wall, DatagenParams.maxNumPostPerMonth, DatagenParams.maxNumFriends);
+        int numFlashmobPosts = numPostsPerGroup(randomFarm, wall, DatagenParams.maxNumFlashmobPostPerMonth, DatagenParams.maxNumFriends);
 
-        Stream<Triplet<Post, Stream<Like>, Stream<Pair<Comment, Stream<Like>>>>> flashMob = flashmobPostGenerator.createPosts(
-                randomFarm, wall, memberships,
-                numPostsPerGroup(randomFarm, wall, DatagenParams.maxNumFlashmobPostPerMonth, DatagenParams.maxNumFriends),
-                messageIdIterator, blockId);
-
-        return new GenWall<>(Stream.of(
-                new Triplet<>(wall, wall.getMemberships().stream(), Stream.concat(uniform, flashMob)))
-        );
+        writeForum(wall, sink);
+        uniformPostGenerator.createPosts(randomFarm, wall, memberships, numUniformPosts, messageIdIterator, blockId, sink);
+        flashmobPostGenerator.createPosts(randomFarm, wall, memberships, numFlashmobPosts, messageIdIterator, blockId, sink);
     }
 
     /**
@@ -114,36 +100,28 @@ public class PersonActivityGenerator {
      * @param person persons
      * @param block  block for persons
      */
-    private Stream<GenWall<Triplet<Post, Stream<Like>, Stream<Pair<Comment, Stream<Like>>>>>> generateGroups(Person person, List<Person> block, long blockId) {
+    private void generateGroups(Person person, List<Person> block, long blockId, ActivitySink sink) {
 
         // generate person created groups
         double moderatorProb = randomFarm.get(RandomGeneratorFarm.Aspect.FORUM_MODERATOR).nextDouble();
             int numGroup = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_FORUM)
                     .nextInt(DatagenParams.maxNumGroupCreatedPerPerson) + 1;
 
-        return Streams.stream(Iterators.forIterator(0, i -> i < numGroup, i -> ++i, i -> {
+        for (int i = 0; i < numGroup; ++i) {
             if (moderatorProb >= DatagenParams.groupModeratorProb)
-                return Iterators.ForIterator.CONTINUE();
+                continue;
 
+            long start = PhaseProfiler.start();
             Forum group = forumGenerator.createGroup(randomFarm, startForumId++, person, block, blockId);
+            PhaseProfiler.stop(PhaseProfiler.Phase.GROUP, start);
+
+            int numUniformPosts = numPostsPerGroup(randomFarm, group, DatagenParams.maxNumGroupPostPerMonth, DatagenParams.maxGroupSize);
+            int numFlashmobPosts = numPostsPerGroup(randomFarm, group, DatagenParams.maxNumGroupFlashmobPostPerMonth, DatagenParams.maxGroupSize);
 
-            Stream<Triplet<Post, Stream<Like>, Stream<Pair<Comment, Stream<Like>>>>> uniform = uniformPostGenerator.createPosts(
-                    randomFarm,
-                    group,
-                    group.getMemberships(),
-                    numPostsPerGroup(randomFarm, group, DatagenParams.maxNumGroupPostPerMonth, DatagenParams.maxGroupSize),
-                    messageIdIterator, blockId);
-            Stream<Triplet<Post, Stream<Like>, Stream<Pair<Comment, Stream<Like>>>>> flashMob  = flashmobPostGenerator.createPosts(
-                    randomFarm,
-                    group,
-                    group.getMemberships(),
-                    numPostsPerGroup(randomFarm, group, DatagenParams.maxNumGroupFlashmobPostPerMonth, DatagenParams.maxGroupSize),
-                    messageIdIterator, blockId);
-
-            return Iterators.ForIterator.RETURN(new GenWall<>(Stream.of(
-                    new Triplet<>(group, group.getMemberships().stream(), Stream.concat(uniform, flashMob)))
-            ));
-        }));
+            writeForum(group, sink);
+            uniformPostGenerator.createPosts(randomFarm, group, group.getMemberships(), numUniformPosts, messageIdIterator, blockId, sink);
+            flashmobPostGenerator.createPosts(randomFarm, group, group.getMemberships(), numFlashmobPosts, messageIdIterator, blockId, sink);
+        }
     }
 
     /**
@@ -151,7 +129,7 @@ public class PersonActivityGenerator {
      *
      * @param person person
      */
-    private GenWall<Pair<Photo, Stream<Like>>> generateAlbums(Person person, long blockId) {
+    private void generateAlbums(Person person, long blockId, ActivitySink sink) {
 
         // work out number of albums to generate
         int numberOfMonths = (int) Dictionaries.dates.numberOfMonths(person.getCreationDate());
@@ -160,23 +138,27 @@ public class PersonActivityGenerator {
                 ? numberOfPhotoAlbums
                 : numberOfMonths * numberOfPhotoAlbums;
 
-        return new GenWall<>(Streams.stream(Iterators.forIterator(0, i -> i < numberOfPhotoAlbumsForMonths, i -> ++i, i -> {
+        for (int i = 0; i < numberOfPhotoAlbumsForMonths; ++i) {
             Forum album = forumGenerator.createAlbum(randomFarm, startForumId++, person, i, blockId);
             if (album == null) {
-                return Iterators.ForIterator.CONTINUE();
+                continue;
             }
 
             // number of photos to generate
             int numPhotosInAlbum = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_PHOTO)
                     .nextInt(DatagenParams.maxNumPhotoPerAlbums + 1);
-            // create photos
 
-            Stream<Pair<Photo, Stream<Like>>> photos = photoGenerator.createPhotos(randomFarm, album, numPhotosInAlbum, messageIdIterator, blockId);
+            writeForum(album, sink);
+            // create photos
+            photoGenerator.createPhotos(randomFarm, album, numPhotosInAlbum, messageIdIterator, blockId, sink);
+        }
+    }
 
-            return Iterators.ForIterator.RETURN(new Triplet<>(
-                 album, album.getMemberships().stream(), photos
-            ));
-        })));
+    private void writeForum(Forum forum, ActivitySink sink) {
+        sink.onForum(forum);
+        for (ForumMembership membership : forum.getMemberships()) {
+            sink.onMembership(membership);
+        }
     }
 
     private int numPostsPerGroup(RandomGeneratorFarm randomFarm, Forum forum, int maxPostsPerMonth, int maxMembersPerForum) {
@@ -191,10 +173,46 @@ public class PersonActivityGenerator {
         return (numberPost * forum.getMemberships().size()) / maxMembersPerForum;
     }
 
-    public Stream<GenActivity> generateActivityForBlock(int blockId, List<Person> block) {
+    /**
+     * Generates the activity of the persons of a block, in order, and pushes it into the sink.
+     */
+    public void generateActivityForBlock(int blockId, List<Person> block, ActivitySink sink) {
+        long start = PhaseProfiler.start();
         randomFarm.resetRandomGenerators(blockId);
         startForumId = 0;
         messageIdIterator = Iterators.numbers(0);
-        return block.stream().map(p -> generateActivity(p, block, blockId));
+        for (Person person : block) {
+            generateActivity(person, block, blockId, sink);
+        }
+        PhaseProfiler.stop(PhaseProfiler.Phase.ACTIVITY_BLOCK, start);
+    }
+
+    /**
+     * Generates the activity of the personIndex-th person of a block on its own. The random streams of
+     * the person are the ones of (blockId, personIndex), and its forums and messages take their ids from
+     * a range of the block reserved to it, so the persons of a block can be generated in any order and
+     * on any thread with the same result. This result is not the one of {@link #generateActivityForBlock}.
+     */
+    public void generateActivityForPerson(int blockId, List<Person> block, int personIndex, ActivitySink sink) {
+        randomFarm.resetRandomGenerators(blockId, personIndex);
+        long rangeEnd = personIdRangeStart(personIndex + 1);
+        startForumId = personIdRangeStart(personIndex);
+        messageIdIterator = Iterators.numbers(personIdRangeStart(personIndex), rangeEnd);
+        generateActivity(block.get(personIndex), block, blockId, sink);
+        if (startForumId > rangeEnd) {
+            throw new IllegalStateException("The forums of person " + personIndex + " of block " + blockId
+                    + " took " + (startForumId - personIdRangeStart(personIndex)) + " ids, more than its range of "
+                    + (rangeEnd - personIdRangeStart(personIndex)));
+        }
+    }
+
+    /**
+     * The ids of a block have 36 bits before they are composed with their creation date. With the
+     * default block size each person gets 2^22 forum ids and as many message ids. A person that needs
+     * more fails the generation rather than taking ids of the next one.
+     */
+    private static long personIdRangeStart(int personIndex) {
+        int personBits = 64 - Long.numberOfLeadingZeros(Math.max(DatagenParams.blockSize - 1, 1));
+        return (long) personIndex << (36 - personBits);
     }
 }
@@ -3,11 +3,14 @@ package ldbc.snb.datagen.generator.generators;
 import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.generator.dictionary.Dictionaries;
 import ldbc.snb.datagen.entities.dynamic.person.Person;
+import ldbc.snb.datagen.generator.distribution.CumulativeBasedDegreeDistribution;
+import ldbc.snb.datagen.generator.distribution.CumulativeDistribution;
 import ldbc.snb.datagen.generator.distribution.DegreeDistribution;
 import ldbc.snb.datagen.generator.tools.PowerDistribution;
 import ldbc.snb.datagen.util.DateUtils;
 import ldbc.snb.datagen.util.GeneratorConfiguration;
 import ldbc.snb.datagen.util.PersonDeleteDistribution;
+import ldbc.snb.datagen.util.PhaseProfiler;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
 
 import java.text.Normalizer;
@@ -25,12 +28,23 @@ public class PersonGenerator {
     private int nextId = 0;
 
     public PersonGenerator(GeneratorConfiguration conf, String degreeDistribution) {
+        this(conf, degreeDistribution, null);
+    }
+
+    /**
+     * @param cumulativeDegrees The degree distribution computed on the driver if it is cumulative based, or null.
+     */
+    public PersonGenerator(GeneratorConfiguration conf, String degreeDistribution, CumulativeDistribution cumulativeDegrees) {
 //        try {
 //            this.degreeDistribution = (DegreeDistribution) Class.forName(degreeDistribution).newInstance();
             this.degreeDistribution = DatagenParams.getDegreeDistribution();
             this.personDeleteDistribution = new PersonDeleteDistribution(DatagenParams.personDeleteFile);
             personDeleteDistribution.initialize();
-            this.degreeDistribution.initialize(conf);
+            if (this.degreeDistribution instanceof CumulativeBasedDegreeDistribution) {
+                ((CumulativeBasedDegreeDistribution) this.degreeDistribution).initialize(conf, cumulativeDegrees);
+            } else {
+                this.degreeDistribution.initialize(conf);
+            }
 
 //        } catch (ClassNotFoundException | IllegalAccessException | InstantiationException e) {
 //            System.out.print(e.getMessage());
@@ -158,7 +172,7 @@ public class PersonGenerator {
         if (internationalLang != -1 && personLanguages.indexOf(internationalLang) == -1) {
             personLanguages.add(internationalLang);
         }
-        person.getLanguages().addAll(personLanguages);
+        person.setLanguages(personLanguages);
 
 
         // Set activity characteristics
@@ -196,7 +210,10 @@ public class PersonGenerator {
             @Override
             public Person next() {
                 ++i;
-                return generatePerson();
+                long start = PhaseProfiler.start();
+                Person person = generatePerson();
+                PhaseProfiler.stop(PhaseProfiler.Phase.PERSON, start);
+                return person;
             }
         };
     }
@@ -6,15 +6,11 @@ import ldbc.snb.datagen.entities.dynamic.Forum;
 import ldbc.snb.datagen.entities.dynamic.messages.Photo;
 import ldbc.snb.datagen.entities.dynamic.person.IP;
 import ldbc.snb.datagen.entities.dynamic.relations.Like;
-import ldbc.snb.datagen.util.Iterators;
 import ldbc.snb.datagen.util.PersonBehavior;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
-import ldbc.snb.datagen.util.Streams;
 import ldbc.snb.datagen.generator.vocabulary.SN;
-import org.javatuples.Pair;
 
 import java.util.*;
-import java.util.stream.Stream;
 
 /**
  * This class generates photos which are used in posts.
@@ -29,7 +25,7 @@ class PhotoGenerator {
         this.photo = new Photo();
     }
 
-    Stream<Pair<Photo, Stream<Like>>> createPhotos(RandomGeneratorFarm randomFarm, final Forum album, long numPhotosInAlbum, Iterator<Long> idIterator, long blockId) {
+    void createPhotos(RandomGeneratorFarm randomFarm, final Forum album, long numPhotosInAlbum, Iterator<Long> idIterator, long blockId, ActivitySink sink) {
         int numPopularPlaces = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_POPULAR)
                 .nextInt(DatagenParams.maxNumPopularPlaces + 1);
         List<Short> popularPlaces = new ArrayList<>();
@@ -42,13 +38,13 @@ class PhotoGenerator {
             }
         }
 
-        return Streams.stream(Iterators.forIterator(0, i -> i < numPhotosInAlbum, i -> ++i, i -> {
+        for (int i = 0; i < numPhotosInAlbum; ++i) {
             TreeSet<Integer> tags = new TreeSet<>();
 
             // creates photo
             long creationDate = album.getCreationDate() + DatagenParams.delta + 1000 * (i + 1);
             if (creationDate >= album.getDeletionDate()) {
-                return Iterators.ForIterator.BREAK();
+                break;
             }
 
             Random randomDate = randomFarm.get(RandomGeneratorFarm.Aspect.DATE);
@@ -92,15 +88,15 @@ class PhotoGenerator {
                     isExplicitlyDeleted
             );
 
-            Stream<Like> likeStream = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE).nextDouble() <= 0.1
-                    ? likeGenerator.generateLikes(
-                            randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_LIKES),
-                            randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE),
-                            album, photo, Like.LikeType.PHOTO)
-                    : Stream.empty();
+            sink.onPhoto(photo);
 
-            return Iterators.ForIterator.RETURN(new Pair<>(photo, likeStream)); // (photo, likeStream)
-        }));
+            if (randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE).nextDouble() <= 0.1) {
+                likeGenerator.generateLikes(
+                        randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_LIKES),
+                        randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE),
+                        album, photo, Like.LikeType.PHOTO, sink);
+            }
+        }
     }
 
 }
@@ -0,0 +1,129 @@
+package ldbc.snb.datagen.generator.generators.knowsgenerators;
+
+import ldbc.snb.datagen.entities.dynamic.person.Person;
+import ldbc.snb.datagen.entities.dynamic.relations.Knows;
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.util.GeneratorConfiguration;
+import ldbc.snb.datagen.util.RandomGeneratorFarm;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates the same distribution of edges as {@link DistanceKnowsGenerator}, but jumps from one accepted
+ * candidate to the next instead of drawing a number for every later person of the block.
+ * <p>
+ * A candidate at distance d is accepted with probability max(baseProbCorrelated^d, limitProCorrelated).
+ * The acceptances are independent, so the distance of the next accepted candidate is drawn by inverting
+ * its distribution with a single uniform number: while the probability decays, with a table of the
+ * cumulative logarithms of the rejection probabilities, and once it is floored, as a geometric skip.
+ * Accepted candidates that have no degree left are rejected, which is what the original generator does
+ * without drawing, so the expected work is proportional to the number of edges created.
+ */
+public class GeometricDistanceKnowsGenerator implements KnowsGenerator {
+
+    private RandomGeneratorFarm randomFarm;
+    // logRejection[d] is the logarithm of the probability that no candidate at distance 1..d is accepted,
+    // for the distances at which the acceptance probability is still above the limit
+    private double[] logRejection;
+    private double logLimitRejection;
+
+    public GeometricDistanceKnowsGenerator() {
+        this.randomFarm = new RandomGeneratorFarm();
+    }
+
+    public void generateKnows(List<Person> persons, int blockId, List<Float> percentages, int step_index, Person.PersonSimilarity personSimilarity) {
+        randomFarm.resetRandomGenerators(blockId);
+        initializeSkips(persons.size());
+        Random uniform = randomFarm.get(RandomGeneratorFarm.Aspect.UNIFORM);
+
+        int[] remaining = new int[persons.size()];
+        int[] targets = new int[persons.size()];
+        for (int i = 0; i < persons.size(); ++i) {
+            targets[i] = (int) Knows.targetEdges(persons.get(i), percentages, step_index);
+            remaining[i] = targets[i] - persons.get(i).getKnows().size();
+        }
+
+        for (int i = 0; i < persons.size(); ++i) {
+            Person p = persons.get(i);
+            int dist = 0;
+            while (remaining[i] > 0) {
+                dist = nextAccepted(uniform, dist);
+                int j = i + dist;
+                if (dist <= 0 || j >= persons.size()) {
+                    break;
+                }
+                if (remaining[j] <= 0) {
+                    continue;
+                }
+                Person other = persons.get(j);
+                Knows.createKnow(
+                        randomFarm.get(RandomGeneratorFarm.Aspect.DATE),
+                        randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_KNOWS),
+                        p,
+                        other, personSimilarity);
+                remaining[i] = targets[i] - p.getKnows().size();
+                remaining[j] = targets[j] - other.getKnows().size();
+            }
+        }
+    }
+
+    @Override
+    public void initialize(GeneratorConfiguration conf) {
+        // This is inherited from knows generator and no initialization is required.
+    }
+
+    /**
+     * Builds the rejection table for the distances of a block of the given size. The table only covers
+     * the distances at which baseProbCorrelated^d is above limitProCorrelated, about 30 of them by default.
+     */
+    private void initializeSkips(int blockSize) {
+        double base = DatagenParams.baseProbCorrelated;
+        double limit = DatagenParams.limitProCorrelated;
+        int decaying = 0;
+        while (decaying < blockSize && base < 1.0 && limit < 1.0 && Math.pow(base, decaying + 1) > limit) {
+            ++decaying;
+        }
+        logRejection = new double[decaying + 1];
+        for (int d = 1; d <= decaying; ++d) {
+            logRejection[d] = logRejection[d - 1] + Math.log1p(-Math.pow(base, d));
+        }
+        logLimitRejection = Math.log1p(-Math.min(Math.max(limit, 0.0), 1.0));
+    }
+
+    /**
+     * @return The distance of the next accepted candidate after the one at distance dist, or a
+     * non-positive number if no candidate is ever accepted again.
+     */
+    private int nextAccepted(Random uniform, int dist) {
+        if (DatagenParams.baseProbCorrelated >= 1.0 || DatagenParams.limitProCorrelated >= 1.0) {
+            return dist + 1;
+        }
+        // the candidates are rejected while the cumulative log rejection stays above log(u)
+        double logU = Math.log(1.0 - uniform.nextDouble());
+        int decaying = logRejection.length - 1;
+        if (dist < decaying) {
+            double threshold = logRejection[dist] + logU;
+            if (logRejection[decaying] <= threshold) {
+                int low = dist + 1;
+                int high = decaying;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (logRejection[mid] <= threshold) {
+                        high = mid;
+                    } else {
+                        low = mid + 1;
+                    }
+                }
+                return low;
+            }
+            logU -= logRejection[decaying] - logRejection[dist];
+            dist = decaying;
+        }
+        if (logLimitRejection == 0.0) {
+            return -1;
+        }
+        double skip = Math.floor(logU / logLimitRejection);
+        return skip >= Integer.MAX_VALUE - dist ? -1 : dist + (int) skip + 1;
+    }
+}
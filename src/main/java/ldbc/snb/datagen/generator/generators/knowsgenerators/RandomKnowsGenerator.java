@@ -5,8 +5,6 @@ import ldbc.snb.datagen.entities.dynamic.relations.Knows;
 import ldbc.snb.datagen.util.GeneratorConfiguration;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -21,35 +19,43 @@ public class RandomKnowsGenerator implements KnowsGenerator {
         randomFarm = new RandomGeneratorFarm();
     }
 
+    /**
+     * Pairs the edge stubs of the persons of the block at random, like a configuration model. The stubs
+     * are shuffled once and consecutive ones are paired, which is a uniformly random matching, so every
+     * stub is visited once. Self loops are dropped, and so are the edges that already exist.
+     */
     public void generateKnows(List<Person> persons, int blockId, List<Float> percentages, int step_index, Person.PersonSimilarity personSimilarity) {
 
         rand.setSeed(blockId);
-        List<Integer> stubs = new ArrayList<>();
-        int index = 0;
-        for (Person p : persons) {
-            long degree = Knows.targetEdges(p, percentages, step_index);
-            for (int i = 0; i < degree; ++i) {
-                stubs.add(index);
+        int[] degrees = new int[persons.size()];
+        int numStubs = 0;
+        for (int index = 0; index < persons.size(); ++index) {
+            degrees[index] = (int) Knows.targetEdges(persons.get(index), percentages, step_index);
+            numStubs += degrees[index];
+        }
+        int[] stubs = new int[numStubs];
+        int next = 0;
+        for (int index = 0; index < persons.size(); ++index) {
+            for (int i = 0; i < degrees[index]; ++i) {
+                stubs[next++] = index;
             }
-            ++index;
         }
-        Collections.shuffle(stubs, rand);
-        while (!stubs.isEmpty()) {
-            int first = rand.nextInt(stubs.size());
-            int first_index = stubs.get(first);
-            stubs.remove(first);
-            if (!stubs.isEmpty()) {
-                int second = rand.nextInt(stubs.size());
-                int second_index = stubs.get(second);
-                stubs.remove(second);
-                if (first_index != second_index) {
-                    Person p1 = persons.get(first_index);
-                    Person p2 = persons.get(second_index);
-                    Knows.createKnow(  randomFarm.get(RandomGeneratorFarm.Aspect.DATE),
-                            randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_KNOWS),
-                            p1,
-                            p2, personSimilarity, true);
-                }
+        for (int i = numStubs - 1; i > 0; --i) {
+            int j = rand.nextInt(i + 1);
+            int stub = stubs[i];
+            stubs[i] = stubs[j];
+            stubs[j] = stub;
+        }
+        for (int i = 0; i + 1 < numStubs; i += 2) {
+            int first_index = stubs[i];
+            int second_index = stubs[i + 1];
+            if (first_index != second_index) {
+                Person p1 = persons.get(first_index);
+                Person p2 = persons.get(second_index);
+                Knows.createKnow(  randomFarm.get(RandomGeneratorFarm.Aspect.DATE),
+                        randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_KNOWS),
+                        p1,
+                        p2, personSimilarity, true);
             }
         }
     }
@@ -9,6 +9,7 @@ import ldbc.snb.datagen.generator.generators.CommentGenerator;
 import ldbc.snb.datagen.generator.generators.LikeGenerator;
 import ldbc.snb.datagen.generator.generators.textgenerators.TextGenerator;
 import ldbc.snb.datagen.util.Distribution;
+import ldbc.snb.datagen.util.sampling.GuideTable;
 
 import java.util.*;
 
@@ -18,6 +19,7 @@ public class FlashmobPostGenerator extends PostGenerator {
 
     private Distribution dateDistribution;
     private FlashMobTag[] forumFlashmobTags = null;
+    private GuideTable forumFlashmobTagProbs = null;
     private long flashmobSpan;
     private long currentForum = -1;
 
@@ -41,16 +43,7 @@ public class FlashmobPostGenerator extends PostGenerator {
         int lowerBound = index;
         double prob = randomFlashmobTag
                 .nextDouble() * (tags[upperBound].prob - tags[lowerBound].prob) + tags[lowerBound].prob;
-        int midPoint = (upperBound + lowerBound) / 2;
-        while (upperBound > (lowerBound + 1)) {
-            if (tags[midPoint].prob > prob) {
-                upperBound = midPoint;
-            } else {
-                lowerBound = midPoint;
-            }
-            midPoint = (upperBound + lowerBound) / 2;
-        }
-        return midPoint;
+        return forumFlashmobTagProbs.floorIndex(prob, lowerBound, upperBound);
     }
 
 
@@ -102,10 +95,13 @@ public class FlashmobPostGenerator extends PostGenerator {
         }
         Arrays.sort(forumFlashmobTags);
         double currentProb = 0.0;
-        for (FlashMobTag forumFlashmobTag : forumFlashmobTags) {
-            forumFlashmobTag.prob = currentProb;
-            currentProb += (double) (forumFlashmobTag.level) / (double) (sumLevels);
+        double[] probs = new double[forumFlashmobTags.length];
+        for (int i = 0; i < forumFlashmobTags.length; ++i) {
+            forumFlashmobTags[i].prob = currentProb;
+            probs[i] = currentProb;
+            currentProb += (double) (forumFlashmobTags[i].level) / (double) (sumLevels);
         }
+        forumFlashmobTagProbs = new GuideTable(probs);
     }
 
     /**
@@ -4,24 +4,20 @@ package ldbc.snb.datagen.generator.generators.postgenerators;
 import ldbc.snb.datagen.generator.DatagenParams;
 import ldbc.snb.datagen.generator.dictionary.Dictionaries;
 import ldbc.snb.datagen.entities.dynamic.Forum;
-import ldbc.snb.datagen.entities.dynamic.messages.Comment;
 import ldbc.snb.datagen.entities.dynamic.messages.Post;
 import ldbc.snb.datagen.entities.dynamic.person.IP;
 import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
 import ldbc.snb.datagen.entities.dynamic.relations.Like;
+import ldbc.snb.datagen.generator.generators.ActivitySink;
 import ldbc.snb.datagen.generator.generators.CommentGenerator;
 import ldbc.snb.datagen.generator.generators.LikeGenerator;
 import ldbc.snb.datagen.generator.generators.textgenerators.TextGenerator;
-import ldbc.snb.datagen.util.Iterators;
 import ldbc.snb.datagen.util.PersonBehavior;
+import ldbc.snb.datagen.util.PhaseProfiler;
 import ldbc.snb.datagen.util.RandomGeneratorFarm;
-import ldbc.snb.datagen.util.Streams;
 import ldbc.snb.datagen.generator.vocabulary.SN;
-import org.javatuples.Pair;
-import org.javatuples.Triplet;
 
 import java.util.*;
-import java.util.stream.Stream;
 
 
 abstract public class PostGenerator {
@@ -40,13 +36,13 @@ abstract public class PostGenerator {
         // Intentionally left empty
     }
 
-    public Stream<Triplet<Post, Stream<Like>, Stream<Pair<Comment, Stream<Like>>>>> createPosts(RandomGeneratorFarm randomFarm, final Forum forum, final List<ForumMembership> memberships,
-                                                                                          long numPostsInForum, Iterator<Long> idIterator, long blockId) {
+    public void createPosts(RandomGeneratorFarm randomFarm, final Forum forum, final List<ForumMembership> memberships,
+                            long numPostsInForum, Iterator<Long> idIterator, long blockId, ActivitySink sink) {
 
         Properties properties = new Properties();
         properties.setProperty("type", "post");
 
-        return memberships.stream().flatMap(member -> {
+        for (ForumMembership member : memberships) {
             // generate number of posts by this member
             double numPostsPerMember = numPostsInForum / (double) memberships.size();
 
@@ -61,16 +57,18 @@ abstract public class PostGenerator {
             // 0 to 20
             int numComments = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_COMMENT).nextInt(DatagenParams.maxNumComments + 1);
 
-            return Streams.stream(Iterators.forIterator(0, i -> i < numPostsPerMemberInt, i -> ++i, i -> {
+            for (int i = 0; i < numPostsPerMemberInt; ++i) {
                 // create post core
                 PostCore postCore = generatePostInfo(randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_POST), randomFarm.get(RandomGeneratorFarm.Aspect.TAG),
                         randomFarm.get(RandomGeneratorFarm.Aspect.DATE), forum, member, numComments);
 
                 if (postCore == null)
-                    return Iterators.ForIterator.CONTINUE();
+                    continue;
 
                 // create content, county, ip - sometimes randomise
-                String content = this.generator.generateText(member.getPerson(), postCore.getTags(), properties);
+                long start = PhaseProfiler.start();
+                CharSequence content = this.generator.generateText(member.getPerson(), postCore.getTags(), properties);
+                PhaseProfiler.stop(PhaseProfiler.Phase.POST_TEXT, start);
                 int country = member.getPerson().getCountry();
                 IP ip = member.getPerson().getIpAddress();
                 Random random = randomFarm.get(RandomGeneratorFarm.Aspect.DIFF_IP_FOR_TRAVELER);
@@ -100,19 +98,18 @@ abstract public class PostGenerator {
                         forum.getLanguage(),
                         postCore.isExplicitlyDeleted());
 
-                Stream<Like> likeStream = randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE).nextDouble() <= 0.1
-                    ? likeGenerator.generateLikes(
+                sink.onPost(post);
+
+                if (randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE).nextDouble() <= 0.1) {
+                    likeGenerator.generateLikes(
                         randomFarm.get(RandomGeneratorFarm.Aspect.DELETION_LIKES),
                         randomFarm.get(RandomGeneratorFarm.Aspect.NUM_LIKE),
-                        forum, post, Like.LikeType.POST)
-                        : Stream.empty();
-
-
-                Stream<Pair<Comment, Stream<Like>>> commentStream = commentGenerator.createComments(randomFarm, forum, post, numComments, idIterator, blockId);
+                        forum, post, Like.LikeType.POST, sink);
+                }
 
-                return Iterators.ForIterator.RETURN(new Triplet<>(post, likeStream, commentStream));
-            }));
-        });
+                commentGenerator.createComments(randomFarm, forum, post, numComments, idIterator, blockId, sink);
+            }
+        }
     }
     protected abstract PostCore generatePostInfo(Random randomDeletePost, Random randomTag, Random randomDate, final Forum forum, final ForumMembership membership, int numComments);
 }
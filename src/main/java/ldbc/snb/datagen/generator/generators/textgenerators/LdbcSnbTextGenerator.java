@@ -21,8 +21,8 @@ public class LdbcSnbTextGenerator extends TextGenerator {
     }
 
     @Override
-    public String generateText(PersonSummary member, TreeSet<Integer> tags, Properties prop) {
-        String content = "";
+    public CharSequence generateText(PersonSummary member, TreeSet<Integer> tags, Properties prop) {
+        CharSequence content = "";
         if (prop.getProperty("type").equals("post")) {
 
             int textSize;
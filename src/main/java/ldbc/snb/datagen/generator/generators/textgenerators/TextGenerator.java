@@ -29,6 +29,6 @@ public abstract class TextGenerator {
     /**
      * @brief Generates a text given a set of tags.
      */
-    public abstract String generateText(PersonSummary person, TreeSet<Integer> tags, Properties prop);
+    public abstract CharSequence generateText(PersonSummary person, TreeSet<Integer> tags, Properties prop);
 
 }
@@ -0,0 +1,95 @@
+package ldbc.snb.datagen.util;
+
+import java.util.Random;
+
+/**
+ * A {@link Random} whose n-th number is a hash of its key and of n, in the style of SplitMix64 and
+ * {@link java.util.SplittableRandom}: the state is the key seed plus n times an odd gamma also derived
+ * from the key, and every number is the state passed through a 64-bit finalizer.
+ * <p>
+ * Any stream is therefore available in O(1) from its key, and drawing a number is a few multiplications
+ * on plain fields instead of a compare and set on the seed of a java.util.Random. Like every Random
+ * but java.util.Random itself, an instance must not be shared between threads.
+ */
+public final class CounterRandom extends Random {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+    private long gamma;
+
+    public CounterRandom() {
+        super(0);
+    }
+
+    public CounterRandom(long key) {
+        super(key);
+    }
+
+    /**
+     * Resets the generator to the start of the stream of the given key.
+     */
+    @Override
+    public void setSeed(long key) {
+        state = mix64(key);
+        gamma = mixGamma(key + GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return A key for the index-th stream of the stream with the given key.
+     */
+    public static long key(long key, long index) {
+        return mix64(mix64(key) + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        state += gamma;
+        return mix64(state);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * The polar method of {@link Random#nextGaussian()}, without keeping the second number for the next
+     * call, so that the numbers only depend on the key and on the position in the stream.
+     */
+    @Override
+    public double nextGaussian() {
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * nextDouble() - 1;
+            v2 = 2 * nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        return v1 * StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * An odd gamma with enough bit transitions, as SplittableRandom does, so that streams of different
+     * keys do not run along each other.
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
@@ -1,5 +1,7 @@
 package ldbc.snb.datagen.util;
 
+import ldbc.snb.datagen.util.sampling.GuideTable;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -11,6 +13,7 @@ import java.util.Random;
 public class Distribution {
 
     private double[] distribution;
+    private GuideTable guide;
     private String distributionFile;
 
     public Distribution(String distributionFile) {
@@ -33,27 +36,13 @@ public class Distribution {
                 distribution[index] = aDouble;
                 ++index;
             }
+            guide = new GuideTable(distribution);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private int binarySearch(double prob) {
-        int upperBound = distribution.length - 1;
-        int lowerBound = 0;
-        int midPoint = (upperBound + lowerBound) / 2;
-        while (upperBound > (lowerBound + 1)) {
-            if (distribution[midPoint] > prob) {
-                upperBound = midPoint;
-            } else {
-                lowerBound = midPoint;
-            }
-            midPoint = (upperBound + lowerBound) / 2;
-        }
-        return midPoint;
-    }
-
     public double nextDouble(Random random) {
-        return (double) binarySearch(random.nextDouble()) / (double) distribution.length;
+        return (double) guide.floorIndex(random.nextDouble(), 0, distribution.length - 1) / (double) distribution.length;
     }
 }
@@ -27,6 +27,28 @@ public class Iterators {
         };
     }
 
+    /**
+     * The numbers from start up to, but not including, end. Asking for a number past the range fails
+     * instead of returning one that belongs to another range.
+     */
+    public static Iterator<Long> numbers(long start, long end) {
+        return new Iterator<Long>() {
+            long i = start;
+            @Override
+            public boolean hasNext() {
+                return i < end;
+            }
+
+            @Override
+            public Long next() {
+                if (i >= end) {
+                    throw new IllegalStateException("No number left in [" + start + ", " + end + ")");
+                }
+                return i++;
+            }
+        };
+    }
+
     public static <T> Iterator<T> emptyIterator() {
         return Collections.emptyIterator();
     }
@@ -0,0 +1,141 @@
+package ldbc.snb.datagen.util;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Nanosecond timers and call counters for the phases of the generators, enabled with {@code generator.profile}.
+ * A phase is timed with
+ * <pre>
+ *     long start = PhaseProfiler.start();
+ *     ...
+ *     PhaseProfiler.stop(PhaseProfiler.Phase.POST_TEXT, start);
+ * </pre>
+ * which does nothing but read a static flag when profiling is off. The measures go to the counters installed on
+ * the current thread, the ones of the Spark task running there, or to the counters of the JVM otherwise.
+ */
+public final class PhaseProfiler {
+
+    public enum Phase {
+        /** PersonGenerator.generatePerson. */
+        PERSON,
+        /** A knows generator pass over a block. */
+        KNOWS_BLOCK,
+        /** The activity of a person, from their wall to their albums. */
+        ACTIVITY,
+        /** PersonActivityGenerator.generateActivityForBlock. */
+        ACTIVITY_BLOCK,
+        /** ForumGenerator.createGroup. */
+        GROUP,
+        /** The text of a post. */
+        POST_TEXT,
+        /** The text of a comment. */
+        COMMENT_TEXT,
+        /** LikeGenerator.generateLikes. */
+        LIKES,
+        /** The encoding and writing of a row to the raw files. */
+        ROW_ENCODING
+    }
+
+    /** The calls, total and longest nanoseconds of every phase. Safe to update from any number of threads. */
+    public static final class Counters {
+        private final LongAdder[] calls = new LongAdder[Phase.values().length];
+        private final LongAdder[] nanos = new LongAdder[Phase.values().length];
+        private final LongAccumulator[] maxNanos = new LongAccumulator[Phase.values().length];
+
+        public Counters() {
+            for (int i = 0; i < calls.length; ++i) {
+                calls[i] = new LongAdder();
+                nanos[i] = new LongAdder();
+                maxNanos[i] = new LongAccumulator(Math::max, 0);
+            }
+        }
+
+        public void record(Phase phase, long calls, long nanos, long maxNanos) {
+            this.calls[phase.ordinal()].add(calls);
+            this.nanos[phase.ordinal()].add(nanos);
+            this.maxNanos[phase.ordinal()].accumulate(maxNanos);
+        }
+
+        public long calls(Phase phase) {
+            return calls[phase.ordinal()].sum();
+        }
+
+        public long nanos(Phase phase) {
+            return nanos[phase.ordinal()].sum();
+        }
+
+        public long maxNanos(Phase phase) {
+            return maxNanos[phase.ordinal()].get();
+        }
+
+        public void reset() {
+            for (int i = 0; i < calls.length; ++i) {
+                calls[i].reset();
+                nanos[i].reset();
+                maxNanos[i].reset();
+            }
+        }
+    }
+
+    private static volatile boolean enabled = false;
+
+    private static final Counters jvmCounters = new Counters();
+
+    private static final ThreadLocal<Counters> threadCounters = new ThreadLocal<>();
+
+    private PhaseProfiler() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        PhaseProfiler.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The start of a phase to pass to {@link #stop}, or 0 when profiling is off.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void stop(Phase phase, long start) {
+        if (enabled) {
+            long nanos = System.nanoTime() - start;
+            current().record(phase, 1, nanos, nanos);
+        }
+    }
+
+    /** Records a phase measured elsewhere, e.g. by the record streams, which time their writes anyway. */
+    public static void record(Phase phase, long calls, long nanos, long maxNanos) {
+        if (enabled) {
+            current().record(phase, calls, nanos, maxNanos);
+        }
+    }
+
+    /** The counters the current thread records to. */
+    public static Counters current() {
+        Counters counters = threadCounters.get();
+        return counters != null ? counters : jvmCounters;
+    }
+
+    /** The counters of the JVM, to which the threads without counters of their own record. */
+    public static Counters jvm() {
+        return jvmCounters;
+    }
+
+    /**
+     * Makes the current thread record to {@code counters}, e.g. the ones of the task it works for.
+     * With null, the thread records to the counters of the JVM again.
+     */
+    public static void install(Counters counters) {
+        if (counters == null || counters == jvmCounters) {
+            threadCounters.remove();
+        } else {
+            threadCounters.set(counters);
+        }
+    }
+}
@@ -1,12 +1,23 @@
 
 package ldbc.snb.datagen.util;
 
+import ldbc.snb.datagen.generator.DatagenParams;
+
 import java.util.Random;
 
+/**
+ * One random generator per aspect of the generation, all reset together from a seed.
+ * <p>
+ * With generator.randomGenerator:Random the generators are java.util.Random reseeded one after the
+ * other from a Random of the seed, which is what the generator always did. With SplitMix they are
+ * {@link CounterRandom} streams whose keys are hashes of the seed and the aspect, so the generators of
+ * any (seed, index) are reset in O(1) without going through the ones before.
+ */
 public class RandomGeneratorFarm {
 
     private int numRandomGenerators;
     private Random[] randomGenerators;
+    private boolean counterBased;
 
     public enum Aspect {
         DATE,
@@ -84,10 +95,15 @@ public class RandomGeneratorFarm {
     }
 
     public RandomGeneratorFarm() {
+        this("SplitMix".equals(DatagenParams.randomGeneratorName));
+    }
+
+    public RandomGeneratorFarm(boolean counterBased) {
+        this.counterBased = counterBased;
         numRandomGenerators = Aspect.values().length;
         randomGenerators = new Random[numRandomGenerators];
         for (int i = 0; i < numRandomGenerators; ++i) {
-            randomGenerators[i] = new Random();
+            randomGenerators[i] = counterBased ? new CounterRandom() : new Random();
         }
     }
 
@@ -96,9 +112,32 @@ public class RandomGeneratorFarm {
     }
 
     public void resetRandomGenerators(long seed) {
+        if (counterBased) {
+            resetCounters(CounterRandom.key(53223436L, seed));
+            return;
+        }
         Random seedRandom = new Random(53223436L + 1234567 * seed);
         for (int i = 0; i < numRandomGenerators; i++) {
             randomGenerators[i].setSeed(seedRandom.nextLong());
         }
     }
+
+    /**
+     * Resets the generators to the streams of the index-th entity under the seed, e.g. of a person of
+     * a block, independently of the streams of the other entities.
+     */
+    public void resetRandomGenerators(long seed, long index) {
+        if (counterBased) {
+            // the keys of the aspects of the seed come first, then the ones of its entities
+            resetCounters(CounterRandom.key(CounterRandom.key(53223436L, seed), numRandomGenerators + index));
+            return;
+        }
+        resetRandomGenerators(CounterRandom.key(seed, index));
+    }
+
+    private void resetCounters(long key) {
+        for (int i = 0; i < numRandomGenerators; i++) {
+            randomGenerators[i].setSeed(CounterRandom.key(key, i));
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package ldbc.snb.datagen.util.sampling;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Inverse-CDF lookup over a nondecreasing cumulative distribution in O(1) expected time
+ * (Chen and Asau's guide table). The range of the distribution is split into as many cells as
+ * there are entries, and each cell stores the first entry whose cumulative value exceeds the
+ * cell's lower end, so a lookup only scans the few entries falling inside one cell.
+ * <p>
+ * Unlike an alias table the lookup is an exact inverse of the cumulative distribution, so it
+ * returns the same index as a binary search for the same uniform draw. This keeps the generated
+ * data identical to the one produced by the bisections it replaces.
+ */
+public final class GuideTable implements Serializable {
+
+    private final double[] cumulative;
+    private final int[] guide;
+    private final double cellsPerUnit;
+
+    /**
+     * @param cumulative The nondecreasing cumulative distribution. It is not copied.
+     */
+    public GuideTable(double[] cumulative) {
+        this.cumulative = cumulative;
+        int n = cumulative.length;
+        this.guide = new int[Math.max(n, 1)];
+        double total = n > 0 && cumulative[n - 1] > 0 ? cumulative[n - 1] : 1.0;
+        this.cellsPerUnit = guide.length / total;
+        int j = 0;
+        for (int c = 0; c < guide.length; c++) {
+            double lower = c / cellsPerUnit;
+            while (j < n && cumulative[j] <= lower) {
+                j++;
+            }
+            guide[c] = j;
+        }
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    public double cumulative(int index) {
+        return cumulative[index];
+    }
+
+    /**
+     * @param u The value to look up, usually a uniform draw in [0, 1).
+     * @return The first index whose cumulative value is greater than u, or size() if there is none.
+     */
+    public int upperBound(double u) {
+        int n = cumulative.length;
+        int cell = (int) (u * cellsPerUnit);
+        if (cell < 0) {
+            cell = 0;
+        } else if (cell >= guide.length) {
+            cell = guide.length - 1;
+        }
+        int j = guide[cell];
+        while (j > 0 && cumulative[j - 1] > u) {
+            j--;
+        }
+        while (j < n && cumulative[j] <= u) {
+            j++;
+        }
+        return j;
+    }
+
+    /**
+     * Returns the index the datagen's bisection over the cumulative distribution yields when
+     * started with the given bounds: the last index in (lo, hi) whose cumulative value is not
+     * greater than u, or lo if there is none.
+     *
+     * @param u  The value to look up, usually a uniform draw in [0, 1).
+     * @param lo The lower bound of the search, returned when no entry is below u.
+     * @param hi The exclusive upper bound of the search.
+     * @return The selected index.
+     */
+    public int floorIndex(double u, int lo, int hi) {
+        if (hi <= lo + 1) {
+            return lo;
+        }
+        return Math.min(Math.max(upperBound(u) - 1, lo), hi - 1);
+    }
+
+    /**
+     * Draws an index distributed as the cumulative distribution, consuming one uniform double.
+     * The distribution does not need to be normalized.
+     */
+    public int sample(Random random) {
+        int n = cumulative.length;
+        return Math.min(upperBound(random.nextDouble() * cumulative[n - 1]), n - 1);
+    }
+}
@@ -30,7 +30,9 @@ object LdbcDatagen extends SparkApp {
       oversizeFactor: Option[Double] = None,
       epochMillis: Boolean = false,
       generateFactors: Boolean = false,
-      factorFormat: String = "parquet"
+      factorFormat: String = "parquet",
+      resume: Boolean = false,
+      targetFileSize: Option[Long] = None
   )
 
   override type ArgsType = Args
@@ -82,6 +84,14 @@ object LdbcDatagen extends SparkApp {
             "Smaller values result in more, smaller files"
         )
 
+      opt[Long]("target-file-size")
+        .action((x, c) => args.targetFileSize.set(c)(Some(x)))
+        .text(
+          "Cut the raw files of every entity at this number of bytes, instead of at a number of records. " +
+            "For Parquet the size is estimated before encoding and compression, so the files are smaller. " +
+            "Takes precedence over --oversize-factor"
+        )
+
       opt[Double]("bulkload-portion")
         .action((x, c) => args.bulkloadPortion.set(c)(x))
         .text("Bulkload portion. Only applicable to the BI mode")
@@ -115,6 +125,13 @@ object LdbcDatagen extends SparkApp {
             "available in Spark: https://spark.apache.org/docs/2.4.5/api/scala/index.html#org.apache.spark.sql.DataFrameWriter"
         )
 
+      opt[Unit]("resume")
+        .action((x, c) => args.resume.set(c)(true))
+        .text(
+          "Complete the generation of an output directory left by an interrupted run with the same parameters. " +
+            "The partitions whose completion manifests match their files are kept, the others are generated again"
+        )
+
       opt[Unit]("generate-factors")
         .action((x, c) => args.generateFactors.set(c)(true))
         .text("Generate factor tables")
@@ -145,7 +162,9 @@ object LdbcDatagen extends SparkApp {
       outputDir = args.outputDir,
       numThreads = args.numThreads,
       format = env.IrFormat,
-      oversizeFactor = args.oversizeFactor
+      oversizeFactor = args.oversizeFactor,
+      resume = args.resume,
+      targetFileSize = args.targetFileSize
     )
 
     GenerationStage.run(generatorArgs)
@@ -1,6 +1,7 @@
 package ldbc.snb.datagen.factors
 
 import ldbc.snb.datagen.factors.io.FactorTableSink
+import ldbc.snb.datagen.io.WriteStatisticsListener
 import ldbc.snb.datagen.io.graphs.GraphSource
 import ldbc.snb.datagen.model
 import ldbc.snb.datagen.model.EntityType
@@ -83,17 +84,19 @@ object FactorGenerationStage extends DatagenStage with Logging {
     import ldbc.snb.datagen.io.instances._
     import ldbc.snb.datagen.transformation.transform.ConvertDates.instances._
 
-    GraphSource(model.graphs.Raw.graphDef, args.outputDir, args.irFormat).read
-      .pipe(ConvertDates[Raw.type].transform)
-      .pipe(g =>
-        rawFactors
-          .collect {
-            case (name, calc) if args.only.fold(true)(_.findFirstIn(name).isDefined) =>
-              val resolvedEntities = calc.requiredEntities.foldLeft(Seq.empty[DataFrame])((args, et) => args :+ g.entities(et))
-              FactorTable(name, calc(resolvedEntities), g)
-          }
-      )
-      .foreach(_.write(FactorTableSink(args.outputDir, format = args.format, overwrite = args.force)))
+    WriteStatisticsListener.collect(args.outputDir, "factors") {
+      GraphSource(model.graphs.Raw.graphDef, args.outputDir, args.irFormat).read
+        .pipe(ConvertDates[Raw.type].transform)
+        .pipe(g =>
+          rawFactors
+            .collect {
+              case (name, calc) if args.only.fold(true)(_.findFirstIn(name).isDefined) =>
+                val resolvedEntities = calc.requiredEntities.foldLeft(Seq.empty[DataFrame])((args, et) => args :+ g.entities(et))
+                FactorTable(name, calc(resolvedEntities), g)
+            }
+        )
+        .foreach(_.write(FactorTableSink(args.outputDir, format = args.format, overwrite = args.force)))
+    }
   }
 
   private def frequency(df: DataFrame, value: Column, by: Seq[Column], agg: Column => Column = count) =
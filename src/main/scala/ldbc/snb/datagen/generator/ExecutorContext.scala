@@ -0,0 +1,62 @@
+package ldbc.snb.datagen.generator
+
+import ldbc.snb.datagen.util.GeneratorConfiguration
+import org.apache.spark.SparkContext
+import org.apache.spark.broadcast.Broadcast
+import org.apache.spark.sql.SparkSession
+
+import scala.collection.mutable
+import scala.reflect.ClassTag
+
+/**
+ * Initializes the [[DatagenContext]] of an executor. With `generator.profile` the task gets phase
+ * counters of its own, summed in the [[PhaseProfileAccumulator]] of the run.
+ */
+final case class ExecutorContext(conf: GeneratorConfiguration, profile: Option[PhaseProfileAccumulator] = None) {
+  def initialize(): Unit = {
+    DatagenContext.initialize(conf)
+    for { acc <- profile } PhaseProfile.profileTask(acc)
+  }
+}
+
+object ExecutorContext {
+  // the phase profile of a run, by the context it is registered in
+  private val profiles = mutable.Map.empty[SparkContext, PhaseProfileAccumulator]
+  // the values broadcast for the tasks of a run, by the context they are broadcast in
+  private val broadcasts = mutable.Map.empty[SparkContext, List[Broadcast[_]]]
+
+  def apply(conf: GeneratorConfiguration)(implicit spark: SparkSession): ExecutorContext =
+    ExecutorContext(conf, phaseProfile(conf))
+
+  /**
+   * Broadcasts `value` for the tasks of the run, until [[release]]. The RDDs of the run may be computed again as long
+   * as it starts tasks, so the broadcasts they read are kept until then.
+   */
+  def broadcast[T: ClassTag](value: T)(implicit spark: SparkSession): Broadcast[T] = synchronized {
+    val b = spark.sparkContext.broadcast(value)
+    broadcasts(spark.sparkContext) = b :: broadcasts.getOrElse(spark.sparkContext, Nil)
+    b
+  }
+
+  /**
+   * Destroys the values broadcast in the session, and forgets its phase profile.
+   * Called once the run no longer starts tasks.
+   */
+  def release()(implicit spark: SparkSession): Unit = synchronized {
+    for { b <- broadcasts.remove(spark.sparkContext).getOrElse(Nil) } b.destroy()
+    profiles.remove(spark.sparkContext)
+  }
+
+  /** The accumulator the tasks add their phase counters to with `generator.profile`, registered once per run. */
+  def phaseProfile(conf: GeneratorConfiguration)(implicit spark: SparkSession): Option[PhaseProfileAccumulator] = synchronized {
+    if (conf.getBoolean("generator.profile", false)) {
+      Some(profiles.getOrElseUpdate(spark.sparkContext, {
+        val acc = new PhaseProfileAccumulator
+        spark.sparkContext.register(acc, "phase profile")
+        acc
+      }))
+    } else {
+      None
+    }
+  }
+}
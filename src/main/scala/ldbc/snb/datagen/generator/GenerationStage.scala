@@ -1,13 +1,18 @@
 package ldbc.snb.datagen.generator
 
+import ldbc.snb.datagen.entities.dynamic.person.Person
 import ldbc.snb.datagen.generator.generators.{SparkKnowsGenerator, SparkKnowsMerger, SparkPersonGenerator, SparkRanker}
 import ldbc.snb.datagen.generator.serializers.RawSerializer
 import ldbc.snb.datagen.io.raw.{Csv, Parquet, RawSink}
 import ldbc.snb.datagen.syntax._
 import ldbc.snb.datagen.util._
+import org.apache.hadoop.conf.Configuration
 import org.apache.hadoop.fs.{FileSystem, Path}
+import org.apache.spark.storage.StorageLevel
 
 import java.net.URI
+import scala.reflect.ClassTag
+
 object GenerationStage extends DatagenStage with Logging {
 
   case class Args(
@@ -17,7 +22,9 @@ object GenerationStage extends DatagenStage with Logging {
       paramFile: Option[String] = None,
       outputDir: String = "out",
       format: String = "parquet",
-      oversizeFactor: Option[Double] = None
+      oversizeFactor: Option[Double] = None,
+      resume: Boolean = false,
+      targetFileSize: Option[Long] = None
   )
 
   override type ArgsType = Args
@@ -34,6 +41,11 @@ object GenerationStage extends DatagenStage with Logging {
       )
       .toInt
 
+    // the phase profile of the run, registered in this session and released with its broadcasts once the run is written.
+    // A run that failed before releasing it leaves its counts, which are cleared.
+    val profile = ExecutorContext.phaseProfile(config)
+    for { acc <- profile } acc.reset()
+
     val persons = SparkPersonGenerator(config, Some(numPartitions))
 
     val percentages             = Seq(0.45f, 0.45f, 0.1f)
@@ -41,15 +53,44 @@ object GenerationStage extends DatagenStage with Logging {
 
     import ldbc.snb.datagen.entities.Keys._
 
-    val uniRanker      = SparkRanker.create(_.byUni)
-    val interestRanker = SparkRanker.create(_.byInterest)
-    val randomRanker   = SparkRanker.create(_.byRandomId)
+    def ranker[K: Ordering: ClassTag](by: Person => K) = config.get("generator.ranker", "sort") match {
+      case "sort"  => SparkRanker.create(by)
+      case "range" => SparkRanker.rangePartitioned(by)
+      case a       => throw new IllegalArgumentException(s"Ranker `${a}` is not supported by the generator.")
+    }
+
+    val uniRanker      = ranker(_.byUni)
+    val interestRanker = ranker(_.byInterest)
+    val randomRanker   = ranker(_.byRandomId)
+
+    // generated once, for the three rankings, or for the knows projections and the join of the fused generation
+    val generated = persons.persist(StorageLevel.MEMORY_AND_DISK)
+
+    // the persons the rankings read, which are persisted until the knows edges are merged
+    val (merged, rankedPersons) = if (config.getBoolean("generator.fusedKnows", false)) {
+      // only the knows projections go through the rankings, full persons are shuffled once when the edges are joined
+      val projections = generated.map(SparkKnowsGenerator.knowsProjection).cache()
 
-    val uniKnows      = SparkKnowsGenerator(persons, uniRanker, config, percentages, 0, knowsGeneratorClassName)
-    val interestKnows = SparkKnowsGenerator(persons, interestRanker, config, percentages, 1, knowsGeneratorClassName)
-    val randomKnows   = SparkKnowsGenerator(persons, randomRanker, config, percentages, 2, knowsGeneratorClassName)
+      val uniEdges      = SparkKnowsGenerator.edges(projections, uniRanker, config, percentages, 0, knowsGeneratorClassName)
+      val interestEdges = SparkKnowsGenerator.edges(projections, interestRanker, config, percentages, 1, knowsGeneratorClassName)
+      val randomEdges   = SparkKnowsGenerator.edges(projections, randomRanker, config, percentages, 2, knowsGeneratorClassName)
 
-    val merged = SparkKnowsMerger(uniKnows, interestKnows, randomKnows).cache()
+      (SparkKnowsMerger.join(generated, uniEdges, interestEdges, randomEdges).cache(), projections)
+    } else {
+      val uniKnows      = SparkKnowsGenerator(generated, uniRanker, config, percentages, 0, knowsGeneratorClassName)
+      val interestKnows = SparkKnowsGenerator(generated, interestRanker, config, percentages, 1, knowsGeneratorClassName)
+      val randomKnows   = SparkKnowsGenerator(generated, randomRanker, config, percentages, 2, knowsGeneratorClassName)
+
+      (SparkKnowsMerger(uniKnows, interestKnows, randomKnows).cache(), generated)
+    }
+
+    // the rankings of the knows generation are done once the merged persons are cached
+    SparkUI.job(getClass.getSimpleName, "generate knows") {
+      merged.count()
+    }
+    rankedPersons.unpersist(blocking = false)
+    generated.unpersist(blocking = false)
+    for { r <- Seq(uniRanker, interestRanker, randomRanker) } r.unpersist()
 
     val format = args.format match {
       case "csv"     => Csv
@@ -59,20 +100,25 @@ object GenerationStage extends DatagenStage with Logging {
 
     SparkUI.job(simpleNameOf[RawSerializer], "serialize persons") {
       val rawSerializer = new RawSerializer(randomRanker)
-      rawSerializer.write(merged, RawSink(format, Some(numPartitions), config, args.oversizeFactor))
+      rawSerializer.write(merged, RawSink(format, Some(numPartitions), config, args.oversizeFactor, resume = args.resume, targetFileSize = args.targetFileSize))
     }
+    randomRanker.unpersist()
+    merged.unpersist(blocking = false)
+    ExecutorContext.release()
+
+    for { acc <- profile } PhaseProfile.write(spark.sparkContext.hadoopConfiguration, args.outputDir, acc.value)
   }
 
-  def openPropFileStream(uri: URI) = {
-    val fs = FileSystem.get(uri, spark.sparkContext.hadoopConfiguration)
+  def openPropFileStream(uri: URI, hadoopConf: Configuration) = {
+    val fs = FileSystem.get(uri, hadoopConf)
     fs.open(new Path(uri.getPath))
   }
 
-  def buildConfig(args: Args) = {
+  def buildConfig(args: Args, hadoopConf: Configuration = spark.sparkContext.hadoopConfiguration) = {
     val conf = new java.util.HashMap[String, String]
     conf.putAll(getClass.getResourceAsStream("/params_default.ini") use { ConfigParser.readConfig })
 
-    for { paramsFile <- args.paramFile } conf.putAll(openPropFileStream(URI.create(paramsFile)) use { ConfigParser.readConfig })
+    for { paramsFile <- args.paramFile } conf.putAll(openPropFileStream(URI.create(paramsFile), hadoopConf) use { ConfigParser.readConfig })
 
     for { (k, v) <- args.params } conf.put(k, v)
 
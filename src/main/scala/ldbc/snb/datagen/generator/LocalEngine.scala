@@ -0,0 +1,236 @@
+package ldbc.snb.datagen.generator
+
+import ldbc.snb.datagen.entities.dynamic.person.Person
+import ldbc.snb.datagen.entities.dynamic.relations.KnowsList
+import ldbc.snb.datagen.generator.distribution.CumulativeBasedDegreeDistribution
+import ldbc.snb.datagen.generator.generators.knowsgenerators.KnowsGenerator
+import ldbc.snb.datagen.generator.generators.{PersonGenerator, SortedBlock, SparkKnowsGenerator}
+import ldbc.snb.datagen.generator.serializers.RawSerializer
+import ldbc.snb.datagen.io.raw.{Csv, EntityCounters, Parquet, PartitionManifest, RawSerializationJobContext, RawSink, WriteContext}
+import ldbc.snb.datagen.util.{GeneratorConfiguration, Logging, PhaseProfiler}
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.{FileSystem, Path}
+import shapeless.lens
+
+import java.net.URI
+import java.util
+import java.util.concurrent.{Callable, ForkJoinPool}
+import scala.collection.JavaConverters._
+
+/**
+ * Runs the generation stage in a single JVM on a fork/join pool, without a Spark session, for scale factors
+ * whose persons fit in memory. The persons are generated per block, the three rankings are in-memory sorts and
+ * the partitions are written with the same streams as the [[RawSerializer]], so the output holds the same rows as
+ * the one of the [[GenerationStage]]. The files may not be the same: the blocks of a partition are written in
+ * block order, while a Spark run writes them in the order its shuffle returns them.
+ *
+ * Run with: `java -cp <datagen jar>:$SPARK_HOME/jars/* ldbc.snb.datagen.generator.LocalEngine --scale-factor 0.1`
+ */
+object LocalEngine extends Logging {
+
+  def main(args: Array[String]): Unit = {
+    val parser = new scopt.OptionParser[GenerationStage.Args](getClass.getName.dropRight(1)) {
+      head("LDBC SNB Datagen local engine")
+
+      val args = lens[GenerationStage.Args]
+
+      opt[String]("scale-factor")
+        .action((x, c) => args.scaleFactor.set(c)(x))
+        .text("The generator scale factor")
+
+      opt[Map[String, String]]('p', "params")
+        .action((x, c) => args.params.set(c)(x))
+        .text("Key=value params passed to the generator. Takes precedence over --param-file")
+
+      opt[String]('P', "param-file")
+        .action((x, c) => args.paramFile.set(c)(Some(x)))
+        .text("Parameter file used for the generator")
+
+      opt[String]('o', "output-dir")
+        .action((x, c) => args.outputDir.set(c)(x))
+        .text("Path or URI of the output directory")
+
+      opt[Int]('n', "num-threads")
+        .action((x, c) => args.numThreads.set(c)(Some(x)))
+        .text("Number of threads, which is also the number of files written. Default: the number of processors")
+
+      opt[String]('f', "format")
+        .action((x, c) => args.format.set(c)(x))
+        .text("Output format. Options: csv, parquet. Default: parquet")
+
+      opt[Double]("oversize-factor")
+        .action((x, c) => args.oversizeFactor.set(c)(Some(x)))
+        .text("Controls size of files relative to Persons")
+
+      opt[Long]("target-file-size")
+        .action((x, c) => args.targetFileSize.set(c)(Some(x)))
+        .text("Cut the files of every entity at this number of bytes, instead of at a number of records")
+
+      opt[Unit]("resume")
+        .action((x, c) => args.resume.set(c)(true))
+        .text("Complete the generation of an output directory left by an interrupted run with the same parameters")
+
+      help('h', "help").text("prints this usage text")
+    }
+
+    val parsedArgs = parser.parse(args, GenerationStage.Args()).getOrElse(throw new RuntimeException("Invalid arguments"))
+
+    run(parsedArgs)
+  }
+
+  def run(args: GenerationStage.Args): Unit = {
+    val hadoopConf = new Configuration()
+    val config     = GenerationStage.buildConfig(args, hadoopConf)
+    DatagenContext.initialize(config)
+
+    val numBlocks  = Math.ceil(DatagenParams.numPersons.toDouble / DatagenParams.blockSize).toInt
+    val numThreads = config.getInt("hadoop.numThreads", Runtime.getRuntime.availableProcessors())
+    // the same partitioning as the GenerationStage with as many Spark partitions as threads
+    val numPartitions = Math.min(numBlocks, numThreads)
+
+    val format = args.format match {
+      case "csv"     => Csv
+      case "parquet" => Parquet
+      case a         => throw new IllegalArgumentException(s"Format `${a}` is not supported by the generator.")
+    }
+    val sink = RawSink(format, Some(numPartitions), config, args.oversizeFactor, resume = args.resume, targetFileSize = args.targetFileSize)
+
+    // the threads of the pool record to the counters of the JVM, which are the ones of the run
+    PhaseProfiler.jvm().reset()
+
+    val pool = new ForkJoinPool(numThreads)
+    try {
+      val persons = generatePersons(config, numBlocks, pool)
+      log.info(s"Generated ${persons.length} persons")
+
+      val percentages             = Seq(0.45f, 0.45f, 0.1f)
+      val knowsGeneratorClassName = DatagenParams.getKnowsGenerator
+
+      import ldbc.snb.datagen.entities.Keys._
+
+      val uniKnows      = generateKnows(persons, _.byUni, config, percentages, 0, knowsGeneratorClassName, pool)
+      val interestKnows = generateKnows(persons, _.byInterest, config, percentages, 1, knowsGeneratorClassName, pool)
+      val randomKnows   = generateKnows(persons, _.byRandomId, config, percentages, 2, knowsGeneratorClassName, pool)
+
+      parallel(pool, persons.indices.grouped(DatagenParams.blockSize).toList) { range =>
+        for { i <- range } new FriendshipMerger().apply(persons(i), Seq(uniKnows(i), interestKnows(i), randomKnows(i)).asJava)
+      }
+      log.info("Generated the knows edges")
+
+      val blocks   = rankedBlocks(persons, _.byRandomId)
+      val counters = writeRaw(sink, hadoopConf, numPartitions, pool) { (partition, wc) =>
+        // the blocks a HashPartitioner with numPartitions partitions would assign to the partition, in block order
+        val groups = blocks.iterator.filter { case (blockId, _) => blockId % numPartitions == partition }
+        RawSerializer.writeDynamicPartition(groups, sink, wc)
+      }
+      RawSerializer.writeStatistics(sink, counters, hadoopConf)
+      log.info("Wrote the raw graph")
+
+      if (PhaseProfiler.isEnabled) {
+        PhaseProfile.write(hadoopConf, args.outputDir, PhaseCounters.of(PhaseProfiler.jvm()))
+      }
+    } finally {
+      pool.shutdownNow()
+    }
+  }
+
+  private def generatePersons(config: GeneratorConfiguration, numBlocks: Int, pool: ForkJoinPool): IndexedSeq[Person] = {
+    // cumulative degree distributions are computed once here rather than by every generator
+    val cumulativeDegrees = DatagenParams.getDegreeDistribution match {
+      case d: CumulativeBasedDegreeDistribution =>
+        d.initialize(config)
+        Some(d.getCumulativeProbability)
+      case _ => None
+    }
+
+    val personGenerators = ThreadLocal.withInitial[PersonGenerator](() =>
+      new PersonGenerator(config, config.get("generator.distribution.degreeDistribution"), cumulativeDegrees.orNull)
+    )
+
+    val blocks = parallel(pool, 0 until numBlocks) { i =>
+      val size = Math.min(DatagenParams.numPersons - DatagenParams.blockSize.toLong * i, DatagenParams.blockSize).toInt
+      personGenerators.get().generatePersonBlock(i, DatagenParams.blockSize).asScala.take(size).toVector
+    }
+    blocks.flatten.toVector
+  }
+
+  /**
+   * Generates the knows edges of one correlation dimension on [[SparkKnowsGenerator.knowsProjection]]s of the
+   * persons, and returns them in the order of the persons.
+   */
+  private def generateKnows[K: Ordering](
+      persons: IndexedSeq[Person],
+      by: Person => K,
+      config: GeneratorConfiguration,
+      percentages: Seq[Float],
+      stepIndex: Int,
+      knowsGeneratorClassName: String,
+      pool: ForkJoinPool
+  ): IndexedSeq[KnowsList] = {
+    val projections     = persons.map(SparkKnowsGenerator.knowsProjection)
+    val percentagesJava = percentages.map(Float.box).asJava
+
+    val knowsGenerators = ThreadLocal.withInitial[KnowsGenerator](() => {
+      val knowsGenerator = Class.forName(knowsGeneratorClassName).getConstructor().newInstance().asInstanceOf[KnowsGenerator]
+      knowsGenerator.initialize(config)
+      knowsGenerator
+    })
+
+    parallel(pool, rankedBlocks(projections, by)) { case (blockId, block) =>
+      val personList = new util.ArrayList[Person](block.persons.length)
+      for (p <- block.persons) { personList.add(p) }
+      val start = PhaseProfiler.start()
+      knowsGenerators.get().generateKnows(personList, blockId.toInt, percentagesJava, stepIndex, DatagenParams.getPersonSimularity)
+      PhaseProfiler.stop(PhaseProfiler.Phase.KNOWS_BLOCK, start)
+    }
+    projections.map(_.getKnows)
+  }
+
+  /** The persons in the order of their keys, cut in blocks of `generator.blockSize` as the SparkRankers do. */
+  private def rankedBlocks[K: Ordering](persons: IndexedSeq[Person], by: Person => K): List[(Long, SortedBlock)] = {
+    val keys = persons.map(by)
+    persons.indices
+      .sortBy(keys)
+      .grouped(DatagenParams.blockSize)
+      .zipWithIndex
+      .map { case (ranks, blockId) => (blockId.toLong, SortedBlock(ranks.map(persons).toArray)) }
+      .toList
+  }
+
+  /**
+   * Writes the partitions of the dynamic subgraph in parallel with `writeDynamic`, then the static subgraph, each
+   * with the completion manifest the RawSerializationJobContext writes.
+   *
+   * @return The counters of the entities written.
+   */
+  private def writeRaw(sink: RawSink, hadoopConf: Configuration, numPartitions: Int, pool: ForkJoinPool)(
+      writeDynamic: (Int, WriteContext) => Unit
+  ): Map[String, EntityCounters] = {
+    val fs          = FileSystem.get(URI.create(sink.conf.getOutputDir), hadoopConf)
+    val fingerprint = PartitionManifest.fingerprint(sink)
+
+    def prepare(jobPart: String, jobPartitions: Int) = {
+      val outputPath = RawSerializationJobContext.jobOutputPath(sink, jobPart)
+      RawSerializationJobContext.prepareOutputPath(fs, sink, outputPath, jobPartitions)
+      fs.mkdirs(new Path(outputPath))
+      outputPath
+    }
+
+    val dynamicPath     = prepare("dynamic", numPartitions)
+    val dynamicCounters = parallel(pool, 0 until numPartitions) { partition =>
+      val wc = WriteContext.local(partition, hadoopConf, fs)
+      RawSerializationJobContext.runPartition(sink, dynamicPath, numPartitions, fingerprint, wc)(writeDynamic(partition, _))
+    }
+
+    val staticPath     = prepare("static", 1)
+    val wc             = WriteContext.local(0, hadoopConf, fs)
+    val staticCounters = RawSerializationJobContext.runPartition(sink, staticPath, 1, fingerprint, wc)(RawSerializer.writeStaticPartition(sink, _))
+    EntityCounters.sum(staticCounters :: dynamicCounters)
+  }
+
+  /** Runs `f` on every element on the pool, and returns the results in the order of the elements. */
+  private def parallel[A, B](pool: ForkJoinPool, as: Seq[A])(f: A => B): List[B] = {
+    val tasks = as.toList.map(a => pool.submit(new Callable[B] { override def call(): B = f(a) }))
+    tasks.map(_.join())
+  }
+}
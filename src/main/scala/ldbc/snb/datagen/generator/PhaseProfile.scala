@@ -0,0 +1,106 @@
+package ldbc.snb.datagen.generator
+
+import ldbc.snb.datagen.io.OutputStatistics.quote
+import ldbc.snb.datagen.syntax._
+import ldbc.snb.datagen.util.{Logging, PhaseProfiler}
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.{FileSystem, Path}
+import org.apache.spark.TaskContext
+import org.apache.spark.util.AccumulatorV2
+
+import java.net.URI
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+import scala.collection.mutable
+
+/**
+ * The measures of a phase of the generators.
+ *
+ * @param maxNanos     The longest single call, e.g. the slowest block of the block phases.
+ * @param maxTaskNanos The most time a single task spent in the phase.
+ */
+final case class PhaseCounters(calls: Long, nanos: Long, maxNanos: Long, maxTaskNanos: Long) {
+  def +(other: PhaseCounters): PhaseCounters =
+    PhaseCounters(calls + other.calls, nanos + other.nanos, math.max(maxNanos, other.maxNanos), math.max(maxTaskNanos, other.maxTaskNanos))
+
+  override def toString: String = s"${calls} calls, ${nanos / 1000000} ms, longest ${maxNanos / 1000} us, task ${maxTaskNanos / 1000000} ms"
+}
+
+object PhaseCounters {
+  val Zero: PhaseCounters = PhaseCounters(0, 0, 0, 0)
+
+  /** The phases with calls in `counters`, as the measures of a single task. */
+  def of(counters: PhaseProfiler.Counters): Map[String, PhaseCounters] = (for {
+    phase <- PhaseProfiler.Phase.values().toSeq
+    calls = counters.calls(phase)
+    if calls > 0
+  } yield phase.name -> PhaseCounters(calls, counters.nanos(phase), counters.maxNanos(phase), counters.nanos(phase))).toMap
+}
+
+/** Sums the [[PhaseCounters]] of the tasks of the generation per phase. Shown in the Spark UI per stage and task. */
+final class PhaseProfileAccumulator extends AccumulatorV2[Map[String, PhaseCounters], Map[String, PhaseCounters]] {
+  private val phases = mutable.TreeMap.empty[String, PhaseCounters]
+
+  override def isZero: Boolean = phases.isEmpty
+
+  override def copy(): PhaseProfileAccumulator = {
+    val other = new PhaseProfileAccumulator
+    other.phases ++= phases
+    other
+  }
+
+  override def reset(): Unit = phases.clear()
+
+  override def add(v: Map[String, PhaseCounters]): Unit =
+    for { (phase, n) <- v } phases(phase) = phases.getOrElse(phase, PhaseCounters.Zero) + n
+
+  override def merge(other: AccumulatorV2[Map[String, PhaseCounters], Map[String, PhaseCounters]]): Unit = add(other.value)
+
+  override def value: Map[String, PhaseCounters] = phases.toMap
+}
+
+/**
+ * Collects the [[PhaseProfiler]] counters of the tasks of the generation, enabled with `generator.profile`, and
+ * writes them to `_statistics/profile.json` in the output directory. The phases nest: the activity of a person
+ * includes its groups, texts and likes, and the rows it writes when the activity is not buffered.
+ */
+object PhaseProfile extends Logging {
+
+  /**
+   * Makes the current Spark task record to counters of its own, which are added to `acc` once the task completes.
+   * Does nothing outside of a task, or when the task already records to its own counters.
+   */
+  def profileTask(acc: PhaseProfileAccumulator): Unit = {
+    val task = TaskContext.get()
+    if (task != null && (PhaseProfiler.current() eq PhaseProfiler.jvm())) {
+      val counters = new PhaseProfiler.Counters
+      PhaseProfiler.install(counters)
+      task.addTaskCompletionListener[Unit] { _ =>
+        PhaseProfiler.install(null)
+        acc.add(PhaseCounters.of(counters))
+      }
+    }
+  }
+
+  def write(hadoopConf: Configuration, outputDir: String, phases: Map[String, PhaseCounters]): Unit = {
+    val fs   = FileSystem.get(URI.create(outputDir), hadoopConf)
+    val path = new Path(s"${outputDir}/_statistics/profile.json")
+    fs.create(path, true) use { out => out.write(toJson(phases).getBytes(StandardCharsets.UTF_8)) }
+    for { (phase, n) <- phases.toSeq.sortBy(-_._2.nanos) } log.info(s"${phase}: ${n}")
+    log.info(s"Profile of ${phases.size} phases written to ${path}")
+  }
+
+  private def toJson(phases: Map[String, PhaseCounters]): String = {
+    val entries = for { phase <- PhaseProfiler.Phase.values().toSeq; n <- phases.get(phase.name) } yield {
+      s"""    {"phase": ${quote(phase.name)}, "calls": ${n.calls}, "nanos": ${n.nanos}, "meanNanos": ${n.nanos / n.calls}, "maxNanos": ${n.maxNanos}, "maxTaskNanos": ${n.maxTaskNanos}}"""
+    }
+
+    s"""{
+       |  "createdAt": ${quote(Instant.now().toString)},
+       |  "phases": [
+       |${entries.mkString(",\n")}
+       |  ]
+       |}
+       |""".stripMargin
+  }
+}
@@ -1,15 +1,15 @@
 package ldbc.snb.datagen.generator.generators
 
 import ldbc.snb.datagen.entities.dynamic.person.Person
+import ldbc.snb.datagen.entities.dynamic.relations.KnowsList
 import ldbc.snb.datagen.generator.generators.knowsgenerators.KnowsGenerator
-import ldbc.snb.datagen.generator.{DatagenContext, DatagenParams}
-import ldbc.snb.datagen.util.GeneratorConfiguration
+import ldbc.snb.datagen.generator.{DatagenParams, ExecutorContext}
+import ldbc.snb.datagen.util.{GeneratorConfiguration, PhaseProfiler}
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.SparkSession
 
 import java.util
 import scala.collection.JavaConverters._
-import scala.collection.SortedMap
 
 object SparkKnowsGenerator {
   def apply(
@@ -20,36 +20,86 @@ object SparkKnowsGenerator {
       stepIndex: Int,
       knowsGeneratorClassName: String
   )(implicit spark: SparkSession) = {
-    val blockSize = DatagenParams.blockSize
+    generateBlocks(persons, ranker, conf, percentages, stepIndex, knowsGeneratorClassName)
+      .flatMap(_.iterator().asScala)
+  }
 
-    val indexed = ranker(persons)
-      .map { case (k, v) => (k / blockSize, (k, v)) }
+  /**
+   * Generates the knows edges of one correlation dimension, but returns only the edges of each
+   * person keyed by account id. Intended to be fed with [[knowsProjection]]s of the persons and
+   * merged back into the full persons with [[SparkKnowsMerger.join]].
+   */
+  def edges(
+      persons: RDD[Person],
+      ranker: SparkRanker,
+      conf: GeneratorConfiguration,
+      percentages: Seq[Float],
+      stepIndex: Int,
+      knowsGeneratorClassName: String
+  )(implicit spark: SparkSession): RDD[(Long, KnowsList)] = {
+    generateBlocks(persons, ranker, conf, percentages, stepIndex, knowsGeneratorClassName)
+      .flatMap(personList =>
+        for {
+          person <- personList.iterator().asScala
+          if !person.getKnows.isEmpty
+        } yield (person.getAccountId, person.getKnows)
+      )
+  }
+
+  /**
+   * A copy of the person carrying only the attributes read by the rankers, the knows generators,
+   * the person similarities and the knows edges themselves. Names, emails, companies and languages
+   * are left out.
+   */
+  def knowsProjection(p: Person): Person = {
+    val projection = new Person()
+    projection.setAccountId(p.getAccountId)
+    projection.setCreationDate(p.getCreationDate)
+    projection.setDeletionDate(p.getDeletionDate)
+    projection.setExplicitlyDeleted(p.isExplicitlyDeleted)
+    projection.setMessageDeleter(p.isMessageDeleter)
+    projection.setIsLargePoster(p.getIsLargePoster)
+    projection.setMaxNumKnows(p.getMaxNumKnows)
+    projection.setBrowserId(p.getBrowserId)
+    projection.setIpAddress(p.getIpAddress)
+    projection.setCountryId(p.getCountryId)
+    projection.setInterests(p.getInterests)
+    projection.setMainInterest(p.getMainInterest)
+    projection.setUniversityLocationId(p.getUniversityLocationId)
+    projection.setRandomId(p.getRandomId)
+    projection
+  }
+
+  private def generateBlocks(
+      persons: RDD[Person],
+      ranker: SparkRanker,
+      conf: GeneratorConfiguration,
+      percentages: Seq[Float],
+      stepIndex: Int,
+      knowsGeneratorClassName: String
+  )(implicit spark: SparkSession): RDD[util.ArrayList[Person]] = {
+    val blockSize = DatagenParams.blockSize.toLong
+    val context   = ExecutorContext(conf)
 
     val percentagesJava = percentages.map(Float.box).asJava
 
-    indexed
-      .combineByKeyWithClassTag(
-        personByRank => SortedMap(personByRank),
-        (map: SortedMap[Long, Person], personByRank) => map + personByRank,
-        (a: SortedMap[Long, Person], b: SortedMap[Long, Person]) => a ++ b
-      )
+    ranker
+      .blocks(persons, blockSize)
       .mapPartitions(groups => {
-        DatagenContext.initialize(conf)
+        context.initialize()
         val knowsGeneratorClass = Class.forName(knowsGeneratorClassName)
         val knowsGenerator      = knowsGeneratorClass.getConstructor().newInstance().asInstanceOf[KnowsGenerator]
         knowsGenerator.initialize(conf)
         val personSimilarity = DatagenParams.getPersonSimularity
 
-        val personGroups = for { (block, persons) <- groups } yield {
-          val personList = new util.ArrayList[Person](persons.size)
-          for (p <- persons.values) { personList.add(p) }
+        for { (block, persons) <- groups } yield {
+          val personList = new util.ArrayList[Person](persons.persons.length)
+          for (p <- persons.persons) { personList.add(p) }
+          val start = PhaseProfiler.start()
           knowsGenerator.generateKnows(personList, block.toInt, percentagesJava, stepIndex, personSimilarity)
+          PhaseProfiler.stop(PhaseProfiler.Phase.KNOWS_BLOCK, start)
           personList
         }
-        for {
-          persons <- personGroups
-          person  <- persons.iterator().asScala
-        } yield person
       })
   }
 }
@@ -1,6 +1,7 @@
 package ldbc.snb.datagen.generator.generators
 
 import ldbc.snb.datagen.entities.dynamic.person.Person
+import ldbc.snb.datagen.entities.dynamic.relations.KnowsList
 import ldbc.snb.datagen.generator.FriendshipMerger
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.SparkSession
@@ -20,4 +21,17 @@ object SparkKnowsMerger {
         merged
       }
   }
+
+  /** Attaches the edges of all correlation dimensions to their persons, in a single shuffle. */
+  def join(persons: RDD[Person], edges: RDD[(Long, KnowsList)]*)(implicit spark: SparkSession): RDD[Person] = {
+    val unioned = edges
+      .foldLeft(spark.sparkContext.emptyRDD[(Long, KnowsList)]) { _ union _ }
+
+    persons
+      .map(p => (p.getAccountId, p))
+      .cogroup(unioned)
+      .flatMap { case (_, (ps, es)) =>
+        for { p <- ps } yield new FriendshipMerger().apply(p, es.asJava)
+      }
+  }
 }
@@ -1,7 +1,8 @@
 package ldbc.snb.datagen.generator.generators
 
 import ldbc.snb.datagen.entities.dynamic.person.Person
-import ldbc.snb.datagen.generator.{DatagenContext, DatagenParams}
+import ldbc.snb.datagen.generator.distribution.CumulativeBasedDegreeDistribution
+import ldbc.snb.datagen.generator.{DatagenParams, ExecutorContext}
 import ldbc.snb.datagen.util.GeneratorConfiguration
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.SparkSession
@@ -13,10 +14,25 @@ object SparkPersonGenerator {
   def apply(conf: GeneratorConfiguration, numPartitions: Option[Int] = None)(implicit spark: SparkSession): RDD[Person] = {
     val numBlocks = Math.ceil(DatagenParams.numPersons / DatagenParams.blockSize.toDouble).toInt
 
+    // cumulative degree distributions are computed once here rather than in every partition, and destroyed with
+    // the other broadcasts of the run, as the persons may be generated again while the run lasts
+    val cumulativeDegrees = DatagenParams.getDegreeDistribution match {
+      case d: CumulativeBasedDegreeDistribution =>
+        d.initialize(conf)
+        Some(ExecutorContext.broadcast(d.getCumulativeProbability))
+      case _ => None
+    }
+
+    val context = ExecutorContext(conf)
+
     val personPartitionGenerator = (blocks: Iterator[Long]) => {
-      DatagenContext.initialize(conf)
+      context.initialize()
 
-      val personGenerator = new PersonGenerator(conf, conf.get("generator.distribution.degreeDistribution"))
+      val personGenerator = new PersonGenerator(
+        conf,
+        conf.get("generator.distribution.degreeDistribution"),
+        cumulativeDegrees.map(_.value).orNull
+      )
 
       for {
         i <- blocks
@@ -1,21 +1,74 @@
 package ldbc.snb.datagen.generator.generators
 
 import ldbc.snb.datagen.entities.dynamic.person.Person
+import ldbc.snb.datagen.generator.DatagenParams
+import org.apache.spark.{Partitioner, RangePartitioner}
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.SparkSession
+import org.apache.spark.storage.StorageLevel
 
 import scala.collection.SortedMap
+import scala.collection.mutable.ArrayBuffer
 import scala.reflect.ClassTag
 
+/** The persons of a block in ascending rank order. */
+final case class SortedBlock(persons: Array[Person])
+
 trait SparkRanker {
   def apply(persons: RDD[Person]): RDD[(Long, Person)]
+
+  /** Unpersists the RDDs the rankings of this ranker persisted, once their blocks have been consumed. */
+  def unpersist(): Unit = ()
+
+  /**
+   * Groups the ranked persons into blocks of `blockSize` consecutive ranks, keyed by block id.
+   * Ranks are dense, so the reduce side places every person at `rank % blockSize` instead of sorting.
+   * Map-side combine is disabled as it would only copy buffers without shrinking the shuffle.
+   */
+  def blocks(persons: RDD[Person], blockSize: Long): RDD[(Long, SortedBlock)] = {
+    val indexed = apply(persons)
+      .map { case (k, v) => (k / blockSize, (k, v)) }
+
+    indexed
+      .combineByKeyWithClassTag(
+        (personByRank: (Long, Person)) => ArrayBuffer(personByRank),
+        (buffer: ArrayBuffer[(Long, Person)], personByRank: (Long, Person)) => buffer += personByRank,
+        (a: ArrayBuffer[(Long, Person)], b: ArrayBuffer[(Long, Person)]) => a ++= b,
+        Partitioner.defaultPartitioner(indexed),
+        mapSideCombine = false
+      )
+      .mapValues(buffer => {
+        val block = new Array[Person](buffer.size)
+        for { (rank, p) <- buffer } block((rank % blockSize).toInt) = p
+        SortedBlock(block)
+      })
+  }
 }
 
 object SparkRanker {
 
+  /** The RDDs persisted by a ranker, unpersisted together. */
+  private final class PersistedRDDs {
+    private val rdds = ArrayBuffer.empty[RDD[_]]
+
+    def apply[T](rdd: RDD[T], level: StorageLevel): RDD[T] = synchronized {
+      rdds += rdd.persist(level)
+      rdd
+    }
+
+    def unpersist(): Unit = synchronized {
+      for { rdd <- rdds } rdd.unpersist(blocking = false)
+      rdds.clear()
+    }
+  }
+
   def create[K: Ordering: ClassTag](by: Person => K)(implicit spark: SparkSession): SparkRanker = new SparkRanker {
+    private val persisted = new PersistedRDDs
+
+    override def unpersist(): Unit = persisted.unpersist()
+
     override def apply(persons: RDD[Person]): RDD[(Long, Person)] = {
-      val sortedPersons = persons.sortBy(by).cache()
+      val sortedPersons = persisted(persons.sortBy(by), StorageLevel.MEMORY_ONLY)
 
       // single count / partition. Assumed small enough to collect and broadcast
       val counts = sortedPersons
@@ -36,4 +89,95 @@ object SparkRanker {
       })
     }
   }
+
+  private final case class BlockFragment(offset: Long, complete: Boolean, persons: Array[Person])
+
+  /**
+   * A ranker that builds blocks with a single shuffle of the persons. The keys are range
+   * partitioned from a sample, and the exact size of every range is counted on the unshuffled
+   * input, which gives each reduce partition the global rank of its first person. Blocks that
+   * lie entirely inside one range are emitted as they are read. Only the few blocks straddling a
+   * range boundary are stitched together from their fragments with a second, small shuffle: the
+   * sampled bounds do not fall on block boundaries, and bounds that did would take exact quantiles,
+   * that is a sort of the keys before the shuffle. The ranges are sorted by the shuffle, which
+   * spills, as the persons of a block must be in key order.
+   *
+   * The input is read three times, to sample, count and shuffle it, so it is persisted unless it
+   * already is. It and the fragments stay persisted until [[SparkRanker.unpersist]]. The complete
+   * blocks are read from the persisted fragments, not from a shuffle, so these are kept serialized.
+   */
+  def rangePartitioned[K: Ordering: ClassTag](by: Person => K)(implicit spark: SparkSession): SparkRanker = new SparkRanker {
+    private val persisted = new PersistedRDDs
+
+    override def unpersist(): Unit = persisted.unpersist()
+
+    override def apply(persons: RDD[Person]): RDD[(Long, Person)] = {
+      val blockSize = DatagenParams.blockSize.toLong
+      blocks(persons, blockSize).flatMap { case (blockId, block) =>
+        for { (p, j) <- block.persons.iterator.zipWithIndex } yield (blockId * blockSize + j, p)
+      }
+    }
+
+    override def blocks(persons: RDD[Person], blockSize: Long): RDD[(Long, SortedBlock)] = {
+      // a local, so that the closures do not capture the ranker
+      val key = by
+      val keyed = {
+        val keyedPersons = persons.map(p => (key(p), p))
+        if (persons.getStorageLevel == StorageLevel.NONE) persisted(keyedPersons, StorageLevel.MEMORY_AND_DISK) else keyedPersons
+      }
+      val partitioner = new RangePartitioner(persons.getNumPartitions, keyed)
+      val numRanges   = partitioner.numPartitions
+
+      // exact number of persons in each range, computed on the keys only
+      val rangeSizes = keyed
+        .mapPartitions(ps => {
+          val sizes = new Array[Long](numRanges)
+          for { (k, _) <- ps } sizes(partitioner.getPartition(k)) += 1
+          Iterator(sizes)
+        })
+        .treeReduce((a, b) => { for (i <- a.indices) a(i) += b(i); a })
+
+      val offsets   = rangeSizes.scanLeft(0L)(_ + _)
+      val total     = offsets.last
+      val bcOffsets = spark.sparkContext.broadcast(offsets)
+
+      val fragments = keyed
+        .repartitionAndSortWithinPartitions(partitioner)
+        .mapPartitionsWithIndex((i, ps) => {
+          val start   = bcOffsets.value(i)
+          val end     = bcOffsets.value(i + 1)
+          val ordered = ps.map(_._2)
+          var rank    = start
+          new Iterator[(Long, BlockFragment)] {
+            override def hasNext: Boolean = rank < end
+
+            override def next(): (Long, BlockFragment) = {
+              val blockId     = rank / blockSize
+              val blockStart  = blockId * blockSize
+              val blockEnd    = Math.min(blockStart + blockSize, total)
+              val fragmentEnd = Math.min(blockEnd, end)
+              val fragment    = Array.fill((fragmentEnd - rank).toInt)(ordered.next())
+              val complete    = rank == blockStart && fragmentEnd == blockEnd
+              val result      = (blockId, BlockFragment(rank - blockStart, complete, fragment))
+              rank = fragmentEnd
+              result
+            }
+          }
+        })
+      // read twice, for the complete and the stitched blocks. Serialized, as the knows generators add edges to the
+      // persons of the blocks: every read, and every retry of a task, must start from persons without them.
+      persisted(fragments, StorageLevel.MEMORY_ONLY_SER)
+
+      val completeBlocks = fragments
+        .filter { case (_, f) => f.complete }
+        .mapValues(f => SortedBlock(f.persons))
+
+      val stitchedBlocks = fragments
+        .filter { case (_, f) => !f.complete }
+        .groupByKey()
+        .mapValues(fs => SortedBlock(fs.toArray.sortBy(_.offset).flatMap(_.persons)))
+
+      completeBlocks.union(stitchedBlocks)
+    }
+  }
 }
@@ -4,13 +4,10 @@ import ldbc.snb.datagen.entities.dynamic.Forum
 import ldbc.snb.datagen.entities.dynamic.messages.{Comment, Photo, Post}
 import ldbc.snb.datagen.entities.dynamic.relations.{ForumMembership, Like}
 import ldbc.snb.datagen.generator.dictionary.Dictionaries
-import ldbc.snb.datagen.generator.generators.{GenActivity, GenWall}
+import ldbc.snb.datagen.generator.generators.ActivitySink
 import ldbc.snb.datagen.io.raw.RecordOutputStream
 import ldbc.snb.datagen.model.raw
-import org.javatuples.{Pair, Triplet}
 
-import java.util.function.Consumer
-import java.util.stream.Stream
 import scala.collection.JavaConverters._
 
 class ActivityOutputStream(
@@ -23,42 +20,9 @@ class ActivityOutputStream(
     commentHasTagStream: RecordOutputStream[raw.CommentHasTag],
     personLikesPostStream: RecordOutputStream[raw.PersonLikesPost],
     personLikesCommentStream: RecordOutputStream[raw.PersonLikesComment]
-) extends RecordOutputStream[GenActivity] {
-  import ActivityOutputStream._
+) extends ActivitySink with AutoCloseable {
 
-  override def write(genActivity: GenActivity): Unit = {
-    writePostWall(genActivity.genWall)
-    for { group <- genActivity.genGroups } writePostWall(group)
-    writeAlbumWall(genActivity.genAlbums)
-  }
-
-  private def writePostWall(genWall: GenWall[Triplet[Post, Stream[Like], Stream[Pair[Comment, Stream[Like]]]]]): Unit = {
-    for { forum <- genWall.inner } {
-      writeForum(forum.getValue0)
-      for { forumMembership <- forum.getValue1 } writeForumMembership(forumMembership)
-      for { post            <- forum.getValue2 } {
-        writePost(post.getValue0)
-        for { like    <- post.getValue1 } writeLike(like)
-        for { comment <- post.getValue2 } {
-          writeComment(comment.getValue0)
-          for { like <- comment.getValue1 } writeLike(like)
-        }
-      }
-    }
-  }
-
-  private def writeAlbumWall(genAlbums: GenWall[Pair[Photo, Stream[Like]]]): Unit = {
-    for { forum <- genAlbums.inner } {
-      writeForum(forum.getValue0)
-      for { forumMembership <- forum.getValue1 } writeForumMembership(forumMembership)
-      for { photo           <- forum.getValue2 } {
-        writePhoto(photo.getValue0)
-        for { like <- photo.getValue1 } writeLike(like)
-      }
-    }
-  }
-
-  private def writeForum(forum: Forum): Unit = {
+  override def onForum(forum: Forum): Unit = {
     val rawForum = raw.Forum(
       forum.getCreationDate,
       forum.getDeletionDate,
@@ -76,7 +40,7 @@ class ActivityOutputStream(
     }
   }
 
-  private def writePost(post: Post): Unit = {
+  override def onPost(post: Post): Unit = {
     val rawPost = raw.Post(
       post.getCreationDate,
       post.getDeletionDate,
@@ -86,13 +50,15 @@ class ActivityOutputStream(
       post.getIpAddress.toString,
       Dictionaries.browsers.getName(post.getBrowserId),
       Some(Dictionaries.languages.getLanguageName(post.getLanguage)),
-      Some(post.getContent),
-      post.getContent.length,
+      None,
+      post.getContentLength,
       post.getAuthor.getAccountId,
       post.getForumId,
       post.getCountryId
     )
 
+    // written from the segments of the generated text rather than from a String built for the record
+    rawPost.contentText = post.getContentText
     postStream.write(rawPost)
 
     for { i <- post.getTags.iterator().asScala } {
@@ -100,7 +66,7 @@ class ActivityOutputStream(
     }
   }
 
-  private def writeComment(comment: Comment): Unit = {
+  override def onComment(comment: Comment): Unit = {
 
     val (root, parent) = if (comment.getParentMessageId == comment.getRootPostId) {
       (Some(comment.getParentMessageId), None)
@@ -115,14 +81,15 @@ class ActivityOutputStream(
       comment.getMessageId,
       comment.getIpAddress.toString,
       Dictionaries.browsers.getName(comment.getBrowserId),
-      comment.getContent,
-      comment.getContent.length,
+      null,
+      comment.getContentLength,
       comment.getAuthor.getAccountId,
       comment.getCountryId,
       root,
       parent
     )
 
+    rawComment.contentText = comment.getContentText
     commentStream.write(rawComment)
 
     for { i <- comment.getTags.iterator().asScala } {
@@ -130,7 +97,7 @@ class ActivityOutputStream(
     }
   }
 
-  private def writePhoto(photo: Photo): Unit = {
+  override def onPhoto(photo: Photo): Unit = {
     val rawPhoto = raw.Post(
       photo.getCreationDate,
       photo.getDeletionDate,
@@ -154,7 +121,7 @@ class ActivityOutputStream(
     }
   }
 
-  private def writeForumMembership(member: ForumMembership): Unit = {
+  override def onMembership(member: ForumMembership): Unit = {
 
     val rawForumMembership = raw.ForumHasMember(
       member.getCreationDate,
@@ -167,7 +134,7 @@ class ActivityOutputStream(
     forumHasMemberStream.write(rawForumMembership)
   }
 
-  private def writeLike(like: Like): Unit = {
+  override def onLike(like: Like): Unit = {
     like.getType match {
       case Like.LikeType.POST | Like.LikeType.PHOTO => {
         personLikesPostStream.write(
@@ -206,11 +173,3 @@ class ActivityOutputStream(
     personLikesCommentStream.close()
   }
 }
-
-object ActivityOutputStream {
-  implicit final class ScalaLoopSupportForJavaStream[A](val self: Stream[A]) extends AnyVal {
-    def foreach[U](fn: A => U): Unit = {
-      self.forEach(new Consumer[A] { override def accept(t: A): Unit = fn(t) })
-    }
-  }
-}
@@ -19,8 +19,8 @@ class PersonOutputStream(
 
   private def getGender(gender: Int): String = if (gender == 0) "female" else "male"
 
-  private def getLanguages(languages: util.List[Integer]): Seq[String] = {
-    languages.asScala.map(x => Dictionaries.languages.getLanguageName(x))
+  private def getLanguages(languages: Array[Int]): Seq[String] = {
+    languages.map(x => Dictionaries.languages.getLanguageName(x))
   }
 
   private def getEmail(emails: util.List[String]): Seq[String] = emails.asScala
@@ -46,7 +46,7 @@ class PersonOutputStream(
     val p = getPerson(person)
     personStream.write(p)
 
-    for (interestId <- person.getInterests.iterator().asScala) {
+    for (interestId <- person.getInterests) {
       val personHasInterestTag = raw.PersonHasInterestTag(
         person.getCreationDate,
         person.getDeletionDate,
@@ -81,14 +81,14 @@ class PersonOutputStream(
 
     val knows = person.getKnows
 
-    for (know <- knows.iterator().asScala) {
-      if (person.getAccountId < know.to.getAccountId) {
+    for (i <- 0 until knows.size) {
+      if (person.getAccountId < knows.targetId(i)) {
         val personKnowsPerson = raw.PersonKnowsPerson(
-          know.getCreationDate,
-          know.getDeletionDate,
-          know.isExplicitlyDeleted,
+          knows.creationDate(i),
+          knows.deletionDate(i),
+          knows.isExplicitlyDeleted(i),
           person.getAccountId,
-          know.to().getAccountId
+          knows.targetId(i)
         )
         personKnowsPersonStream.write(personKnowsPerson)
       }
@@ -1,117 +1,340 @@
 package ldbc.snb.datagen.generator.serializers
 
 import ldbc.snb.datagen.entities.dynamic.person.Person
-import ldbc.snb.datagen.generator.generators.{GenActivity, PersonActivityGenerator, SparkRanker}
-import ldbc.snb.datagen.generator.{DatagenContext, DatagenParams}
-import ldbc.snb.datagen.io.Writer
+import ldbc.snb.datagen.generator.generators.{ActivitySink, PersonActivityGenerator, SortedBlock, SparkRanker}
+import ldbc.snb.datagen.generator.{DatagenParams, ExecutorContext}
+import ldbc.snb.datagen.io.{EntityStatistics, OutputStatistics, Writer}
 import ldbc.snb.datagen.io.raw.csv.CsvRowEncoder
 import ldbc.snb.datagen.io.raw.parquet.ParquetRowEncoder
-import ldbc.snb.datagen.io.raw.{RawSerializationJobContext, RawSink, recordOutputStream}
+import ldbc.snb.datagen.io.raw.combinators.BufferedRecordOutputStream
+import ldbc.snb.datagen.io.raw.{EntityCounters, RawSerializationJobContext, RawSink, RecordOutputStream, WriteContext, recordOutputStream}
 import ldbc.snb.datagen.model.raw._
 import ldbc.snb.datagen.model.{EntityTraits, raw}
 import ldbc.snb.datagen.syntax._
-import ldbc.snb.datagen.util.Logging
+import ldbc.snb.datagen.util.{Logging, PhaseProfiler}
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.{FileSystem, Path}
 import org.apache.spark.rdd.RDD
 import org.apache.spark.sql.SparkSession
 
+import java.net.URI
 import java.util
 import java.util.function.Consumer
 import java.util.Collections
+import java.util.concurrent.{Callable, ExecutionException, Executors, ForkJoinPool, ForkJoinTask, Future}
+import scala.collection.mutable
 
 class RawSerializer(ranker: SparkRanker)(implicit spark: SparkSession) extends Writer[RawSink] with Logging {
+  import RawSerializer._
+
   override type Data = RDD[Person]
 
-  private def writeDynamicSubgraph(persons: RDD[Person], sink: RawSink): Unit = {
+  private def writeDynamicSubgraph(persons: RDD[Person], sink: RawSink): Map[String, EntityCounters] = {
 
-    val blockSize = DatagenParams.blockSize
-    val blocks = ranker(persons)
-      .map { case (k, v) => (k / blockSize, v) }
-      .groupByKey()
+    val blocks = ranker.blocks(persons, DatagenParams.blockSize.toLong)
 
-    val job = RawSerializationJobContext(persons.sparkContext.hadoopConfiguration, sink, "dynamic")
+    val job     = RawSerializationJobContext(persons.sparkContext.hadoopConfiguration, sink, "dynamic")
+    val context = ExecutorContext(sink.conf)
 
     job.run(blocks)((groups, wc) => {
-      DatagenContext.initialize(sink.conf)
-
-      def stream[T <: Product: EntityTraits: CsvRowEncoder: ParquetRowEncoder] =
-        recordOutputStream(sink, wc)
-
-      import ldbc.snb.datagen.io.raw.instances._
-      import ldbc.snb.datagen.model.raw.instances._
-      import ldbc.snb.datagen.util.sql._
-
-      val pos = new PersonOutputStream(
-        stream[raw.Person],
-        stream[raw.PersonKnowsPerson],
-        stream[raw.PersonHasInterestTag],
-        stream[raw.PersonStudyAtUniversity],
-        stream[raw.PersonWorkAtCompany]
-      )
-
-      val activityStream = new ActivityOutputStream(
-        stream[Forum],
-        stream[ForumHasTag],
-        stream[ForumHasMember],
-        stream[Post],
-        stream[PostHasTag],
-        stream[Comment],
-        stream[CommentHasTag],
-        stream[PersonLikesPost],
-        stream[PersonLikesComment]
-      )
-
-      val generator = new PersonActivityGenerator
-
-      (activityStream, pos) use { case (activityStream, pos) =>
-        for { (blockId, persons) <- groups } {
-          val personList = new util.ArrayList[Person](persons.size)
-          for (p <- persons) {
-            personList.add(p)
-          }
-          Collections.sort(personList)
-
-          personList.forEach(new Consumer[Person] {
-            override def accept(t: Person): Unit = pos.write(t)
-          })
-
-          val activities = generator.generateActivityForBlock(blockId.toInt, personList)
-
-          activities.forEach(new Consumer[GenActivity] {
-            override def accept(t: GenActivity): Unit = activityStream.write(t)
-          })
-        }
-      }
+      context.initialize()
+      writeDynamicPartition(groups, sink, wc)
     })
   }
 
-  private def writeStaticSubgraph(persons: RDD[Person], sink: RawSink): Unit = {
-    val job = RawSerializationJobContext(persons.sparkContext.hadoopConfiguration, sink, "static")
+  private def writeStaticSubgraph(persons: RDD[Person], sink: RawSink): Map[String, EntityCounters] = {
+    val job     = RawSerializationJobContext(persons.sparkContext.hadoopConfiguration, sink, "static")
+    val context = ExecutorContext(sink.conf)
     // we need to do this in an executor to get a TaskContext
     job.run(persons.sparkContext.parallelize(Seq(0), 1))((_, wc) => {
-      DatagenContext.initialize(sink.conf)
+      context.initialize()
+      writeStaticPartition(sink, wc)
+    })
+  }
+
+  override def write(self: RDD[Person], sink: RawSink): Unit = {
+    val dynamicCounters = writeDynamicSubgraph(self, sink)
+    val staticCounters  = writeStaticSubgraph(self, sink)
+    writeStatistics(sink, dynamicCounters ++ staticCounters, self.sparkContext.hadoopConfiguration)
+  }
+}
+
+object RawSerializer {
+
+  /** Writes the persons of the blocks of a partition of the dynamic subgraph, and generates their activity. */
+  def writeDynamicPartition(groups: Iterator[(Long, SortedBlock)], sink: RawSink, wc: WriteContext): Unit = {
+    def stream[T <: Product: EntityTraits: CsvRowEncoder: ParquetRowEncoder] =
+      recordOutputStream(sink, wc)
 
-      def stream[T <: Product: EntityTraits: CsvRowEncoder: ParquetRowEncoder] =
-        recordOutputStream(sink, wc)
+    import ldbc.snb.datagen.io.raw.instances._
+    import ldbc.snb.datagen.model.raw.instances._
+    import ldbc.snb.datagen.util.sql._
 
-      import ldbc.snb.datagen.io.raw.instances._
-      import ldbc.snb.datagen.model.raw.instances._
-      import ldbc.snb.datagen.util.sql._
+    val streams = DynamicStreams[RecordOutputStream](
+      stream[raw.Person],
+      stream[raw.PersonKnowsPerson],
+      stream[raw.PersonHasInterestTag],
+      stream[raw.PersonStudyAtUniversity],
+      stream[raw.PersonWorkAtCompany],
+      stream[Forum],
+      stream[ForumHasTag],
+      stream[ForumHasMember],
+      stream[Post],
+      stream[PostHasTag],
+      stream[Comment],
+      stream[CommentHasTag],
+      stream[PersonLikesPost],
+      stream[PersonLikesComment]
+    )
 
-      val staticStream = new StaticOutputStream(
-        stream[Place],
-        stream[Tag],
-        stream[TagClass],
-        stream[Organisation]
-      )
+    val numThreads = sink.conf.getInt("generator.activityThreads", 1)
+    val perPerson  = sink.conf.getBoolean("generator.perPersonActivity", false)
 
-      staticStream use {
-        _.write(StaticGraph)
+    // the block range of the task goes to its completion manifest
+    var firstBlock = -1L
+    var lastBlock  = -1L
+    var numBlocks  = 0L
+    val trackedGroups = groups.map { case group @ (blockId, _) =>
+      if (numBlocks == 0) firstBlock = blockId
+      lastBlock = blockId
+      numBlocks = numBlocks + 1
+      group
+    }
+
+    (streams.activityOutputStream, streams.personOutputStream) use { case (activityStream, pos) =>
+      if (perPerson) {
+        writePersonsConcurrently(trackedGroups, numThreads, pos, streams)
+      } else if (numThreads > 1) {
+        writeBlocksConcurrently(trackedGroups, numThreads, streams)
+      } else {
+        val generator = new PersonActivityGenerator
+        for { (blockId, block) <- trackedGroups } writeBlock(generator, pos, activityStream, blockId, block)
       }
+    }
+
+    wc.manifestInfo("blocks.first") = firstBlock.toString
+    wc.manifestInfo("blocks.last") = lastBlock.toString
+    wc.manifestInfo("blocks.count") = numBlocks.toString
+  }
+
+  /** Writes the static subgraph, which is the same for every partitioning. */
+  def writeStaticPartition(sink: RawSink, wc: WriteContext): Unit = {
+    def stream[T <: Product: EntityTraits: CsvRowEncoder: ParquetRowEncoder] =
+      recordOutputStream(sink, wc)
+
+    import ldbc.snb.datagen.io.raw.instances._
+    import ldbc.snb.datagen.model.raw.instances._
+    import ldbc.snb.datagen.util.sql._
+
+    val staticStream = new StaticOutputStream(
+      stream[Place],
+      stream[Tag],
+      stream[TagClass],
+      stream[Organisation]
+    )
+
+    staticStream use {
+      _.write(StaticGraph)
+    }
+  }
+
+  /** Writes the statistics of the raw entities, with their counters and the size of their files. */
+  def writeStatistics(sink: RawSink, counters: Map[String, EntityCounters], hadoopConf: Configuration): Unit = {
+    val outputDir = sink.conf.getOutputDir
+    val fs        = FileSystem.get(URI.create(outputDir), hadoopConf)
+    val entities  = for { (entityPath, n) <- counters.toSeq } yield {
+      val entity         = s"graphs/${sink.format.toString}/raw/composite-merged-fk/${entityPath}"
+      val (files, bytes) = OutputStatistics.filesAndBytes(fs, new Path(s"${outputDir}/${entity}"))
+      val writeMillis    = if (PhaseProfiler.isEnabled) Some(n.writeNanos / 1000000) else None
+      EntityStatistics(entity, files, bytes, Some(n.rows), writeMillis)
+    }
+    OutputStatistics.write(hadoopConf, outputDir, "generation", entities)
+  }
+
+  /** The record streams of the dynamic subgraph. */
+  private final case class DynamicStreams[S[X] <: RecordOutputStream[X]](
+      person: S[raw.Person],
+      personKnowsPerson: S[raw.PersonKnowsPerson],
+      personHasInterestTag: S[raw.PersonHasInterestTag],
+      personStudyAtUniversity: S[raw.PersonStudyAtUniversity],
+      personWorkAtCompany: S[raw.PersonWorkAtCompany],
+      forum: S[Forum],
+      forumHasTag: S[ForumHasTag],
+      forumHasMember: S[ForumHasMember],
+      post: S[Post],
+      postHasTag: S[PostHasTag],
+      comment: S[Comment],
+      commentHasTag: S[CommentHasTag],
+      personLikesPost: S[PersonLikesPost],
+      personLikesComment: S[PersonLikesComment]
+  ) {
+    def personOutputStream = new PersonOutputStream(
+      person,
+      personKnowsPerson,
+      personHasInterestTag,
+      personStudyAtUniversity,
+      personWorkAtCompany
+    )
+
+    def activityOutputStream = new ActivityOutputStream(
+      forum,
+      forumHasTag,
+      forumHasMember,
+      post,
+      postHasTag,
+      comment,
+      commentHasTag,
+      personLikesPost,
+      personLikesComment
+    )
+  }
+
+  private object DynamicStreams {
+    def buffered(): DynamicStreams[BufferedRecordOutputStream] = DynamicStreams[BufferedRecordOutputStream](
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream,
+      new BufferedRecordOutputStream
+    )
+
+    def replay(buffers: DynamicStreams[BufferedRecordOutputStream], target: DynamicStreams[RecordOutputStream]): Unit = {
+      buffers.person.writeTo(target.person)
+      buffers.personKnowsPerson.writeTo(target.personKnowsPerson)
+      buffers.personHasInterestTag.writeTo(target.personHasInterestTag)
+      buffers.personStudyAtUniversity.writeTo(target.personStudyAtUniversity)
+      buffers.personWorkAtCompany.writeTo(target.personWorkAtCompany)
+      buffers.forum.writeTo(target.forum)
+      buffers.forumHasTag.writeTo(target.forumHasTag)
+      buffers.forumHasMember.writeTo(target.forumHasMember)
+      buffers.post.writeTo(target.post)
+      buffers.postHasTag.writeTo(target.postHasTag)
+      buffers.comment.writeTo(target.comment)
+      buffers.commentHasTag.writeTo(target.commentHasTag)
+      buffers.personLikesPost.writeTo(target.personLikesPost)
+      buffers.personLikesComment.writeTo(target.personLikesComment)
+    }
+  }
+
+  /** The number of persons generated by a task of [[writePersonsConcurrently]]. */
+  private val PersonsPerTask = 16
+
+  /** Sorts the persons of a block and writes them. */
+  private def writePersons(pos: RecordOutputStream[Person], block: SortedBlock): util.List[Person] = {
+    val personList = new util.ArrayList[Person](block.persons.length)
+    for (p <- block.persons) {
+      personList.add(p)
+    }
+    Collections.sort(personList)
+
+    personList.forEach(new Consumer[Person] {
+      override def accept(t: Person): Unit = pos.write(t)
     })
+    personList
   }
 
-  override def write(self: RDD[Person], sink: RawSink): Unit = {
-    writeDynamicSubgraph(self, sink)
-    writeStaticSubgraph(self, sink)
+  private def writeBlock(
+      generator: PersonActivityGenerator,
+      pos: RecordOutputStream[Person],
+      activitySink: ActivitySink,
+      blockId: Long,
+      block: SortedBlock
+  ): Unit = {
+    val personList = writePersons(pos, block)
+    generator.generateActivityForBlock(blockId.toInt, personList, activitySink)
+  }
+
+  /**
+   * Generates the blocks of a partition on `numThreads` threads, each with its own activity generator.
+   * Every block is written to in-memory buffers, which are replayed into the task's streams in block order,
+   * so the output is the same as the one of the sequential path. At most `2 * numThreads` blocks are buffered.
+   */
+  private def writeBlocksConcurrently(
+      blocks: Iterator[(Long, SortedBlock)],
+      numThreads: Int,
+      target: DynamicStreams[RecordOutputStream]
+  ): Unit = {
+    val pool       = Executors.newFixedThreadPool(numThreads)
+    val generators = ThreadLocal.withInitial[PersonActivityGenerator](() => new PersonActivityGenerator)
+    val pending    = mutable.Queue.empty[Future[DynamicStreams[BufferedRecordOutputStream]]]
+    // the threads of the pool record to the phase counters of the task
+    val counters = PhaseProfiler.current()
+
+    def replayOldest(): Unit = {
+      val buffers =
+        try { pending.dequeue().get() }
+        catch { case e: ExecutionException => throw e.getCause }
+      DynamicStreams.replay(buffers, target)
+    }
+
+    try {
+      for { (blockId, block) <- blocks } {
+        pending.enqueue(pool.submit(new Callable[DynamicStreams[BufferedRecordOutputStream]] {
+          override def call(): DynamicStreams[BufferedRecordOutputStream] = {
+            PhaseProfiler.install(counters)
+            val buffers = DynamicStreams.buffered()
+            writeBlock(generators.get(), buffers.personOutputStream, buffers.activityOutputStream, blockId, block)
+            buffers
+          }
+        }))
+        if (pending.size >= 2 * numThreads) replayOldest()
+      }
+      while (pending.nonEmpty) replayOldest()
+    } finally {
+      pool.shutdownNow()
+    }
+  }
+
+  /**
+   * Generates the activity of every person on its own, so that a block is split into tasks of `PersonsPerTask`
+   * persons run on a fork/join pool of `numThreads` threads, and a block of persons with a lot of activity keeps
+   * all of them busy. The activity of every task is buffered and replayed into the task's streams in person order,
+   * so the output does not depend on the number of threads. At most `4 * numThreads` tasks are buffered.
+   */
+  private def writePersonsConcurrently(
+      blocks: Iterator[(Long, SortedBlock)],
+      numThreads: Int,
+      pos: RecordOutputStream[Person],
+      target: DynamicStreams[RecordOutputStream]
+  ): Unit = {
+    val pool       = new ForkJoinPool(numThreads)
+    val generators = ThreadLocal.withInitial[PersonActivityGenerator](() => new PersonActivityGenerator)
+    val pending    = mutable.Queue.empty[ForkJoinTask[DynamicStreams[BufferedRecordOutputStream]]]
+    // the threads of the pool record to the phase counters of the task
+    val counters = PhaseProfiler.current()
+
+    def replayOldest(): Unit = DynamicStreams.replay(pending.dequeue().join(), target)
+
+    try {
+      for { (blockId, block) <- blocks } {
+        val personList = writePersons(pos, block)
+        for { from <- 0 until personList.size by PersonsPerTask } {
+          val to = math.min(from + PersonsPerTask, personList.size)
+          pending.enqueue(pool.submit(new Callable[DynamicStreams[BufferedRecordOutputStream]] {
+            override def call(): DynamicStreams[BufferedRecordOutputStream] = {
+              PhaseProfiler.install(counters)
+              val buffers      = DynamicStreams.buffered()
+              val generator    = generators.get()
+              val activitySink = buffers.activityOutputStream
+              for { i <- from until to } generator.generateActivityForPerson(blockId.toInt, personList, i, activitySink)
+              buffers
+            }
+          }))
+          if (pending.size >= 4 * numThreads) replayOldest()
+        }
+      }
+      while (pending.nonEmpty) replayOldest()
+    } finally {
+      pool.shutdownNow()
+    }
   }
 }
@@ -0,0 +1,72 @@
+package ldbc.snb.datagen.io
+
+import ldbc.snb.datagen.syntax._
+import ldbc.snb.datagen.util.Logging
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.{FileSystem, Path}
+
+import java.net.URI
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+
+/**
+ * The size of the output of an entity.
+ *
+ * @param entity      The directory of the entity, relative to the output directory.
+ * @param rows        The rows written, when the stage counted them.
+ * @param writeMillis The time spent writing the entity, when the stage measured it.
+ */
+final case class EntityStatistics(entity: String, files: Long, bytes: Long, rows: Option[Long], writeMillis: Option[Long])
+
+/**
+ * Writes the statistics of the output of a stage to `_statistics/<stage>.json` in the output directory, so that the
+ * size of a scale factor can be looked up instead of scanning its files.
+ */
+object OutputStatistics extends Logging {
+
+  /** The number of files and bytes under a path, from the file system metadata. */
+  def filesAndBytes(fs: FileSystem, path: Path): (Long, Long) = {
+    if (!fs.exists(path)) (0L, 0L)
+    else {
+      val summary = fs.getContentSummary(path)
+      (summary.getFileCount, summary.getLength)
+    }
+  }
+
+  def write(hadoopConf: Configuration, outputDir: String, stage: String, entities: Seq[EntityStatistics]): Unit = {
+    val fs   = FileSystem.get(URI.create(outputDir), hadoopConf)
+    val path = new Path(s"${outputDir}/_statistics/${stage}.json")
+    fs.create(path, true) use { out => out.write(toJson(stage, entities.sortBy(_.entity)).getBytes(StandardCharsets.UTF_8)) }
+    log.info(s"Statistics of ${entities.length} entities written to ${path}")
+  }
+
+  /** `s` as a JSON string literal, quoted and escaped. */
+  private[datagen] def quote(s: String): String = {
+    val escaped = s.flatMap {
+      case '"'          => "\\\""
+      case '\\'         => "\\\\"
+      case c if c < ' ' => "\\u%04x".format(c.toInt)
+      case c            => c.toString
+    }
+    s""""${escaped}""""
+  }
+
+  private def toJson(stage: String, entities: Seq[EntityStatistics]): String = {
+    def optional(value: Option[Long]) = value.fold("null")(_.toString)
+    def total(values: Seq[Option[Long]]) = if (values.nonEmpty && values.forall(_.isDefined)) Some(values.flatten.sum) else None
+
+    val entries = entities.map { e =>
+      s"""    {"entity": ${quote(e.entity)}, "files": ${e.files}, "bytes": ${e.bytes}, "rows": ${optional(e.rows)}, "writeMillis": ${optional(e.writeMillis)}}"""
+    }
+
+    s"""{
+       |  "stage": ${quote(stage)},
+       |  "createdAt": ${quote(Instant.now().toString)},
+       |  "totals": {"files": ${entities.map(_.files).sum}, "bytes": ${entities.map(_.bytes).sum}, "rows": ${optional(total(entities.map(_.rows)))}},
+       |  "entities": [
+       |${entries.mkString(",\n")}
+       |  ]
+       |}
+       |""".stripMargin
+  }
+}
@@ -0,0 +1,103 @@
+package ldbc.snb.datagen.io
+
+import ldbc.snb.datagen.util.Logging
+import org.apache.hadoop.fs.{FileSystem, Path}
+import org.apache.spark.sql.{DataFrame, SparkSession}
+import org.apache.spark.sql.execution.QueryExecution
+import org.apache.spark.sql.execution.command.DataWritingCommandExec
+import org.apache.spark.sql.execution.datasources.InsertIntoHadoopFsRelationCommand
+import org.apache.spark.sql.util.QueryExecutionListener
+
+import java.net.URI
+import scala.collection.mutable
+import scala.util.DynamicVariable
+
+/**
+ * Collects the metrics of the DataFrame writes of a stage, the ones Spark shows for the write commands in the SQL
+ * tab: the files, bytes and rows written per output path, and the duration of the write. Spark delivers them to
+ * the listener after the write returns, so [[WriteStatisticsListener.write]] waits for the metrics of every write.
+ */
+final class WriteStatisticsListener extends QueryExecutionListener {
+  private val writes = mutable.Map.empty[String, EntityStatistics]
+
+  override def onSuccess(funcName: String, qe: QueryExecution, durationNs: Long): Unit = qe.executedPlan.foreach {
+    case DataWritingCommandExec(cmd: InsertIntoHadoopFsRelationCommand, _) =>
+      def metric(name: String) = cmd.metrics.get(name).fold(0L)(_.value)
+      // a write skipped because its output exists has no files, and its rows are unknown
+      val rows = if (metric("numFiles") > 0) Some(metric("numOutputRows")) else None
+      val path = cmd.outputPath.toString
+      synchronized {
+        writes(path) = EntityStatistics(path, metric("numFiles"), metric("numOutputBytes"), rows, Some(durationNs / 1000000))
+        notifyAll()
+      }
+    case _ =>
+  }
+
+  override def onFailure(funcName: String, qe: QueryExecution, exception: Exception): Unit = ()
+
+  /** Forgets the metrics of an earlier write to `path`, which is about to be written again. */
+  private def expect(path: String): Unit = synchronized { writes.remove(path) }
+
+  /** Waits until the metrics of the write to `path` are delivered, and returns whether they were in time. */
+  private def await(path: String, timeoutMillis: Long): Boolean = synchronized {
+    val deadline = System.currentTimeMillis() + timeoutMillis
+    var left     = timeoutMillis
+    while (!writes.contains(path) && left > 0) {
+      wait(left)
+      left = deadline - System.currentTimeMillis()
+    }
+    writes.contains(path)
+  }
+
+  /** The writes under the output directory, with the files and bytes on disk, relative to the directory. */
+  def statistics(fs: FileSystem, outputDir: String): Seq[EntityStatistics] = {
+    val root = fs.makeQualified(new Path(outputDir)).toString.stripSuffix("/") + "/"
+    for {
+      (path, written) <- synchronized { writes.toList }
+      if path.startsWith(root)
+    } yield {
+      val (files, bytes) = OutputStatistics.filesAndBytes(fs, new Path(path))
+      written.copy(entity = path.stripPrefix(root), files = files, bytes = bytes)
+    }
+  }
+}
+
+object WriteStatisticsListener extends Logging {
+  private val AwaitMillis = 60000L
+
+  // the listener of the stage whose writes are collected
+  private val current = new DynamicVariable[Option[WriteStatisticsListener]](None)
+
+  /** Runs the writes of a stage, and writes the statistics of the entities they wrote under `outputDir` once done. */
+  def collect[T](outputDir: String, stage: String)(writes: => T)(implicit spark: SparkSession): T = {
+    val listener = new WriteStatisticsListener
+    spark.listenerManager.register(listener)
+    val result =
+      try {
+        current.withValue(Some(listener)) { writes }
+      } finally {
+        spark.listenerManager.unregister(listener)
+      }
+
+    val hadoopConf = spark.sparkContext.hadoopConfiguration
+    val fs         = FileSystem.get(URI.create(outputDir), hadoopConf)
+    OutputStatistics.write(hadoopConf, outputDir, stage, listener.statistics(fs, outputDir))
+    result
+  }
+
+  /**
+   * Runs `save`, the write of `df` to `path`. While the statistics of a stage are collected, returns once the
+   * metrics of the write are recorded, so that every write of the stage is in its statistics.
+   */
+  def write(df: DataFrame, path: String)(save: => Unit): Unit = current.value match {
+    case None => save
+    case Some(listener) =>
+      val outputPath = new Path(path)
+      val qualified  = outputPath.getFileSystem(df.sparkSession.sparkContext.hadoopConfiguration).makeQualified(outputPath).toString
+      listener.expect(qualified)
+      save
+      if (!listener.await(qualified, AwaitMillis)) {
+        log.warn(s"The metrics of the write to ${qualified} were not delivered within ${AwaitMillis} ms, it is missing from the statistics")
+      }
+  }
+}
@@ -48,7 +48,7 @@ object dataframes {
 
   private object DataFrameWriter extends Writer[DataFrameSink] {
     override type Data = DataFrame
-    override def write(self: DataFrame, sink: DataFrameSink): Unit = {
+    override def write(self: DataFrame, sink: DataFrameSink): Unit = WriteStatisticsListener.write(self, sink.path) {
       self.write
         .partitionBy(sink.partitionBy: _*)
         .format(sink.format)
@@ -0,0 +1,48 @@
+package ldbc.snb.datagen.io.raw
+
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.permission.FsPermission
+import org.apache.hadoop.fs.{FSDataOutputStream, FileSystem, FilterFileSystem, Path}
+import org.apache.hadoop.util.Progressable
+
+import java.util.zip.{CRC32, CheckedOutputStream}
+
+/**
+ * A file system that computes the CRC32 of the files it creates while they are written, and passes their path,
+ * length and checksum to `onClose` when they are closed, so that the [[PartitionManifest]] of a task does not read
+ * its files back.
+ */
+private[raw] final class ChecksummingFileSystem(fs: FileSystem, onClose: (Path, Long, Long) => Unit) extends FilterFileSystem(fs) {
+  setConf(fs.getConf)
+
+  override def create(
+      f: Path,
+      permission: FsPermission,
+      overwrite: Boolean,
+      bufferSize: Int,
+      replication: Short,
+      blockSize: Long,
+      progress: Progressable
+  ): FSDataOutputStream = {
+    val out = super.create(f, permission, overwrite, bufferSize, replication, blockSize, progress)
+    val crc = new CRC32
+    val checked = new CheckedOutputStream(out, crc) {
+      override def close(): Unit = {
+        super.close()
+        onClose(f, out.getPos, crc.getValue)
+      }
+    }
+    new FSDataOutputStream(checked, statistics)
+  }
+
+  /**
+   * `path`, which opens the file system that checksums its files. For writers that create their files from a path,
+   * like Parquet's.
+   */
+  def checksummed(path: Path): Path = {
+    val checksumming = this
+    new Path(path.toUri) {
+      override def getFileSystem(conf: Configuration): FileSystem = checksumming
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package ldbc.snb.datagen.io.raw
+
+import org.apache.spark.util.AccumulatorV2
+
+import scala.collection.mutable
+
+/**
+ * The rows written to the record streams of an entity, and the nanoseconds spent encoding and writing them, which
+ * are only measured with `generator.profile`.
+ */
+final case class EntityCounters(rows: Long, writeNanos: Long) {
+  def +(other: EntityCounters): EntityCounters = EntityCounters(rows + other.rows, writeNanos + other.writeNanos)
+}
+
+object EntityCounters {
+  val Zero: EntityCounters = EntityCounters(0, 0)
+
+  def sum(counters: Iterable[Map[String, EntityCounters]]): Map[String, EntityCounters] =
+    counters.foldLeft(Map.empty[String, EntityCounters]) { (acc, c) =>
+      c.foldLeft(acc) { case (a, (entity, n)) => a.updated(entity, a.getOrElse(entity, Zero) + n) }
+    }
+}
+
+/** Sums the [[EntityCounters]] of the tasks of a raw serialization job per entity path. */
+final class EntityCountersAccumulator extends AccumulatorV2[(String, EntityCounters), Map[String, EntityCounters]] {
+  private val counters = mutable.TreeMap.empty[String, EntityCounters]
+
+  override def isZero: Boolean = counters.isEmpty
+
+  override def copy(): EntityCountersAccumulator = {
+    val other = new EntityCountersAccumulator
+    other.counters ++= counters
+    other
+  }
+
+  override def reset(): Unit = counters.clear()
+
+  override def add(v: (String, EntityCounters)): Unit = {
+    val (entity, n) = v
+    counters(entity) = counters.getOrElse(entity, EntityCounters.Zero) + n
+  }
+
+  override def merge(other: AccumulatorV2[(String, EntityCounters), Map[String, EntityCounters]]): Unit =
+    other.value.foreach(add)
+
+  override def value: Map[String, EntityCounters] = counters.toMap
+}
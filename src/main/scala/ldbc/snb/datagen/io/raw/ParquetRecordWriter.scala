@@ -0,0 +1,319 @@
+package ldbc.snb.datagen.io.raw
+
+import ldbc.snb.datagen.generator.dictionary.TagText
+import ldbc.snb.datagen.model.raw._
+import org.apache.parquet.io.api.{Binary, RecordConsumer}
+import org.apache.parquet.schema.MessageType
+import shapeless._
+
+/**
+ * Pushes the fields of a record one after the other into a Parquet RecordConsumer, the same way
+ * Spark's ParquetWriteSupport writes rows of the corresponding schema: absent options and null
+ * strings are left out, and strings are encoded as UTF-8 into a reused buffer.
+ */
+final class ParquetFieldSink(schema: MessageType) {
+  private[this] val names                    = Array.tabulate(schema.getFieldCount)(schema.getFieldName)
+  private[this] var consumer: RecordConsumer = _
+  private[this] var index                    = 0
+  private[this] var buffer                   = new Array[Byte](256)
+  private[this] var bytes                    = 0L
+  private[this] lazy val textBuffer          = new TextBuffer
+
+  /** The plain encoded size of the values added so far, an estimate of the uncompressed data of a file. */
+  def size: Long = bytes
+
+  def prepare(recordConsumer: RecordConsumer): Unit = consumer = recordConsumer
+
+  def startRecord(): Unit = {
+    consumer.startMessage()
+    index = 0
+  }
+
+  def endRecord(): Unit = consumer.endMessage()
+
+  private def startField(): Unit = consumer.startField(names(index), index)
+
+  private def endField(): Unit = {
+    consumer.endField(names(index), index)
+    index += 1
+  }
+
+  def empty(): Unit = index += 1
+
+  def long(value: Long): Unit = {
+    startField()
+    consumer.addLong(value)
+    bytes += 8
+    endField()
+  }
+
+  def int(value: Int): Unit = {
+    startField()
+    consumer.addInteger(value)
+    bytes += 4
+    endField()
+  }
+
+  def boolean(value: Boolean): Unit = {
+    startField()
+    consumer.addBoolean(value)
+    bytes += 1
+    endField()
+  }
+
+  def string(value: String): Unit = if (value eq null) empty() else encoded(value)
+
+  /** Adds the text of a message. Generated texts are encoded from their tag texts, without building them. */
+  def text(value: CharSequence): Unit = value match {
+    case t: TagText => encoded(textBuffer.copied(t))
+    case s          => string(if (s eq null) null else s.toString)
+  }
+
+  private def encoded(value: CharSequence): Unit = {
+    val maxLength = Utf8.maxEncodedLength(value)
+    if (maxLength > buffer.length) buffer = new Array[Byte](Math.max(maxLength, 2 * buffer.length))
+    val length = Utf8.encode(value, buffer, 0)
+    startField()
+    // the column writers copy the bytes they keep, as they do for Spark's UTF8Strings
+    consumer.addBinary(Binary.fromReusedByteArray(buffer, 0, length))
+    bytes += 4 + length
+    endField()
+  }
+
+  def stringOption(value: Option[String]): Unit = value match {
+    case Some(s) => string(s)
+    case None    => empty()
+  }
+
+  def longOption(value: Option[Long]): Unit = value match {
+    case Some(l) => long(l)
+    case None    => empty()
+  }
+
+  def intOption(value: Option[Int]): Unit = value match {
+    case Some(i) => int(i)
+    case None    => empty()
+  }
+}
+
+/** Writes the fields of a record, in schema order, to a ParquetFieldSink. */
+trait ParquetRecordWriter[T] {
+  def write(t: T, sink: ParquetFieldSink): Unit
+}
+
+trait LowPriorityParquetRecordWriters {
+
+  // derived for every case class of supported fields. Fields pass through a boxed HList, so the entities written
+  // in bulk have explicit instances in ParquetRecordWriterInstances.
+  implicit def caseClass[T <: Product, G <: HList](implicit gen: Generic.Aux[T, G], fields: Lazy[ParquetRecordWriter[G]]): ParquetRecordWriter[T] =
+    new ParquetRecordWriter[T] {
+      override def write(t: T, sink: ParquetFieldSink): Unit = fields.value.write(gen.to(t), sink)
+    }
+}
+
+object ParquetRecordWriter extends LowPriorityParquetRecordWriters {
+  def apply[T: ParquetRecordWriter]: ParquetRecordWriter[T] = implicitly[ParquetRecordWriter[T]]
+
+  sealed trait FieldWriter[A] {
+    def write(a: A, sink: ParquetFieldSink): Unit
+  }
+
+  object FieldWriter {
+    implicit object LongField extends FieldWriter[Long] {
+      override def write(a: Long, sink: ParquetFieldSink): Unit = sink.long(a)
+    }
+
+    implicit object IntField extends FieldWriter[Int] {
+      override def write(a: Int, sink: ParquetFieldSink): Unit = sink.int(a)
+    }
+
+    implicit object BooleanField extends FieldWriter[Boolean] {
+      override def write(a: Boolean, sink: ParquetFieldSink): Unit = sink.boolean(a)
+    }
+
+    implicit object StringField extends FieldWriter[String] {
+      override def write(a: String, sink: ParquetFieldSink): Unit = sink.string(a)
+    }
+
+    implicit def optionField[A](implicit inner: FieldWriter[A]): FieldWriter[Option[A]] = new FieldWriter[Option[A]] {
+      override def write(a: Option[A], sink: ParquetFieldSink): Unit = a match {
+        case Some(v) => inner.write(v, sink)
+        case None    => sink.empty()
+      }
+    }
+  }
+
+  implicit def hnil: ParquetRecordWriter[HNil] = new ParquetRecordWriter[HNil] {
+    override def write(t: HNil, sink: ParquetFieldSink): Unit = ()
+  }
+
+  implicit def hcons[H, T <: HList](implicit head: FieldWriter[H], tail: ParquetRecordWriter[T]): ParquetRecordWriter[H :: T] =
+    new ParquetRecordWriter[H :: T] {
+      override def write(t: H :: T, sink: ParquetFieldSink): Unit = {
+        head.write(t.head, sink)
+        tail.write(t.tail, sink)
+      }
+    }
+}
+
+trait ParquetRecordWriterInstances {
+  implicit object PersonParquetRecordWriter extends ParquetRecordWriter[Person] {
+    override def write(t: Person, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.id)
+      sink.string(t.firstName)
+      sink.string(t.lastName)
+      sink.string(t.gender)
+      sink.long(t.birthday)
+      sink.string(t.locationIP)
+      sink.string(t.browserUsed)
+      sink.int(t.`LocationCityId`)
+      sink.string(t.language)
+      sink.string(t.email)
+    }
+  }
+
+  implicit object PersonKnowsPersonParquetRecordWriter extends ParquetRecordWriter[PersonKnowsPerson] {
+    override def write(t: PersonKnowsPerson, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.`Person1Id`)
+      sink.long(t.`Person2Id`)
+    }
+  }
+
+  implicit object PersonHasInterestTagParquetRecordWriter extends ParquetRecordWriter[PersonHasInterestTag] {
+    override def write(t: PersonHasInterestTag, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`PersonId`)
+      sink.int(t.`TagId`)
+    }
+  }
+
+  implicit object PersonStudyAtUniversityParquetRecordWriter extends ParquetRecordWriter[PersonStudyAtUniversity] {
+    override def write(t: PersonStudyAtUniversity, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`PersonId`)
+      sink.long(t.`UniversityId`)
+      sink.int(t.classYear)
+    }
+  }
+
+  implicit object PersonWorkAtCompanyParquetRecordWriter extends ParquetRecordWriter[PersonWorkAtCompany] {
+    override def write(t: PersonWorkAtCompany, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`PersonId`)
+      sink.long(t.`CompanyId`)
+      sink.int(t.workFrom)
+    }
+  }
+
+  implicit object ForumParquetRecordWriter extends ParquetRecordWriter[Forum] {
+    override def write(t: Forum, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.id)
+      sink.string(t.title)
+      sink.long(t.`ModeratorPersonId`)
+    }
+  }
+
+  implicit object ForumHasMemberParquetRecordWriter extends ParquetRecordWriter[ForumHasMember] {
+    override def write(t: ForumHasMember, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.`ForumId`)
+      sink.long(t.`PersonId`)
+    }
+  }
+
+  implicit object ForumHasTagParquetRecordWriter extends ParquetRecordWriter[ForumHasTag] {
+    override def write(t: ForumHasTag, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`ForumId`)
+      sink.int(t.`TagId`)
+    }
+  }
+
+  implicit object PostParquetRecordWriter extends ParquetRecordWriter[Post] {
+    override def write(t: Post, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.id)
+      sink.stringOption(t.imageFile)
+      sink.string(t.locationIP)
+      sink.string(t.browserUsed)
+      sink.stringOption(t.language)
+      sink.text(t.contentText)
+      sink.int(t.length)
+      sink.long(t.`CreatorPersonId`)
+      sink.long(t.`ContainerForumId`)
+      sink.long(t.`LocationCountryId`)
+    }
+  }
+
+  implicit object PostHasTagParquetRecordWriter extends ParquetRecordWriter[PostHasTag] {
+    override def write(t: PostHasTag, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`PostId`)
+      sink.int(t.`TagId`)
+    }
+  }
+
+  implicit object CommentParquetRecordWriter extends ParquetRecordWriter[Comment] {
+    override def write(t: Comment, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.id)
+      sink.string(t.locationIP)
+      sink.string(t.browserUsed)
+      sink.text(t.contentText)
+      sink.int(t.length)
+      sink.long(t.`CreatorPersonId`)
+      sink.int(t.`LocationCountryId`)
+      sink.longOption(t.`ParentPostId`)
+      sink.longOption(t.`ParentCommentId`)
+    }
+  }
+
+  implicit object CommentHasTagParquetRecordWriter extends ParquetRecordWriter[CommentHasTag] {
+    override def write(t: CommentHasTag, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`CommentId`)
+      sink.int(t.`TagId`)
+    }
+  }
+
+  implicit object PersonLikesPostParquetRecordWriter extends ParquetRecordWriter[PersonLikesPost] {
+    override def write(t: PersonLikesPost, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.`PersonId`)
+      sink.long(t.`PostId`)
+    }
+  }
+
+  implicit object PersonLikesCommentParquetRecordWriter extends ParquetRecordWriter[PersonLikesComment] {
+    override def write(t: PersonLikesComment, sink: ParquetFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.`PersonId`)
+      sink.long(t.`CommentId`)
+    }
+  }
+}
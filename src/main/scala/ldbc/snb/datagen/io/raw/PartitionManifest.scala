@@ -0,0 +1,155 @@
+package ldbc.snb.datagen.io.raw
+
+import ldbc.snb.datagen.syntax._
+import ldbc.snb.datagen.util.Logging
+import org.apache.hadoop.fs.{FileSystem, Path}
+
+import java.nio.charset.StandardCharsets
+import java.security.MessageDigest
+import java.util.Properties
+import java.util.zip.CRC32
+import scala.collection.JavaConverters._
+
+/**
+ * The completion manifest of a task of a raw serialization job, written to `_manifests/part_<partition>.properties`
+ * of the job's output path once all the streams of the task are closed. It records the number of partitions of the
+ * job, a fingerprint of its configuration, the rows written and the write time per entity, the facts the task added
+ * to its [[WriteContext]], e.g. its block range, and the length and CRC32 of every file of the partition, which are
+ * computed while the files are written.
+ *
+ * Generation is deterministic per partition, so when a job is resumed the tasks whose manifest validates against
+ * the files on disk are skipped and only the missing or damaged partitions are generated again.
+ */
+object PartitionManifest extends Logging {
+
+  private val ManifestDir = "_manifests"
+
+  private def path(outputPath: String, partition: Int) = new Path(s"${outputPath}/${ManifestDir}/part_${partition}.properties")
+
+  private val PartitionFile     = """part_(\d+)_.*""".r
+  private val ManifestFile      = """part_(\d+)\.properties""".r
+
+  /** A digest of everything that changes the output of a job. */
+  def fingerprint(sink: RawSink): String = {
+    val digest = MessageDigest.getInstance("SHA-256")
+    digest.update(s"format=${sink.format}\noversizeFactor=${sink.oversizeFactor}\ntargetFileSize=${sink.targetFileSize}\n".getBytes(StandardCharsets.UTF_8))
+    for { (k, v) <- sink.conf.map.asScala.toSeq.sorted } digest.update(s"${k}=${v}\n".getBytes(StandardCharsets.UTF_8))
+    digest.digest().map("%02x".format(_)).mkString
+  }
+
+  /** The files written by the task of a partition, as `<entity>/<file>` relative to the output path, in name order. */
+  private def partitionFiles(fs: FileSystem, outputPath: String, partition: Int): Seq[String] = {
+    val files = Option(fs.globStatus(new Path(s"${outputPath}/*/part_${partition}_*"))).getOrElse(Array.empty)
+    files.filter(_.isFile).map(f => s"${f.getPath.getParent.getName}/${f.getPath.getName}").sorted
+  }
+
+  private def crc32(fs: FileSystem, file: Path): Long = {
+    val crc    = new CRC32
+    val buffer = new Array[Byte](1 << 16)
+    fs.open(file) use { in =>
+      var read = in.read(buffer)
+      while (read >= 0) {
+        crc.update(buffer, 0, read)
+        read = in.read(buffer)
+      }
+    }
+    crc.getValue
+  }
+
+  def write(fs: FileSystem, outputPath: String, partition: Int, numPartitions: Int, fingerprint: String, wc: WriteContext): Unit = {
+    val properties = new Properties
+    properties.setProperty("partition", partition.toString)
+    properties.setProperty("numPartitions", numPartitions.toString)
+    properties.setProperty("fingerprint", fingerprint)
+    for { (key, value) <- wc.manifestInfo } properties.setProperty(s"info.${key}", value)
+    for { (entity, n) <- wc.counters } {
+      properties.setProperty(s"rows.${entity}", n.rows.toString)
+      properties.setProperty(s"writeNanos.${entity}", n.writeNanos.toString)
+    }
+
+    val root  = new Path(outputPath)
+    val files = partitionFiles(fs, outputPath, partition)
+    properties.setProperty("files", files.length.toString)
+    for { (file, i) <- files.zipWithIndex } {
+      // a file not created through the output file system of the task is read back
+      val (length, checksum) = wc.writtenFiles.getOrElse(file, {
+        val absolute = new Path(root, file)
+        (fs.getFileStatus(absolute).getLen, crc32(fs, absolute))
+      })
+      properties.setProperty(s"file.${i}", s"${file} ${length} ${checksum}")
+    }
+
+    // the manifest is moved in place once complete, so a task that dies while writing it leaves none
+    val target    = path(outputPath, partition)
+    val temporary = new Path(target.getParent, s".${target.getName}.tmp")
+    fs.create(temporary, true) use { out => properties.store(out, s"partition ${partition} of ${numPartitions}") }
+    fs.delete(target, false)
+    if (!fs.rename(temporary, target)) throw new IllegalStateException(s"Could not write manifest ${target}")
+  }
+
+  def delete(fs: FileSystem, outputPath: String, partition: Int): Unit = fs.delete(path(outputPath, partition), false)
+
+  /**
+   * Deletes the files and the manifests of the partitions from `numPartitions` on, which a job resumed with fewer
+   * partitions than the interrupted one does not write again.
+   */
+  def deletePartitionsFrom(fs: FileSystem, outputPath: String, numPartitions: Int): Unit = {
+    def beyond(file: Path) = file.getName match {
+      case PartitionFile(partition)     => partition.toInt >= numPartitions
+      case ManifestFile(partition)      => file.getParent.getName == ManifestDir && partition.toInt >= numPartitions
+      case _                            => false
+    }
+    val files = Option(fs.globStatus(new Path(s"${outputPath}/*/part_*"))).getOrElse(Array.empty)
+    for { f <- files if f.isFile && beyond(f.getPath) } {
+      log.info(s"Deleting ${f.getPath}, which is beyond the ${numPartitions} partitions of the resumed job")
+      fs.delete(f.getPath, false)
+    }
+  }
+
+  /** The counters recorded in the manifest of a partition, for the statistics of a resumed job. */
+  def counters(fs: FileSystem, outputPath: String, partition: Int): Map[String, EntityCounters] = {
+    val properties = new Properties
+    fs.open(path(outputPath, partition)) use { in => properties.load(in) }
+    val entities = properties.stringPropertyNames.asScala.filter(_.startsWith("rows.")).map(_.stripPrefix("rows."))
+    entities.map { entity =>
+      entity -> EntityCounters(
+        properties.getProperty(s"rows.${entity}").toLong,
+        properties.getProperty(s"writeNanos.${entity}", "0").toLong
+      )
+    }.toMap
+  }
+
+  /**
+   * @return Whether the partition has a manifest of a job with the same partitioning and configuration, and its
+   *         files are the ones of the manifest, with the same lengths and checksums.
+   */
+  def isComplete(fs: FileSystem, outputPath: String, partition: Int, numPartitions: Int, fingerprint: String): Boolean = {
+    val manifestPath = path(outputPath, partition)
+    if (!fs.exists(manifestPath)) return false
+    val properties = new Properties
+    fs.open(manifestPath) use { in => properties.load(in) }
+
+    def mismatch(reason: String) = {
+      log.info(s"Partition ${partition} is generated again: ${reason}")
+      false
+    }
+
+    if (properties.getProperty("numPartitions") != numPartitions.toString) return mismatch("the number of partitions changed")
+    if (properties.getProperty("fingerprint") != fingerprint) return mismatch("the configuration changed")
+
+    val root     = new Path(outputPath)
+    val expected = (0 until properties.getProperty("files", "0").toInt).map(i => properties.getProperty(s"file.${i}"))
+    val actual   = partitionFiles(fs, outputPath, partition)
+    if (expected.map(_.split(' ')(0)) != actual) return mismatch("its files changed")
+    val changed = expected.map(_.split(' ')).find { case Array(file, length, checksum) =>
+      val absolute = new Path(root, file)
+      fs.getFileStatus(absolute).getLen != length.toLong || crc32(fs, absolute) != checksum.toLong
+    }
+    changed match {
+      case Some(Array(file, _, _)) => mismatch(s"the contents of ${file} changed")
+      case _ =>
+        log.info(s"Partition ${partition} is complete, it is not generated again")
+        true
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package ldbc.snb.datagen.io.raw
+
+import ldbc.snb.datagen.generator.dictionary.TagText
+
+import java.nio.CharBuffer
+
+/**
+ * Encodes strings as UTF-8 into caller-owned buffers. The result is the same as `getBytes(UTF_8)`,
+ * including the replacement of unpaired surrogates with '?'.
+ */
+private[raw] object Utf8 {
+
+  /** An upper bound of the encoded length of `s`: no char takes more than three bytes, surrogate pairs take four. */
+  def maxEncodedLength(s: CharSequence): Int = 3 * s.length
+
+  /** Encodes `s` at `offset`, which must have room for `maxEncodedLength(s)` bytes, and returns the new offset. */
+  def encode(s: CharSequence, buffer: Array[Byte], offset: Int): Int = {
+    val length   = s.length
+    var position = offset
+    var i        = 0
+    while (i < length) {
+      val c = s.charAt(i)
+      if (c < 0x80) {
+        buffer(position) = c.toByte
+        position += 1
+      } else if (c < 0x800) {
+        buffer(position) = (0xc0 | (c >> 6)).toByte
+        buffer(position + 1) = (0x80 | (c & 0x3f)).toByte
+        position += 2
+      } else if (Character.isSurrogate(c)) {
+        if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+          val cp = Character.toCodePoint(c, s.charAt(i + 1))
+          buffer(position) = (0xf0 | (cp >> 18)).toByte
+          buffer(position + 1) = (0x80 | ((cp >> 12) & 0x3f)).toByte
+          buffer(position + 2) = (0x80 | ((cp >> 6) & 0x3f)).toByte
+          buffer(position + 3) = (0x80 | (cp & 0x3f)).toByte
+          position += 4
+          i += 1
+        } else {
+          buffer(position) = '?'.toByte
+          position += 1
+        }
+      } else {
+        buffer(position) = (0xe0 | (c >> 12)).toByte
+        buffer(position + 1) = (0x80 | ((c >> 6) & 0x3f)).toByte
+        buffer(position + 2) = (0x80 | (c & 0x3f)).toByte
+        position += 3
+      }
+      i += 1
+    }
+    position
+  }
+}
+
+/**
+ * A reused buffer the generated texts of messages are copied to from their tag texts, so that they are encoded
+ * without being built as Strings. Not thread safe: every field sink owns its buffer.
+ */
+private[raw] final class TextBuffer {
+  private[this] var chars = new Array[Char](256)
+
+  /** The characters of `text`, valid until the next call. */
+  def copied(text: TagText): CharSequence = {
+    val length = text.length
+    if (length > chars.length) chars = new Array[Char](Math.max(length, 2 * chars.length))
+    text.getChars(0, length, chars, 0)
+    CharBuffer.wrap(chars, 0, length)
+  }
+}
@@ -1,23 +1,36 @@
 package ldbc.snb.datagen.io.raw
 
+import ldbc.snb.datagen.util.PhaseProfiler
+
+import scala.collection.mutable.ArrayBuffer
+
 object combinators {
 
+  /** A file of a batched stream, which knows the number of bytes it has written or buffered so far. */
+  trait BatchPart[T] extends RecordOutputStream[T] {
+    def size: Long
+  }
+
   trait MakeBatchPart[T] {
-    def apply(part: Int): RecordOutputStream[T]
+    def apply(part: Int): BatchPart[T]
     def exists(): Boolean
     def delete(): Unit
   }
 
-  final class FixedSizeBatchOutputStream[T](size: Long, makeBatchPart: MakeBatchPart[T]) extends RecordOutputStream[T] {
+  /** Writes to the parts of `makeBatchPart` in turn, and starts the next part once `isFull` holds for the current one. */
+  sealed abstract class RollingBatchOutputStream[T](makeBatchPart: MakeBatchPart[T]) extends RecordOutputStream[T] {
     private var written: Long           = 0
     private var currentBatchNumber: Int = 0
     private var currentBatch            = makeBatchPart(currentBatchNumber)
 
+    /** Whether a part with `written` records is complete. */
+    protected def isFull(part: BatchPart[T], written: Long): Boolean
+
     override def write(t: T): Unit = {
       if (currentBatch == null)
         throw new AssertionError("Stream already closed")
 
-      if (written >= size) {
+      if (isFull(currentBatch, written)) {
         currentBatch.close()
         currentBatchNumber = currentBatchNumber + 1
         currentBatch = makeBatchPart(currentBatchNumber)
@@ -36,6 +49,20 @@ object combinators {
     }
   }
 
+  /** Starts a new part every `size` records. */
+  final class FixedSizeBatchOutputStream[T](size: Long, makeBatchPart: MakeBatchPart[T]) extends RollingBatchOutputStream[T](makeBatchPart) {
+    override protected def isFull(part: BatchPart[T], written: Long): Boolean = written >= size
+  }
+
+  /**
+   * Starts a new part once the current one holds `targetBytes`, as reported by its `size`, so that the files of
+   * wide and narrow entities have about the same size. A part ends with the record that crosses the target.
+   */
+  final class ByteSizeBatchOutputStream[T](targetBytes: Long, makeBatchPart: MakeBatchPart[T]) extends RollingBatchOutputStream[T](makeBatchPart) {
+    // a part holds at least one record, even when its header alone is larger than the target
+    override protected def isFull(part: BatchPart[T], written: Long): Boolean = written > 0 && part.size >= targetBytes
+  }
+
   final class RoundRobinOutputStream[T](outputStreams: Seq[RecordOutputStream[T]]) extends RecordOutputStream[T] {
     private var current = 0
     private val n       = outputStreams.length
@@ -47,4 +74,55 @@ object combinators {
 
     override def close(): Unit = for { os <- outputStreams } os.close()
   }
+
+  /**
+   * Counts the records written to a stream and reports the count once it is closed. When `timed`, which it is with
+   * `generator.profile`, it also times the stream, encoding the records and writing the files, and reports the time
+   * as well, also as the row encoding phase of the [[PhaseProfiler]]. The time is 0 otherwise.
+   */
+  final class CountingRecordOutputStream[T](underlying: RecordOutputStream[T], onClose: EntityCounters => Unit, timed: Boolean = PhaseProfiler.isEnabled)
+      extends RecordOutputStream[T] {
+    private var count: Long    = 0
+    private var nanos: Long    = 0
+    private var maxNanos: Long = 0
+
+    override def write(t: T): Unit = {
+      if (timed) {
+        val start = System.nanoTime()
+        underlying.write(t)
+        val elapsed = System.nanoTime() - start
+        nanos = nanos + elapsed
+        maxNanos = math.max(maxNanos, elapsed)
+      } else {
+        underlying.write(t)
+      }
+      count = count + 1
+    }
+
+    override def close(): Unit = {
+      if (timed) {
+        val start = System.nanoTime()
+        underlying.close()
+        nanos = nanos + (System.nanoTime() - start)
+        PhaseProfiler.record(PhaseProfiler.Phase.ROW_ENCODING, count, nanos, maxNanos)
+      } else {
+        underlying.close()
+      }
+      onClose(EntityCounters(count, nanos))
+    }
+  }
+
+  /** Keeps the records in memory until they are replayed into another stream with `writeTo`. */
+  final class BufferedRecordOutputStream[T] extends RecordOutputStream[T] {
+    private val buffer = ArrayBuffer.empty[T]
+
+    override def write(t: T): Unit = buffer += t
+
+    def writeTo(target: RecordOutputStream[T]): Unit = {
+      for { t <- buffer } target.write(t)
+      buffer.clear()
+    }
+
+    override def close(): Unit = ()
+  }
 }
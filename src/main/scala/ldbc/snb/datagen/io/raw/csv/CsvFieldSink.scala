@@ -0,0 +1,171 @@
+package ldbc.snb.datagen.io.raw.csv
+
+import ldbc.snb.datagen.generator.dictionary.TagText
+import ldbc.snb.datagen.io.raw.{TextBuffer, Utf8}
+import ldbc.snb.datagen.util.formatter.DateFormatter
+
+import java.io.OutputStream
+import java.nio.charset.StandardCharsets
+
+/**
+ * A reusable UTF-8 buffer that CSV rows are encoded into field by field. Numbers, booleans and
+ * dates are formatted straight into the buffer, and strings are encoded without going through
+ * `getBytes`, so appending a row does not allocate. Separators are inserted between the fields
+ * of a row, and `endRow` terminates it with a newline.
+ *
+ * The output is the same as joining the `toString` of the fields with the separator and encoding
+ * the result as UTF-8.
+ * Not thread safe: every CsvRecordOutputStream owns its sink.
+ */
+final class CsvFieldSink(separator: String, initialCapacity: Int = 4096) {
+  import CsvFieldSink._
+
+  private[this] val separatorBytes = separator.getBytes(StandardCharsets.UTF_8)
+  private[this] var buffer         = new Array[Byte](Math.max(initialCapacity, 16))
+  private[this] var position       = 0
+  private[this] var fields         = 0
+
+  private[this] lazy val dateFormatter = new DateFormatter
+  private[this] lazy val textBuffer    = new TextBuffer
+
+  /** The number of bytes buffered. */
+  def size: Int = position
+
+  private def ensureCapacity(extra: Int): Unit = {
+    val required = position + extra
+    if (required > buffer.length) {
+      buffer = java.util.Arrays.copyOf(buffer, Math.max(required, buffer.length * 2))
+    }
+  }
+
+  /** Starts a new field with room for `length` more bytes. */
+  private def beginField(length: Int): Unit = {
+    ensureCapacity(length + separatorBytes.length)
+    if (fields > 0) {
+      System.arraycopy(separatorBytes, 0, buffer, position, separatorBytes.length)
+      position += separatorBytes.length
+    }
+    fields += 1
+  }
+
+  private def put(b: Int): Unit = {
+    buffer(position) = b.toByte
+    position += 1
+  }
+
+  private def putDigits(value: Long, digits: Int): Unit = {
+    var n = value
+    var i = position + digits
+    while (i > position) {
+      i -= 1
+      buffer(i) = ('0' + (n % 10)).toByte
+      n /= 10
+    }
+    position += digits
+  }
+
+  def empty(): Unit = beginField(0)
+
+  def long(value: Long): Unit = {
+    if (value == Long.MinValue) {
+      string(java.lang.Long.toString(value))
+    } else {
+      val magnitude = Math.abs(value)
+      val digits    = numDigits(magnitude)
+      beginField(digits + 1)
+      if (value < 0) put('-'.toInt)
+      putDigits(magnitude, digits)
+    }
+  }
+
+  def int(value: Int): Unit = long(value.toLong)
+
+  def boolean(value: Boolean): Unit = {
+    val bytes = if (value) True else False
+    beginField(bytes.length)
+    System.arraycopy(bytes, 0, buffer, position, bytes.length)
+    position += bytes.length
+  }
+
+  def string(value: String): Unit = encoded(if (value eq null) "null" else value)
+
+  /** Appends the text of a message. Generated texts are encoded from their tag texts, without building them. */
+  def text(value: CharSequence): Unit = value match {
+    case t: TagText => encoded(textBuffer.copied(t))
+    case s          => string(if (s eq null) null else s.toString)
+  }
+
+  private def encoded(s: CharSequence): Unit = {
+    beginField(Utf8.maxEncodedLength(s))
+    position = Utf8.encode(s, buffer, position)
+  }
+
+  def stringOption(value: Option[String]): Unit = value match {
+    case Some(s) => string(s)
+    case None    => empty()
+  }
+
+  def longOption(value: Option[Long]): Unit = value match {
+    case Some(l) => long(l)
+    case None    => empty()
+  }
+
+  def intOption(value: Option[Int]): Unit = value match {
+    case Some(i) => int(i)
+    case None    => empty()
+  }
+
+  /** Appends the GMT date of `epochMillis` as yyyy-MM-dd, like DateFormatter.formatDate. */
+  def date(epochMillis: Long): Unit = {
+    // days to civil date, see http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+    val z          = Math.floorDiv(epochMillis, MillisPerDay) + 719468
+    val era        = Math.floorDiv(z, 146097L)
+    val dayOfEra   = z - era * 146097
+    val yearOfEra  = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365
+    val dayOfYear  = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100)
+    val monthIndex = (5 * dayOfYear + 2) / 153
+    val day        = dayOfYear - (153 * monthIndex + 2) / 5 + 1
+    val month      = if (monthIndex < 10) monthIndex + 3 else monthIndex - 9
+    val year       = yearOfEra + era * 400 + (if (month <= 2) 1 else 0)
+
+    if (year < 1 || year > 9999) {
+      string(dateFormatter.formatDate(epochMillis))
+    } else {
+      beginField(10)
+      putDigits(year, 4)
+      put('-'.toInt)
+      putDigits(month, 2)
+      put('-'.toInt)
+      putDigits(day, 2)
+    }
+  }
+
+  /** Terminates the current row. */
+  def endRow(): Unit = {
+    ensureCapacity(1)
+    put('\n'.toInt)
+    fields = 0
+  }
+
+  /** Writes the buffered rows to `out` and clears the buffer. */
+  def writeTo(out: OutputStream): Unit = {
+    out.write(buffer, 0, position)
+    position = 0
+  }
+}
+
+object CsvFieldSink {
+  private val True         = "true".getBytes(StandardCharsets.US_ASCII)
+  private val False        = "false".getBytes(StandardCharsets.US_ASCII)
+  private val MillisPerDay = 86400000L
+
+  private def numDigits(n: Long): Int = {
+    var digits = 1
+    var bound  = 10L
+    while (digits < 19 && n >= bound) {
+      digits += 1
+      bound *= 10
+    }
+    digits
+  }
+}
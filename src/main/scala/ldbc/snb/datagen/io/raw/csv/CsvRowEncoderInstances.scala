@@ -30,6 +30,22 @@ trait CsvRowEncoderInstances {
       person.`language`,
       person.`email`
     )
+
+    override def writeTo(person: Person, sink: CsvFieldSink): Unit = {
+      sink.long(person.creationDate)
+      sink.long(person.deletionDate)
+      sink.boolean(person.explicitlyDeleted)
+      sink.long(person.id)
+      sink.string(person.firstName)
+      sink.string(person.lastName)
+      sink.string(person.gender)
+      sink.date(person.birthday)
+      sink.string(person.`locationIP`)
+      sink.string(person.`browserUsed`)
+      sink.int(person.`LocationCityId`)
+      sink.string(person.`language`)
+      sink.string(person.`email`)
+    }
   }
 
   implicit object PersonKnowsPersonCsvRowEncoder extends CsvRowEncoderWithAutoHeader[PersonKnowsPerson] {
@@ -40,6 +56,14 @@ trait CsvRowEncoderInstances {
       t.`Person1Id`.toString,
       t.`Person2Id`.toString
     )
+
+    override def writeTo(t: PersonKnowsPerson, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.`Person1Id`)
+      sink.long(t.`Person2Id`)
+    }
   }
 
   implicit object PersonHasInterestCsvRowEncoder extends CsvRowEncoderWithAutoHeader[PersonHasInterestTag] {
@@ -49,6 +73,13 @@ trait CsvRowEncoderInstances {
       t.`PersonId`.toString,
       t.`TagId`.toString
     )
+
+    override def writeTo(t: PersonHasInterestTag, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`PersonId`)
+      sink.int(t.`TagId`)
+    }
   }
 
   implicit object PersonStudyAtUniversityCsvRowEncoder extends CsvRowEncoderWithAutoHeader[PersonStudyAtUniversity] {
@@ -59,6 +90,14 @@ trait CsvRowEncoderInstances {
       t.UniversityId.toString,
       t.classYear.toString
     )
+
+    override def writeTo(t: PersonStudyAtUniversity, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.PersonId)
+      sink.long(t.UniversityId)
+      sink.int(t.classYear)
+    }
   }
 
   implicit object PersonWorkAtCompanyEncoder extends CsvRowEncoderWithAutoHeader[PersonWorkAtCompany] {
@@ -69,6 +108,14 @@ trait CsvRowEncoderInstances {
       t.CompanyId.toString,
       t.workFrom.toString
     )
+
+    override def writeTo(t: PersonWorkAtCompany, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.PersonId)
+      sink.long(t.CompanyId)
+      sink.int(t.workFrom)
+    }
   }
 
   implicit object ForumEncoder extends CsvRowEncoderWithAutoHeader[Forum] {
@@ -81,6 +128,15 @@ trait CsvRowEncoderInstances {
         t.title,
         t.`ModeratorPersonId`.toString
       )
+
+    override def writeTo(t: Forum, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.id)
+      sink.string(t.title)
+      sink.long(t.`ModeratorPersonId`)
+    }
   }
 
   implicit object ForumHasTagEncoder extends CsvRowEncoderWithAutoHeader[ForumHasTag] {
@@ -90,6 +146,13 @@ trait CsvRowEncoderInstances {
       t.`ForumId`.toString,
       t.`TagId`.toString
     )
+
+    override def writeTo(t: ForumHasTag, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`ForumId`)
+      sink.int(t.`TagId`)
+    }
   }
 
   implicit object PostEncoder extends CsvRowEncoderWithAutoHeader[Post] {
@@ -102,12 +165,28 @@ trait CsvRowEncoderInstances {
       t.locationIP,
       t.browserUsed,
       t.language.fold("")(_.toString),
-      t.content.fold("")(_.toString),
+      Option(t.contentText).fold("")(_.toString),
       t.length.toString,
       t.`CreatorPersonId`.toString,
       t.`ContainerForumId`.toString,
       t.`LocationCountryId`.toString
     )
+
+    override def writeTo(t: Post, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.id)
+      sink.stringOption(t.imageFile)
+      sink.string(t.locationIP)
+      sink.string(t.browserUsed)
+      sink.stringOption(t.language)
+      if (t.contentText eq null) sink.empty() else sink.text(t.contentText)
+      sink.int(t.length)
+      sink.long(t.`CreatorPersonId`)
+      sink.long(t.`ContainerForumId`)
+      sink.long(t.`LocationCountryId`)
+    }
   }
 
   implicit object PostHasTagEncoder extends CsvRowEncoderWithAutoHeader[PostHasTag] {
@@ -117,6 +196,13 @@ trait CsvRowEncoderInstances {
       t.`PostId`.toString,
       t.`TagId`.toString
     )
+
+    override def writeTo(t: PostHasTag, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`PostId`)
+      sink.int(t.`TagId`)
+    }
   }
 
   implicit object CommentEncoder extends CsvRowEncoderWithAutoHeader[Comment] {
@@ -127,13 +213,28 @@ trait CsvRowEncoderInstances {
       t.id.toString,
       t.locationIP,
       t.browserUsed,
-      t.`content`,
+      String.valueOf(t.contentText),
       t.length.toString,
       t.`CreatorPersonId`.toString,
       t.`LocationCountryId`.toString,
       t.`ParentPostId`.fold("")(_.toString),
       t.`ParentCommentId`.fold("")(_.toString)
     )
+
+    override def writeTo(t: Comment, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.boolean(t.explicitlyDeleted)
+      sink.long(t.id)
+      sink.string(t.locationIP)
+      sink.string(t.browserUsed)
+      sink.text(t.contentText)
+      sink.int(t.length)
+      sink.long(t.`CreatorPersonId`)
+      sink.int(t.`LocationCountryId`)
+      sink.longOption(t.`ParentPostId`)
+      sink.longOption(t.`ParentCommentId`)
+    }
   }
 
   implicit object CommentHasTagEncoder extends CsvRowEncoderWithAutoHeader[CommentHasTag] {
@@ -143,6 +244,13 @@ trait CsvRowEncoderInstances {
       t.`CommentId`.toString,
       t.`TagId`.toString
     )
+
+    override def writeTo(t: CommentHasTag, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`CommentId`)
+      sink.int(t.`TagId`)
+    }
   }
 
   implicit object ForumHasMemberEncoder extends CsvRowEncoderWithAutoHeader[ForumHasMember] {
@@ -152,6 +260,13 @@ trait CsvRowEncoderInstances {
       t.`ForumId`.toString,
       t.`PersonId`.toString
     )
+
+    override def writeTo(t: ForumHasMember, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`ForumId`)
+      sink.long(t.`PersonId`)
+    }
   }
 
   implicit object PersonLikesPostEncoder extends CsvRowEncoderWithAutoHeader[PersonLikesPost] {
@@ -161,6 +276,13 @@ trait CsvRowEncoderInstances {
       t.`PersonId`.toString,
       t.`PostId`.toString
     )
+
+    override def writeTo(t: PersonLikesPost, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`PersonId`)
+      sink.long(t.`PostId`)
+    }
   }
 
   implicit object PersonLikesCommentEncoder extends CsvRowEncoderWithAutoHeader[PersonLikesComment] {
@@ -170,6 +292,13 @@ trait CsvRowEncoderInstances {
       t.`PersonId`.toString,
       t.`CommentId`.toString
     )
+
+    override def writeTo(t: PersonLikesComment, sink: CsvFieldSink): Unit = {
+      sink.long(t.creationDate)
+      sink.long(t.deletionDate)
+      sink.long(t.`PersonId`)
+      sink.long(t.`CommentId`)
+    }
   }
 
   implicit object PlaceEncoder extends CsvRowEncoderWithAutoHeader[Place] {
@@ -1,6 +1,6 @@
 package ldbc.snb.datagen.io.raw
 
-import ldbc.snb.datagen.io.raw.combinators.MakeBatchPart
+import ldbc.snb.datagen.io.raw.combinators.{BatchPart, MakeBatchPart}
 import org.apache.hadoop.fs.Path
 
 import java.io.OutputStream
@@ -10,6 +10,9 @@ package object csv {
   trait CsvRowEncoder[T] {
     def row(t: T): Seq[String]
     def header: Seq[String]
+
+    /** Appends the fields of `t` to the current row of `sink`. Defaults to the fields returned by `row`. */
+    def writeTo(t: T, sink: CsvFieldSink): Unit = for { field <- row(t) } sink.string(field)
   }
   object CsvRowEncoder {
     def apply[T: CsvRowEncoder]: CsvRowEncoder[T] = implicitly[CsvRowEncoder[T]]
@@ -20,34 +23,70 @@ package object csv {
       separator: String = "|",
       charset: Charset = StandardCharsets.UTF_8,
       writeHeader: Boolean = true
-  ) extends RecordOutputStream[T] {
-    private val buffer  = new StringBuilder
+  ) extends BatchPart[T] {
     private val encoder = implicitly[CsvRowEncoder[T]]
 
-    if (writeHeader)
-      writeEntry(encoder.header)
+    // the bytes written to the output stream, the buffered ones are added by size
+    private var flushed: Long = 0
+
+    // rows are encoded straight to bytes unless another charset is asked for
+    private val sink   = if (charset == StandardCharsets.UTF_8) new CsvFieldSink(separator) else null
+    private val buffer = if (sink eq null) new StringBuilder else null
+
+    if (writeHeader) {
+      if (sink eq null) writeEntry(encoder.header)
+      else {
+        for { field <- encoder.header } sink.string(field)
+        endRow()
+      }
+    }
 
     private def writeEntry(entry: Seq[String]) = {
       buffer.setLength(0)
       entry.addString(buffer, separator)
       buffer ++= "\n"
-      outputStream.write(buffer.mkString.getBytes(charset))
+      val bytes = buffer.mkString.getBytes(charset)
+      outputStream.write(bytes)
+      flushed = flushed + bytes.length
+    }
+
+    private def endRow(): Unit = {
+      sink.endRow()
+      if (sink.size >= FlushThreshold) flush()
     }
 
-    override def write(t: T): Unit = writeEntry(encoder.row(t))
+    private def flush(): Unit = {
+      flushed = flushed + sink.size
+      sink.writeTo(outputStream)
+    }
+
+    override def size: Long = if (sink eq null) flushed else flushed + sink.size
+
+    override def write(t: T): Unit = {
+      if (sink eq null) writeEntry(encoder.row(t))
+      else {
+        encoder.writeTo(t, sink)
+        endRow()
+      }
+    }
 
-    override def close(): Unit = outputStream.close()
+    override def close(): Unit = {
+      if (sink ne null) flush()
+      outputStream.close()
+    }
   }
 
+  private val FlushThreshold = 65536
+
   final class MakeCsvBatchPart[T <: Product: CsvRowEncoder](pathPrefix: String, writeContext: WriteContext) extends MakeBatchPart[T] {
-    private val partitionId = writeContext.taskContext.partitionId()
+    private val partitionId = writeContext.partitionId
     private val extension   = ".csv"
 
     def apply(part: Int) = {
-      val partitionId = writeContext.taskContext.partitionId()
+      val partitionId = writeContext.partitionId
       val extension   = ".csv"
       val path        = new Path(s"${pathPrefix}/part_${partitionId}_${part}${extension}")
-      new CsvRecordOutputStream[T](writeContext.fileSystem.create(path, true, 131072))
+      new CsvRecordOutputStream[T](writeContext.outputFileSystem.create(path, true, 131072))
     }
 
     override def exists(): Boolean = {
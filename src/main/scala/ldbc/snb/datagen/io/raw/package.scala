@@ -1,6 +1,6 @@
 package ldbc.snb.datagen.io
 
-import ldbc.snb.datagen.io.raw.combinators.FixedSizeBatchOutputStream
+import ldbc.snb.datagen.io.raw.combinators.{ByteSizeBatchOutputStream, CountingRecordOutputStream, FixedSizeBatchOutputStream}
 import ldbc.snb.datagen.io.raw.csv.{CsvRowEncoder, MakeCsvBatchPart}
 import ldbc.snb.datagen.io.raw.parquet.{MakeParquetBatchPart, ParquetRowEncoder}
 import ldbc.snb.datagen.model.EntityTraits
@@ -21,6 +21,7 @@ import org.apache.spark.util.SerializableConfiguration
 import java.net.URI
 import java.text.SimpleDateFormat
 import java.util.{Date, Locale, UUID}
+import scala.collection.mutable
 
 package object raw {
   trait RecordOutputStream[T] extends AutoCloseable {
@@ -36,15 +37,50 @@ package object raw {
       partitions: Option[Int] = None,
       conf: GeneratorConfiguration,
       oversizeFactor: Option[Double] = None,
-      overwrite: Boolean = false
+      overwrite: Boolean = false,
+      resume: Boolean = false,
+      targetFileSize: Option[Long] = None
   )
 
   class WriteContext(
-      val taskContext: TaskContext,
+      val partitionId: Int,
       val taskAttemptContext: TaskAttemptContext,
       val hadoopConf: Configuration,
       val fileSystem: FileSystem
-  )
+  ) {
+
+    /** The rows written and the time spent writing them per entity path, recorded in the [[PartitionManifest]] of the task. */
+    val counters: mutable.Map[String, EntityCounters] = mutable.TreeMap.empty
+
+    /** Other facts about the task recorded in its [[PartitionManifest]], e.g. the blocks it generated. */
+    val manifestInfo: mutable.Map[String, String] = mutable.TreeMap.empty
+
+    /** The length and CRC32 of the files written through `outputFileSystem`, as `<entity>/<file>`, for the [[PartitionManifest]]. */
+    val writtenFiles: mutable.Map[String, (Long, Long)] = mutable.TreeMap.empty
+
+    /** The file system the output files are created with, which checksums them as they are written. */
+    lazy val outputFileSystem: ChecksummingFileSystem = new ChecksummingFileSystem(
+      fileSystem,
+      (path, length, crc) => writtenFiles.synchronized { writtenFiles(s"${path.getParent.getName}/${path.getName}") = (length, crc) }
+    )
+  }
+
+  object WriteContext {
+
+    /** The context of a partition written outside of a Spark task, e.g. by the [[ldbc.snb.datagen.generator.LocalEngine]]. */
+    def local(partitionId: Int, conf: Configuration, fs: FileSystem): WriteContext = {
+      // the attempt context and the parquet writers set their properties on the configuration
+      val taskConf      = new Configuration(conf)
+      val jobId         = new JobID("local", 0)
+      val taskAttemptId = new TaskAttemptID(new TaskID(jobId, TaskType.MAP, partitionId), 0)
+      taskConf.set("mapreduce.job.id", jobId.toString)
+      taskConf.set("mapreduce.task.id", taskAttemptId.getTaskID.toString)
+      taskConf.set("mapreduce.task.attempt.id", taskAttemptId.toString)
+      taskConf.setBoolean("mapreduce.task.ismap", true)
+      taskConf.setInt("mapreduce.task.partition", 0)
+      new WriteContext(partitionId, new TaskAttemptContextImpl(taskConf, taskAttemptId), taskConf, fs)
+    }
+  }
 
   // See org.apache.parquet.hadoop.metadata.CompressionCodecName for other options. Note that not all are
   // supported by Spark.
@@ -54,7 +90,6 @@ package object raw {
 
   def recordOutputStream[T <: Product: EntityTraits: CsvRowEncoder: ParquetRowEncoder](sink: RawSink, writeContext: WriteContext): RecordOutputStream[T] = {
     val et                           = EntityTraits[T]
-    val size                         = (DefaultBatchSize * sink.oversizeFactor.getOrElse(1.0)).toLong
     implicit val encoder: Encoder[T] = ParquetRowEncoder[T].encoder
     val entityPath                   = et.`type`.entityPath
     val pathPrefix                   = s"${sink.conf.getOutputDir}/graphs/${sink.format.toString}/raw/composite-merged-fk/${entityPath}"
@@ -65,7 +100,15 @@ package object raw {
       case x       => throw new UnsupportedOperationException(s"Raw serializer not implemented for format ${x}")
     }
     makeBatchPart.delete()
-    new FixedSizeBatchOutputStream[T](size, makeBatchPart)
+    // files are cut at a number of bytes when a target size is given, and at a number of records otherwise
+    val batchOutputStream = sink.targetFileSize match {
+      case Some(targetBytes) => new ByteSizeBatchOutputStream[T](targetBytes, makeBatchPart)
+      case None              => new FixedSizeBatchOutputStream[T]((DefaultBatchSize * sink.oversizeFactor.getOrElse(1.0)).toLong, makeBatchPart)
+    }
+    new CountingRecordOutputStream[T](
+      batchOutputStream,
+      n => writeContext.counters(entityPath) = writeContext.counters.getOrElse(entityPath, EntityCounters.Zero) + n
+    )
   }
 
   class RawSerializationTaskContext(
@@ -79,7 +122,7 @@ package object raw {
 
     private[this] def createNewWriteContext(taskContext: TaskContext, hadoopConf: Configuration, fs: FileSystem) = {
       val jobIdInstant = new Date().getTime
-      new WriteContext(taskContext, getTaskAttemptContext(hadoopConf, TaskContext.get, jobIdInstant), hadoopConf, fs)
+      new WriteContext(taskContext.partitionId(), getTaskAttemptContext(hadoopConf, TaskContext.get, jobIdInstant), hadoopConf, fs)
     }
 
     private[this] def getTaskAttemptContext(conf: Configuration, tc: TaskContext, jobIdInstant: Long): TaskAttemptContext = {
@@ -177,25 +220,26 @@ package object raw {
       outputPath: String
   ) extends Serializable {
 
-    def run[T](rdd: RDD[T])(exec: (Iterator[T], WriteContext) => Unit)(implicit spark: SparkSession) = {
-      val fs     = FileSystem.get(URI.create(outputPath), configuration.value)
-      val path   = new Path(outputPath)
-      val exists = fs.exists(path)
+    /** Runs `exec` on every partition of `rdd`, and returns the counters of the entities written by the job. */
+    def run[T](rdd: RDD[T])(exec: (Iterator[T], WriteContext) => Unit)(implicit spark: SparkSession): Map[String, EntityCounters] = {
+      val numPartitions = rdd.partitions.length
+      RawSerializationJobContext.prepareOutputPath(FileSystem.get(URI.create(outputPath), configuration.value), sink, outputPath, numPartitions)
 
-      if (exists && !sink.overwrite) {
-        throw new AssertionError(s"Directory already exists: ${outputPath}")
-      } else if (exists) {
-        fs.delete(path, true)
-      }
+      val fingerprint   = PartitionManifest.fingerprint(sink)
+      val counters      = new EntityCountersAccumulator
+      spark.sparkContext.register(counters, s"Rows and write time of ${outputPath}")
 
       committer.setupJob(job)
       try {
-        val ret = new Array[TaskCommitMessage](rdd.partitions.length)
+        val ret = new Array[TaskCommitMessage](numPartitions)
         spark.sparkContext.runJob[T, TaskCommitMessage](
           rdd,
           (taskContext: TaskContext, iter: Iterator[T]) => {
             val ctx = new RawSerializationTaskContext(taskContext, committer, configuration, sink, outputPath)
-            ctx.runTask { wc => exec(iter, wc) }
+            ctx.runTask { wc =>
+              val partitionCounters = RawSerializationJobContext.runPartition(sink, outputPath, numPartitions, fingerprint, wc)(exec(iter, _))
+              partitionCounters.foreach(counters.add)
+            }
           },
           rdd.partitions.indices,
           (index: Int, res: TaskCommitMessage) => {
@@ -204,6 +248,7 @@ package object raw {
           }
         )
         committer.commitJob(job, ret)
+        counters.value
       } catch {
         case t: Throwable =>
           committer.abortJob(job)
@@ -218,7 +263,7 @@ package object raw {
       job.setOutputKeyClass(classOf[Void])
       job.setOutputValueClass(classOf[InternalRow])
 
-      val outputPath = s"${sink.conf.getOutputDir}/graphs/${sink.format.toString}/raw/composite-merged-fk/${jobPart}"
+      val outputPath = jobOutputPath(sink, jobPart)
 
       val jobId = UUID.randomUUID().toString
 
@@ -231,7 +276,48 @@ package object raw {
       FileOutputFormat.setOutputPath(job, new Path(outputPath))
       new RawSerializationJobContext(job, committer, new SerializableConfiguration(conf), sink, outputPath)
     }
+
+    def jobOutputPath(sink: RawSink, jobPart: String) =
+      s"${sink.conf.getOutputDir}/graphs/${sink.format.toString}/raw/composite-merged-fk/${jobPart}"
+
+    /**
+     * Keeps the output path of a resumed job, less the partitions beyond its `numPartitions`, and fails or clears an
+     * existing one otherwise.
+     */
+    def prepareOutputPath(fs: FileSystem, sink: RawSink, outputPath: String, numPartitions: Int): Unit = {
+      val path   = new Path(outputPath)
+      val exists = fs.exists(path)
+
+      if (exists && sink.resume) {
+        // the complete partitions are kept, and skipped by their tasks
+        PartitionManifest.deletePartitionsFrom(fs, outputPath, numPartitions)
+      } else if (exists && !sink.overwrite) {
+        throw new AssertionError(s"Directory already exists: ${outputPath}. Use --resume to complete it")
+      } else if (exists) {
+        fs.delete(path, true)
+      }
+    }
+
+    /**
+     * Writes a partition with `exec` and records its manifest, unless the job is resumed and the partition is complete.
+     *
+     * @return The counters of the entities of the partition, from its manifest if it was complete.
+     */
+    def runPartition(sink: RawSink, outputPath: String, numPartitions: Int, fingerprint: String, wc: WriteContext)(
+        exec: WriteContext => Unit
+    ): Map[String, EntityCounters] = {
+      val partition = wc.partitionId
+      val fs        = wc.fileSystem
+      if (!sink.resume || !PartitionManifest.isComplete(fs, outputPath, partition, numPartitions, fingerprint)) {
+        PartitionManifest.delete(fs, outputPath, partition)
+        exec(wc)
+        PartitionManifest.write(fs, outputPath, partition, numPartitions, fingerprint, wc)
+        wc.counters.toMap
+      } else {
+        PartitionManifest.counters(fs, outputPath, partition)
+      }
+    }
   }
 
-  object instances extends csv.CsvRowEncoderInstances with parquet.ParquetRowEncoderInstances
+  object instances extends csv.CsvRowEncoderInstances with parquet.ParquetRowEncoderInstances with ParquetRecordWriterInstances
 }
@@ -1,6 +1,6 @@
 package ldbc.snb.datagen.io.raw
 
-import ldbc.snb.datagen.io.raw.combinators.MakeBatchPart
+import ldbc.snb.datagen.io.raw.combinators.{BatchPart, MakeBatchPart}
 import org.apache.hadoop.conf.Configuration
 import org.apache.hadoop.fs.Path
 import org.apache.hadoop.mapreduce.{RecordWriter, TaskAttemptContext}
@@ -9,51 +9,72 @@ import org.apache.parquet.hadoop.api.WriteSupport
 import org.apache.parquet.hadoop.metadata.CompressionCodecName
 import org.apache.parquet.io.api.RecordConsumer
 import org.apache.spark.sql.Encoder
-import org.apache.spark.sql.catalyst.encoders.encoderFor
 import org.apache.spark.sql.execution.datasources.parquet.LdbcDatagenParquetWriteSupport
 
 object parquet {
 
   trait ParquetRowEncoder[T] {
     def encoder: Encoder[T]
+    def writer: ParquetRecordWriter[T]
   }
   object ParquetRowEncoder {
     implicit def apply[T: ParquetRowEncoder]: ParquetRowEncoder[T] = implicitly[ParquetRowEncoder[T]]
   }
 
   trait ParquetRowEncoderInstances {
-    implicit def parquetRowEncoderForEncoder[A: Encoder]: ParquetRowEncoder[A] = new ParquetRowEncoder[A] {
-      override def encoder: Encoder[A] = implicitly[Encoder[A]]
+    implicit def parquetRowEncoderForEncoder[A: Encoder: ParquetRecordWriter]: ParquetRowEncoder[A] = new ParquetRowEncoder[A] {
+      override def encoder: Encoder[A]            = implicitly[Encoder[A]]
+      override def writer: ParquetRecordWriter[A] = implicitly[ParquetRecordWriter[A]]
     }
   }
 
-  private def parquetWriteSupportForEncodable[T <: Product: Encoder](compressionCodecClassName: Option[String]) = new WriteSupport[T] {
-    private val encoder                                                        = encoderFor[T]
-    private val serializer                                                     = encoder.createSerializer()
-    private val schema                                                         = encoder.schema
-    private val inner                                                          = new LdbcDatagenParquetWriteSupport(schema, compressionCodecClassName)
-    override def init(configuration: Configuration): WriteSupport.WriteContext = inner.init(configuration)
-    override def prepareForWrite(recordConsumer: RecordConsumer): Unit         = inner.prepareForWrite(recordConsumer)
-    override def write(record: T): Unit                                        = inner.write(serializer.apply(record))
+  /**
+   * Writes the records straight to the RecordConsumer with their ParquetRecordWriter. The schema and the file
+   * metadata are still set up by Spark's write support from the schema of the encoder, so the files are the same
+   * as when the records are converted to InternalRows first.
+   */
+  private final class RecordWriteSupport[T <: Product: ParquetRowEncoder](compressionCodecClassName: Option[String]) extends WriteSupport[T] {
+    private val rowEncoder             = implicitly[ParquetRowEncoder[T]]
+    private val writer                 = rowEncoder.writer
+    private val schemaSupport          = new LdbcDatagenParquetWriteSupport(rowEncoder.encoder.schema, compressionCodecClassName)
+    private var sink: ParquetFieldSink = _
+
+    /** The estimated size of the records written so far, see [[ParquetFieldSink.size]]. */
+    def size: Long = if (sink eq null) 0 else sink.size
+
+    override def init(configuration: Configuration): WriteSupport.WriteContext = {
+      val context = schemaSupport.init(configuration)
+      sink = new ParquetFieldSink(context.getSchema)
+      context
+    }
+
+    override def prepareForWrite(recordConsumer: RecordConsumer): Unit = sink.prepare(recordConsumer)
+
+    override def write(record: T): Unit = {
+      sink.startRecord()
+      writer.write(record, sink)
+      sink.endRecord()
+    }
   }
 
   final class ParquetRecordOutputStream[T <: Product: ParquetRowEncoder](
       path: Path,
       taskAttemptContext: TaskAttemptContext,
       options: Map[String, String]
-  ) extends RecordOutputStream[T] {
-    lazy val writer: RecordWriter[Void, T] = {
-      val compressionCodecClassName = options.get(ParquetOutputFormat.COMPRESSION)
+  ) extends BatchPart[T] {
+    private val writeSupport = new RecordWriteSupport[T](options.get(ParquetOutputFormat.COMPRESSION))
 
-      implicit val encoder: Encoder[T] = implicitly[ParquetRowEncoder[T]].encoder
-      val parquetWriteSupport          = parquetWriteSupportForEncodable[T](compressionCodecClassName)
-      val pof = new ParquetOutputFormat[T](parquetWriteSupport) {
+    lazy val writer: RecordWriter[Void, T] = {
+      val pof = new ParquetOutputFormat[T](writeSupport) {
         override def getDefaultWorkFile(context: TaskAttemptContext, extension: String): Path = path
       }
       pof.getRecordWriter(taskAttemptContext, path)
     }
     var hasWritten = false
 
+    // the row groups are encoded and compressed in the writer, so only the size of the values is known
+    override def size: Long = writeSupport.size
+
     override def write(t: T): Unit = { hasWritten = true; writer.write(null, t) }
 
     override def close(): Unit = if (hasWritten) { writer.close(taskAttemptContext) }
@@ -62,12 +83,13 @@ object parquet {
   final class MakeParquetBatchPart[T <: Product: ParquetRowEncoder](pathPrefix: String, writeContext: WriteContext) extends MakeBatchPart[T] {
     private val compression = CompressionCodecName.fromConf(DefaultParquetCompression)
     private val options     = Map { ParquetOutputFormat.COMPRESSION -> compression.toString }
-    private val partitionId = writeContext.taskContext.partitionId()
+    private val partitionId = writeContext.partitionId
     private val extension   = s"${compression.getExtension}.parquet"
 
     def apply(part: Int) = {
       val path = new Path(s"${pathPrefix}/part_${partitionId}_${part}${extension}")
-      new ParquetRecordOutputStream[T](path, writeContext.taskAttemptContext, options)
+      // the writer creates its file from the path
+      new ParquetRecordOutputStream[T](writeContext.outputFileSystem.checksummed(path), writeContext.taskAttemptContext, options)
     }
 
     override def exists(): Boolean = {
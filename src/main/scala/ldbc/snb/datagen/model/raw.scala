@@ -91,7 +91,11 @@ object raw {
       LocationCountryId: Int,
       ParentPostId: Option[Long],
       ParentCommentId: Option[Long]
-  ) extends RawEntity
+  ) extends RawEntity {
+
+    /** The text written as the content, see [[Post.contentText]]. */
+    @transient var contentText: CharSequence = content
+  }
 
   case class CommentHasTag(
       creationDate: Long,
@@ -114,7 +118,14 @@ object raw {
       CreatorPersonId: Long,
       ContainerForumId: Long,
       LocationCountryId: Long
-  ) extends RawEntity
+  ) extends RawEntity {
+
+    /**
+     * The text written as the content, which is `content` unless set. The serializer sets it to the generated text
+     * of the message, which is written without being built as a String, and leaves `content` to the schema.
+     */
+    @transient var contentText: CharSequence = content.orNull
+  }
 
   case class PostHasTag(
       creationDate: Long,
@@ -1,5 +1,6 @@
 package ldbc.snb.datagen.transformation
 
+import ldbc.snb.datagen.io.WriteStatisticsListener
 import ldbc.snb.datagen.io.graphs.{GraphSink, GraphSource}
 import ldbc.snb.datagen.model
 import ldbc.snb.datagen.model.{BatchedEntity, Graph, Mode}
@@ -50,17 +51,19 @@ object TransformationStage extends DatagenStage with Logging {
 
     type Out = Graph[Mode.Raw.type] :+: Graph[Mode.BI] :+: CNil
 
-    GraphSource(model.graphs.Raw.graphDef, args.outputDir, args.irFormat).read
-      .pipeFoldLeft(args.explodeAttrs.fork)((graph, _: Unit) => ExplodeAttrs.transform(graph))
-      .pipeFoldLeft(args.explodeEdges.fork)((graph, _: Unit) => ExplodeEdges.transform(graph))
-      .pipe[Out] { g =>
-        args.mode match {
-          case bi @ Mode.BI(_, _) => Coproduct[Out](RawToBiTransform(bi, args.simulationStart, args.simulationEnd, args.keepImplicitDeletes).transform(g))
-          case Mode.Raw => Coproduct[Out](g)
+    WriteStatisticsListener.collect(args.outputDir, "transformation") {
+      GraphSource(model.graphs.Raw.graphDef, args.outputDir, args.irFormat).read
+        .pipeFoldLeft(args.explodeAttrs.fork)((graph, _: Unit) => ExplodeAttrs.transform(graph))
+        .pipeFoldLeft(args.explodeEdges.fork)((graph, _: Unit) => ExplodeEdges.transform(graph))
+        .pipe[Out] { g =>
+          args.mode match {
+            case bi @ Mode.BI(_, _) => Coproduct[Out](RawToBiTransform(bi, args.simulationStart, args.simulationEnd, args.keepImplicitDeletes).transform(g))
+            case Mode.Raw => Coproduct[Out](g)
+          }
         }
-      }
-      .pipeFoldLeft((!args.epochMillis).fork)((graph, _: Unit) => graph.map(convertDates))
-      .map(write)
+        .pipeFoldLeft((!args.epochMillis).fork)((graph, _: Unit) => graph.map(convertDates))
+        .map(write)
+    }
     ()
   }
 }
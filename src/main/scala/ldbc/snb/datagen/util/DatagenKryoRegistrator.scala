@@ -0,0 +1,44 @@
+package ldbc.snb.datagen.util
+
+import com.esotericsoftware.kryo.Kryo
+import com.twitter.chill.TraversableSerializer
+import ldbc.snb.datagen.entities.dynamic.person._
+import ldbc.snb.datagen.entities.dynamic.relations.{Knows, KnowsKryoSerializer, KnowsList, KnowsListKryoSerializer}
+import ldbc.snb.datagen.generator.distribution.CumulativeDistribution
+import ldbc.snb.datagen.generator.generators.SortedBlock
+import ldbc.snb.datagen.util.sampling.GuideTable
+import org.apache.spark.internal.io.FileCommitProtocol.TaskCommitMessage
+import org.apache.spark.serializer.KryoRegistrator
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Registers the classes the generation stage shuffles, broadcasts and collects, so that it can run
+ * with `spark.kryo.registrationRequired`, as it does in the tests. Tuples, Options and the immutable
+ * Scala collections are registered by Spark itself.
+ */
+class DatagenKryoRegistrator extends KryoRegistrator {
+  override def registerClasses(kryo: Kryo): Unit = {
+    kryo.register(classOf[Person], new PersonKryoSerializer)
+    kryo.register(classOf[KnowsList], new KnowsListKryoSerializer)
+    kryo.register(classOf[Knows], new KnowsKryoSerializer)
+    kryo.register(classOf[PersonSummary], new PersonSummaryKryoSerializer)
+    kryo.register(classOf[IP], new IPKryoSerializer)
+    kryo.register(classOf[Array[Person]])
+
+    // blocks of the rankers, and the combiners they are built from when spilled
+    kryo.register(classOf[SortedBlock])
+    kryo.register(Class.forName("ldbc.snb.datagen.generator.generators.SparkRanker$BlockFragment"))
+    kryo.register(classOf[ArrayBuffer[_]], new TraversableSerializer[Any, ArrayBuffer[Any]](isImmutable = false))
+
+    // broadcast degree distributions
+    kryo.register(classOf[CumulativeDistribution])
+    kryo.register(classOf[GuideTable])
+    kryo.register(classOf[Array[Int]])
+    kryo.register(classOf[Array[Long]])
+    kryo.register(classOf[Array[Double]])
+
+    // results of the raw serialization tasks
+    kryo.register(classOf[TaskCommitMessage])
+  }
+}
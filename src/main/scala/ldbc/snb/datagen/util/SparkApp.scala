@@ -18,8 +18,13 @@ trait SparkApp {
   private def applySparkConf(sparkConf: Map[String, String])(builder: SparkSession.Builder) =
     sparkConf.foldLeft(builder) { case (b, (k, v)) => b.config(k, v) }
 
+  // the serializer is created with the SparkContext, which the stages of a run share. Only the classes of the
+  // generation are registered, so registration is required only by the session of the generation tests.
   def defaultSparkConf: Map[String, String] = Map(
-    "spark.sql.session.timeZone" -> "GMT"
+    "spark.sql.session.timeZone"      -> "GMT",
+    "spark.serializer"                -> "org.apache.spark.serializer.KryoSerializer",
+    "spark.kryo.registrator"          -> classOf[DatagenKryoRegistrator].getName,
+    "spark.kryo.registrationRequired" -> "false"
   )
 
   protected lazy val env: SparkEnv = new SparkEnv
@@ -0,0 +1,70 @@
+package ldbc.snb.datagen.generator.dictionary;
+
+import ldbc.snb.datagen.generator.DatagenContext;
+import ldbc.snb.datagen.util.ConfigParser;
+import ldbc.snb.datagen.util.GeneratorConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class TagTextTest {
+
+    @Before
+    public void setUp() {
+        Map<String, String> map = new HashMap<>(ConfigParser.readConfig(getClass().getResourceAsStream("/params_default.ini")));
+        map.putAll(ConfigParser.scaleFactorConf("0.003"));
+        DatagenContext.initialize(new GeneratorConfiguration(map));
+    }
+
+    /** Texts of one to five tags, short enough to be cut and long enough to be made of several slices. */
+    private TagText[] texts() {
+        Random random = new Random(42);
+        Integer[] tags = Dictionaries.tags.getTags().toArray(new Integer[0]);
+        TagText[] texts = new TagText[500];
+        for (int i = 0; i < texts.length; ++i) {
+            TreeSet<Integer> textTags = new TreeSet<>();
+            int numTags = 1 + random.nextInt(5);
+            while (textTags.size() < numTags) {
+                textTags.add(tags[random.nextInt(tags.length)]);
+            }
+            texts[i] = Dictionaries.tagText.generateText(random, textTags, 1 + random.nextInt(2000));
+        }
+        return texts;
+    }
+
+    @Test
+    public void testCharAt() {
+        for (TagText text : texts()) {
+            String built = text.toString();
+            assertEquals(built.length(), text.length());
+            for (int i = 0; i < text.length(); ++i) {
+                assertEquals(built.charAt(i), text.charAt(i));
+            }
+            assertEquals(-1, built.indexOf('|'));
+        }
+    }
+
+    @Test
+    public void testGetCharsAndSubSequence() {
+        Random random = new Random(7);
+        for (TagText text : texts()) {
+            String built = text.toString();
+            for (int i = 0; i < 10; ++i) {
+                int start = random.nextInt(text.length() + 1);
+                int end = start + random.nextInt(text.length() - start + 1);
+                char[] chars = new char[end - start + 2];
+                text.getChars(start, end, chars, 1);
+                assertEquals(built.substring(start, end), new String(chars, 1, end - start));
+                assertEquals(0, chars[0]);
+                assertEquals(0, chars[chars.length - 1]);
+                assertEquals(built.substring(start, end), text.subSequence(start, end).toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ldbc.snb.datagen.generator.generators;
+
+import ldbc.snb.datagen.entities.dynamic.Forum;
+import ldbc.snb.datagen.entities.dynamic.messages.Comment;
+import ldbc.snb.datagen.entities.dynamic.messages.Message;
+import ldbc.snb.datagen.entities.dynamic.messages.Photo;
+import ldbc.snb.datagen.entities.dynamic.messages.Post;
+import ldbc.snb.datagen.entities.dynamic.person.Person;
+import ldbc.snb.datagen.entities.dynamic.person.similarity.GeoDistanceSimilarity;
+import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
+import ldbc.snb.datagen.entities.dynamic.relations.Like;
+import ldbc.snb.datagen.generator.DatagenContext;
+import ldbc.snb.datagen.generator.generators.knowsgenerators.DistanceKnowsGenerator;
+import ldbc.snb.datagen.util.ConfigParser;
+import ldbc.snb.datagen.util.GeneratorConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PersonActivityGeneratorTest {
+
+    private static final int BLOCK_SIZE = 50;
+
+    private GeneratorConfiguration conf;
+
+    @Before
+    public void setUp() {
+        Map<String, String> map = new HashMap<>(ConfigParser.readConfig(getClass().getResourceAsStream("/params_default.ini")));
+        map.putAll(ConfigParser.scaleFactorConf("0.003"));
+        conf = new GeneratorConfiguration(map);
+        DatagenContext.initialize(conf);
+    }
+
+    private List<Person> block() {
+        List<Person> block = new ArrayList<>(BLOCK_SIZE);
+        Iterator<Person> persons = new PersonGenerator(conf, conf.get("generator.distribution.degreeDistribution"))
+                .generatePersonBlock(0, BLOCK_SIZE);
+        while (block.size() < BLOCK_SIZE && persons.hasNext()) {
+            block.add(persons.next());
+        }
+        new DistanceKnowsGenerator().generateKnows(block, 0, Collections.singletonList(1.0f), 0, new GeoDistanceSimilarity());
+        return block;
+    }
+
+    /**
+     * Describes everything a person's activity pushes into the sink, in order.
+     */
+    private static final class RecordingSink implements ActivitySink {
+        final List<String> rows = new ArrayList<>();
+
+        private static String message(Message message) {
+            return message.getMessageId() + "|" + message.getCreationDate() + "|" + message.getDeletionDate() + "|"
+                    + message.getAuthor().getAccountId() + "|" + message.getForumId() + "|" + message.getContent() + "|"
+                    + message.getTags();
+        }
+
+        public void onForum(Forum forum) {
+            rows.add("forum|" + forum.getId() + "|" + forum.getCreationDate() + "|" + forum.getTitle() + "|" + forum.getTags());
+        }
+
+        public void onMembership(ForumMembership membership) {
+            rows.add("membership|" + membership.getForumId() + "|" + membership.getPerson().getAccountId() + "|"
+                    + membership.getCreationDate());
+        }
+
+        public void onPost(Post post) {
+            rows.add("post|" + message(post));
+        }
+
+        public void onComment(Comment comment) {
+            rows.add("comment|" + message(comment) + "|" + comment.getParentMessageId());
+        }
+
+        public void onPhoto(Photo photo) {
+            rows.add("photo|" + message(photo));
+        }
+
+        public void onLike(Like like) {
+            rows.add("like|" + like.getPerson() + "|" + like.getMessageId() + "|" + like.getCreationDate());
+        }
+    }
+
+    private static List<List<String>> generate(PersonActivityGenerator generator, List<Person> block, List<Integer> order) {
+        List<List<String>> activity = new ArrayList<>(Collections.nCopies(block.size(), null));
+        for (int i : order) {
+            RecordingSink sink = new RecordingSink();
+            generator.generateActivityForPerson(0, block, i, sink);
+            activity.set(i, sink.rows);
+        }
+        return activity;
+    }
+
+    @Test
+    public void testPersonsInAnyOrder() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < BLOCK_SIZE; ++i) {
+            order.add(i);
+        }
+        List<List<String>> expected = generate(new PersonActivityGenerator(), block(), order);
+        assertTrue(expected.stream().mapToInt(List::size).sum() > BLOCK_SIZE);
+
+        PersonActivityGenerator generator = new PersonActivityGenerator();
+        for (long seed = 0; seed < 3; ++seed) {
+            Collections.shuffle(order, new Random(seed));
+            assertEquals(expected, generate(generator, block(), order));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package ldbc.snb.datagen.generator.generators.knowsgenerators;
+
+import ldbc.snb.datagen.entities.dynamic.person.IP;
+import ldbc.snb.datagen.entities.dynamic.person.Person;
+import ldbc.snb.datagen.generator.DatagenParams;
+import ldbc.snb.datagen.generator.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.generators.DateGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeometricDistanceKnowsGeneratorTest {
+
+    private static final List<Float> PERCENTAGES = Collections.singletonList(1.0f);
+    private static final Person.PersonSimilarity SIMILARITY = (a, b) -> 0.5f;
+
+    private double baseProbCorrelated;
+    private double limitProCorrelated;
+    private DateGenerator dates;
+
+    @Before
+    public void setUp() {
+        baseProbCorrelated = DatagenParams.baseProbCorrelated;
+        limitProCorrelated = DatagenParams.limitProCorrelated;
+        dates = Dictionaries.dates;
+        DatagenParams.baseProbCorrelated = 0.95;
+        DatagenParams.limitProCorrelated = 0.2;
+        Dictionaries.dates = new DateGenerator(LocalDate.of(2010, 1, 1), LocalDate.of(2013, 1, 1), DatagenParams.alpha);
+    }
+
+    @After
+    public void tearDown() {
+        DatagenParams.baseProbCorrelated = baseProbCorrelated;
+        DatagenParams.limitProCorrelated = limitProCorrelated;
+        Dictionaries.dates = dates;
+    }
+
+    /**
+     * A block of persons alive during the whole simulation, with degree budgets from 0 to maxDegree.
+     */
+    private static List<Person> block(int size, int maxDegree) {
+        List<Person> persons = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            Person person = new Person();
+            person.setAccountId(i);
+            person.setIpAddress(new IP(10, 0, i >> 8 & 0xff, i & 0xff, 24));
+            person.setCreationDate(Dictionaries.dates.getSimulationStart());
+            person.setDeletionDate(Dictionaries.dates.getSimulationEnd());
+            person.setMaxNumKnows(maxDegree == 0 ? 0 : (i * 7919L) % (maxDegree + 1));
+            persons.add(person);
+        }
+        return persons;
+    }
+
+    /**
+     * The number of edges, the sum of the distances in the block between their ends and the number at distance 1,
+     * over numBlocks blocks.
+     */
+    private static long[] statistics(KnowsGenerator generator, int numBlocks, int blockSize, int maxDegree) {
+        long edges = 0;
+        long distances = 0;
+        long adjacent = 0;
+        for (int blockId = 0; blockId < numBlocks; ++blockId) {
+            List<Person> persons = block(blockSize, maxDegree);
+            generator.generateKnows(persons, blockId, PERCENTAGES, 0, SIMILARITY);
+            for (Person person : persons) {
+                assertTrue(person.getKnows().size() <= person.getMaxNumKnows());
+                for (int k = 0; k < person.getKnows().size(); ++k) {
+                    long distance = person.getKnows().targetId(k) - person.getAccountId();
+                    if (distance > 0) {
+                        edges++;
+                        distances += distance;
+                        adjacent += distance == 1 ? 1 : 0;
+                    }
+                }
+            }
+        }
+        return new long[]{edges, distances, adjacent};
+    }
+
+    private static void assertClose(String measure, double expected, double actual, double tolerance) {
+        assertTrue(measure + ": expected " + expected + ", was " + actual,
+                Math.abs(expected - actual) <= tolerance * Math.abs(expected));
+    }
+
+    @Test
+    public void testSameStatisticsAsDistanceKnowsGenerator() {
+        long[] distance = statistics(new DistanceKnowsGenerator(), 40, 500, 40);
+        long[] geometric = statistics(new GeometricDistanceKnowsGenerator(), 40, 500, 40);
+
+        assertTrue(distance[0] > 100000);
+        assertClose("edges", distance[0], geometric[0], 0.02);
+        assertClose("mean distance", (double) distance[1] / distance[0], (double) geometric[1] / geometric[0], 0.05);
+        assertClose("edges at distance 1", (double) distance[2] / distance[0], (double) geometric[2] / geometric[0], 0.05);
+    }
+
+    @Test
+    public void testSameStatisticsWithoutLimit() {
+        DatagenParams.limitProCorrelated = 0.0;
+        long[] distance = statistics(new DistanceKnowsGenerator(), 40, 500, 40);
+        long[] geometric = statistics(new GeometricDistanceKnowsGenerator(), 40, 500, 40);
+
+        assertClose("edges", distance[0], geometric[0], 0.02);
+        assertClose("mean distance", (double) distance[1] / distance[0], (double) geometric[1] / geometric[0], 0.05);
+    }
+
+    @Test
+    public void testBlockOfOne() {
+        for (KnowsGenerator generator : new KnowsGenerator[]{new DistanceKnowsGenerator(), new GeometricDistanceKnowsGenerator()}) {
+            List<Person> persons = block(1, 10);
+            persons.get(0).setMaxNumKnows(10);
+            generator.generateKnows(persons, 0, PERCENTAGES, 0, SIMILARITY);
+            assertEquals(0, persons.get(0).getKnows().size());
+        }
+    }
+
+    @Test
+    public void testZeroProbability() {
+        DatagenParams.baseProbCorrelated = 0.0;
+        DatagenParams.limitProCorrelated = 0.0;
+        assertEquals(0, statistics(new DistanceKnowsGenerator(), 2, 200, 40)[0]);
+        assertEquals(0, statistics(new GeometricDistanceKnowsGenerator(), 2, 200, 40)[0]);
+    }
+
+    @Test
+    public void testFullDegreeBudget() {
+        // without a budget no edge is created
+        assertEquals(0, statistics(new GeometricDistanceKnowsGenerator(), 2, 200, 0)[0]);
+
+        // every candidate is accepted, so both generators fill the budgets the same way
+        DatagenParams.baseProbCorrelated = 1.0;
+        List<Person> expected = block(300, 40);
+        List<Person> actual = block(300, 40);
+        new DistanceKnowsGenerator().generateKnows(expected, 0, PERCENTAGES, 0, SIMILARITY);
+        new GeometricDistanceKnowsGenerator().generateKnows(actual, 0, PERCENTAGES, 0, SIMILARITY);
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).getKnows().size(), actual.get(i).getKnows().size());
+            for (int k = 0; k < expected.get(i).getKnows().size(); ++k) {
+                assertEquals(expected.get(i).getKnows().targetId(k), actual.get(i).getKnows().targetId(k));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ldbc.snb.datagen.test.entities;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import ldbc.snb.datagen.entities.dynamic.person.IP;
+import ldbc.snb.datagen.entities.dynamic.person.Person;
+import ldbc.snb.datagen.entities.dynamic.person.PersonKryoSerializer;
+import ldbc.snb.datagen.entities.dynamic.person.PersonSummary;
+import ldbc.snb.datagen.entities.dynamic.relations.Knows;
+import ldbc.snb.datagen.entities.dynamic.relations.KnowsList;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.Assert.*;
+
+public class KnowsListTest {
+
+    private static Knows knows(long target, boolean flags) {
+        PersonSummary to = new PersonSummary(target, 1000 + target, 5000 + target, (int) target, (int) target % 7,
+                new IP(10, 0, 0, (int) target, 24), flags, !flags);
+        return new Knows(to, 2000 + target, 4000 + target, target / 10f, flags);
+    }
+
+    private static long[] targetIds(KnowsList list) {
+        long[] ids = new long[list.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = list.targetId(i);
+        }
+        return ids;
+    }
+
+    @Test
+    public void testInsertSetAndRemove() {
+        KnowsList list = new KnowsList();
+        for (long i = 1; i <= 5; i++) {
+            list.add(knows(i, i % 2 == 0));
+        }
+
+        list.add(0, knows(9, true));
+        assertArrayEquals(new long[]{9, 1, 2, 3, 4, 5}, targetIds(list));
+        assertTrue(list.isExplicitlyDeleted(0));
+        assertFalse(list.isExplicitlyDeleted(1));
+        assertTrue(list.isExplicitlyDeleted(2));
+
+        Knows previous = list.set(3, knows(8, true));
+        assertEquals(3, previous.to().getAccountId());
+        assertEquals(2008, list.creationDate(3));
+        assertTrue(list.isExplicitlyDeleted(3));
+
+        Knows removed = list.remove(1);
+        assertEquals(1, removed.to().getAccountId());
+        assertArrayEquals(new long[]{9, 2, 8, 4, 5}, targetIds(list));
+        assertTrue(list.isExplicitlyDeleted(1));
+        assertTrue(list.isExplicitlyDeleted(2));
+        assertTrue(list.isExplicitlyDeleted(3));
+        assertFalse(list.isExplicitlyDeleted(4));
+        assertEquals(4005, list.deletionDate(4));
+
+        list.removeIf(k -> k.to().getAccountId() > 4);
+        assertArrayEquals(new long[]{2, 4}, targetIds(list));
+        assertEquals(knows(4, true), list.get(1));
+    }
+
+    @Test
+    public void testKryoRoundTrip() {
+        Person person = new Person();
+        person.setAccountId(42);
+        person.setIpAddress(new IP(10, 0, 0, 42, 24));
+        for (long i = 1; i <= 3; i++) {
+            person.getKnows().add(knows(i, i == 2));
+        }
+
+        Kryo kryo = new Kryo();
+        PersonKryoSerializer serializer = new PersonKryoSerializer();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Output output = new Output(bytes)) {
+            serializer.write(kryo, output, person);
+        }
+        Person read = serializer.read(kryo, new Input(bytes.toByteArray()), Person.class);
+
+        assertEquals(person.getKnows(), read.getKnows());
+        assertEquals(person, read);
+    }
+}
@@ -0,0 +1,54 @@
+package ldbc.snb.datagen.test.entities;
+
+import ldbc.snb.datagen.entities.dynamic.Forum;
+import ldbc.snb.datagen.entities.dynamic.MembershipIndex;
+import ldbc.snb.datagen.entities.dynamic.person.IP;
+import ldbc.snb.datagen.entities.dynamic.person.PersonSummary;
+import ldbc.snb.datagen.entities.dynamic.relations.ForumMembership;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class MembershipIndexTest {
+
+    private static boolean aliveAt(ForumMembership membership, long instant) {
+        return membership.getCreationDate() < instant && membership.getDeletionDate() > instant;
+    }
+
+    @Test
+    public void testSelectMatchesScan() {
+        Random random = new Random(42);
+        PersonSummary person = new PersonSummary(0, 0, Long.MAX_VALUE, 0, 0, new IP(192, 168, 1, 1, 24), false, false);
+        for (int t = 0; t < 300; t++) {
+            int n = random.nextInt(200);
+            // few distinct dates, so that ties with the instants are common
+            int range = 1 + random.nextInt(50);
+            List<ForumMembership> memberships = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                long creationDate = 100000 + 1000L * random.nextInt(range);
+                long deletionDate = creationDate + 1000L * (1 + random.nextInt(range));
+                memberships.add(new ForumMembership(0, creationDate, deletionDate, person, Forum.ForumType.GROUP, false));
+            }
+            MembershipIndex index = new MembershipIndex(memberships);
+            for (int q = 0; q < 50; q++) {
+                long first = 100000 + 1000L * random.nextInt(2 * range) + (q % 2 == 0 ? 0 : 500);
+                long second = first + 1000L * random.nextInt(range + 1);
+
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    if (aliveAt(memberships.get(i), first) || aliveAt(memberships.get(i), second)) {
+                        expected.add(i);
+                    }
+                }
+                assertEquals(expected.size(), index.stab(first, second));
+                for (int k = 0; k < expected.size(); k++) {
+                    assertEquals((int) expected.get(k), index.select(k));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ldbc.snb.datagen.test.entities;
+
+import ldbc.snb.datagen.entities.dynamic.person.IP;
+import ldbc.snb.datagen.entities.dynamic.person.Person;
+import ldbc.snb.datagen.generator.dictionary.Dictionaries;
+import ldbc.snb.datagen.generator.dictionary.PlaceDictionary;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.*;
+
+public class PersonTest {
+
+    private PlaceDictionary places;
+
+    @Before
+    public void setUp() {
+        places = Dictionaries.places;
+        Dictionaries.places = new PlaceDictionary();
+    }
+
+    @After
+    public void tearDown() {
+        Dictionaries.places = places;
+    }
+
+    private static Person roundTrip(Person person) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(person);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Person) in.readObject();
+        }
+    }
+
+    @Test
+    public void testCountryZOrderAfterJavaSerialization() throws Exception {
+        int countryId = -1;
+        for (int id : Dictionaries.places.getCountries()) {
+            if (Dictionaries.places.getZorderID(id) != 0) {
+                countryId = id;
+                break;
+            }
+        }
+        assertTrue(countryId >= 0);
+
+        Person person = new Person();
+        person.setAccountId(42);
+        person.setIpAddress(new IP(10, 0, 0, 42, 24));
+        person.setCountryId(countryId);
+        int zOrder = person.getCountryZOrder();
+        assertEquals(Dictionaries.places.getZorderID(countryId), zOrder);
+
+        Person read = roundTrip(person);
+        assertEquals(countryId, read.getCountryId());
+        assertEquals(zOrder, read.getCountryZOrder());
+
+        read.setCountryId(Dictionaries.places.getCountries().get(0));
+        assertEquals(Dictionaries.places.getZorderID(read.getCountryId()), read.getCountryZOrder());
+    }
+}
@@ -0,0 +1,62 @@
+package ldbc.snb.datagen.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CounterRandomTest {
+
+    @Test
+    public void testStreamsOnlyDependOnTheirKey() {
+        RandomGeneratorFarm farm = new RandomGeneratorFarm(true);
+        farm.resetRandomGenerators(7, 3);
+        long first = farm.get(RandomGeneratorFarm.Aspect.DATE).nextLong();
+        farm.resetRandomGenerators(7, 2);
+        farm.get(RandomGeneratorFarm.Aspect.DATE).nextLong();
+        farm.resetRandomGenerators(7, 3);
+        assertEquals(first, farm.get(RandomGeneratorFarm.Aspect.DATE).nextLong());
+        assertNotEquals(first, farm.get(RandomGeneratorFarm.Aspect.UNIFORM).nextLong());
+
+        Random random = new CounterRandom(42);
+        random.nextGaussian();
+        long afterGaussian = random.nextLong();
+        random.setSeed(42);
+        random.nextGaussian();
+        assertEquals(afterGaussian, random.nextLong());
+    }
+
+    @Test
+    public void testUniformity() {
+        int buckets = 64;
+        int draws = 640000;
+        // the first numbers of consecutive streams, as drawn when every entity gets its own stream
+        long[] counts = new long[buckets];
+        for (int i = 0; i < draws; i++) {
+            Random random = new CounterRandom(CounterRandom.key(1, i));
+            counts[random.nextInt(buckets)]++;
+        }
+        double expected = draws / (double) buckets;
+        double chiSquare = 0;
+        for (long count : counts) {
+            chiSquare += (count - expected) * (count - expected) / expected;
+        }
+        // the 99.9% quantile of the chi-square distribution with 63 degrees of freedom is about 103
+        assertTrue("chi square " + chiSquare, chiSquare < 103);
+
+        Random random = new CounterRandom(2);
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = 0; i < draws; i++) {
+            double value = random.nextDouble();
+            assertTrue(value >= 0 && value < 1);
+            sum += value;
+            sumOfSquares += value * value;
+        }
+        assertEquals(0.5, sum / draws, 0.005);
+        assertEquals(1.0 / 12, sumOfSquares / draws - (sum / draws) * (sum / draws), 0.001);
+    }
+}
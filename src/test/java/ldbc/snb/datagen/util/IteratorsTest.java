@@ -8,7 +8,10 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 public class IteratorsTest {
@@ -43,4 +46,17 @@ public class IteratorsTest {
         verify(mock).apply(2);
         verify(mock, never()).apply(3);
     }
+
+    @Test
+    public void testBoundedNumbers() {
+        Iterator<Long> numbers = Iterators.numbers(5, 7);
+        assertEquals(5L, (long) numbers.next());
+        assertEquals(6L, (long) numbers.next());
+        assertFalse(numbers.hasNext());
+        try {
+            numbers.next();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package ldbc.snb.datagen.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PhaseProfilerTest {
+
+    @After
+    public void tearDown() {
+        PhaseProfiler.setEnabled(false);
+        PhaseProfiler.install(null);
+        PhaseProfiler.jvm().reset();
+    }
+
+    @Test
+    public void testDisabledRecordsNothing() {
+        long start = PhaseProfiler.start();
+        PhaseProfiler.stop(PhaseProfiler.Phase.POST_TEXT, start);
+        PhaseProfiler.record(PhaseProfiler.Phase.ROW_ENCODING, 10, 100, 20);
+
+        assertEquals(0, start);
+        assertEquals(0, PhaseProfiler.jvm().calls(PhaseProfiler.Phase.POST_TEXT));
+        assertEquals(0, PhaseProfiler.jvm().calls(PhaseProfiler.Phase.ROW_ENCODING));
+    }
+
+    @Test
+    public void testRecordsToInstalledCounters() {
+        PhaseProfiler.setEnabled(true);
+        PhaseProfiler.Counters task = new PhaseProfiler.Counters();
+        PhaseProfiler.install(task);
+        assertSame(task, PhaseProfiler.current());
+
+        PhaseProfiler.stop(PhaseProfiler.Phase.LIKES, PhaseProfiler.start());
+        PhaseProfiler.stop(PhaseProfiler.Phase.LIKES, PhaseProfiler.start());
+        PhaseProfiler.record(PhaseProfiler.Phase.ROW_ENCODING, 10, 100, 20);
+        PhaseProfiler.record(PhaseProfiler.Phase.ROW_ENCODING, 5, 50, 30);
+
+        assertEquals(2, task.calls(PhaseProfiler.Phase.LIKES));
+        assertTrue(task.nanos(PhaseProfiler.Phase.LIKES) >= task.maxNanos(PhaseProfiler.Phase.LIKES));
+        assertEquals(15, task.calls(PhaseProfiler.Phase.ROW_ENCODING));
+        assertEquals(150, task.nanos(PhaseProfiler.Phase.ROW_ENCODING));
+        assertEquals(30, task.maxNanos(PhaseProfiler.Phase.ROW_ENCODING));
+        assertEquals(0, PhaseProfiler.jvm().calls(PhaseProfiler.Phase.LIKES));
+
+        PhaseProfiler.install(null);
+        assertSame(PhaseProfiler.jvm(), PhaseProfiler.current());
+    }
+}
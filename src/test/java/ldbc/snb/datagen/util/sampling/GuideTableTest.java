@@ -0,0 +1,49 @@
+package ldbc.snb.datagen.util.sampling;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class GuideTableTest {
+
+    private static int bisection(double[] cumulative, int lowerBound, int upperBound, double prob) {
+        int midPoint = (upperBound + lowerBound) / 2;
+        while (upperBound > (lowerBound + 1)) {
+            if (cumulative[midPoint] > prob) {
+                upperBound = midPoint;
+            } else {
+                lowerBound = midPoint;
+            }
+            midPoint = (upperBound + lowerBound) / 2;
+        }
+        return midPoint;
+    }
+
+    @Test
+    public void testFloorIndexMatchesBisection() {
+        Random random = new Random(42);
+        for (int t = 0; t < 2000; t++) {
+            int n = random.nextInt(40);
+            double[] cumulative = new double[n];
+            double total = 0.0;
+            for (int i = 0; i < n; i++) {
+                // repeated values stand for zero probability entries
+                total += random.nextInt(4) == 0 ? 0.0 : random.nextDouble();
+                cumulative[i] = total;
+            }
+            for (int i = 0; i < n && total > 0; i++) {
+                cumulative[i] /= total;
+            }
+            GuideTable table = new GuideTable(cumulative);
+            for (int k = 0; k < 100; k++) {
+                double prob = n > 0 && k % 5 == 0 ? cumulative[random.nextInt(n)] : random.nextDouble();
+                int lowerBound = n > 0 ? random.nextInt(n) : 0;
+                assertEquals(bisection(cumulative, 0, n, prob), table.floorIndex(prob, 0, n));
+                assertEquals(bisection(cumulative, 0, n - 1, prob), table.floorIndex(prob, 0, n - 1));
+                assertEquals(bisection(cumulative, lowerBound, n - 1, prob), table.floorIndex(prob, lowerBound, n - 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ldbc.snb.datagen.generator
+
+import ldbc.snb.datagen.util.SparkTesting
+import org.apache.hadoop.fs.FileUtil
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io.File
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import scala.collection.JavaConverters._
+
+class GenerationStageTest extends AnyFunSuite with SparkTesting {
+
+  // a session of its own, which fails on anything the generation serializes and DatagenKryoRegistrator misses
+  override def sparkConf: Map[String, String] = Map("spark.kryo.registrationRequired" -> "true")
+
+  private def generated[A](params: (String, String)*)(read: File => A): A =
+    generatedBy(GenerationStage.run, params: _*)(read)
+
+  private def generatedBy[A](run: GenerationStage.Args => Unit, params: (String, String)*)(read: File => A): A = {
+    val outputDir = Files.createTempDirectory("generation-stage").toFile
+    try {
+      val args = GenerationStage.Args(scaleFactor = "0.003", numThreads = Some(2), params = params.toMap, outputDir = outputDir.getPath, format = "csv")
+      run(args)
+      read(new File(outputDir, "graphs/csv/raw/composite-merged-fk"))
+    } finally {
+      FileUtil.fullyDelete(outputDir)
+    }
+  }
+
+  /** The part files of a raw output, by their path relative to it. */
+  private def files(dir: File): Map[String, Seq[Byte]] =
+    Files
+      .walk(dir.toPath)
+      .iterator()
+      .asScala
+      .filter(p => Files.isRegularFile(p) && p.getFileName.toString.startsWith("part_"))
+      .map(p => dir.toPath.relativize(p).toString -> Files.readAllBytes(p).toSeq)
+      .toMap
+
+  /** The rows of every entity of a raw output, by the path of the entity, in no particular order of rows or files. */
+  private def rows(dir: File): Map[String, Seq[String]] =
+    files(dir).toSeq
+      .groupBy { case (path, _) => new File(path).getParent }
+      .map { case (entity, parts) =>
+        entity -> parts.flatMap { case (_, bytes) => new String(bytes.toArray, StandardCharsets.UTF_8).split('\n').drop(1) }.sorted
+      }
+
+  test("generation runs with Kryo registration required") {
+    assert(spark.sparkContext.getConf.getBoolean("spark.kryo.registrationRequired", false))
+
+    generated() { dir =>
+      val persons = spark.read
+        .option("header", "true")
+        .option("sep", "|")
+        .csv(new File(dir, "dynamic/Person").getPath)
+      assert(persons.count() == DatagenParams.numPersons)
+    }
+  }
+
+  test("fused knows generation merges the same persons as the per ranking one") {
+    val expected = generated("generator.fusedKnows" -> "false")(rows)
+    val actual   = generated("generator.fusedKnows" -> "true")(rows)
+
+    assert(expected.contains("dynamic/Person_knows_Person"))
+    assert(actual == expected)
+  }
+
+  test("activity generated in parallel writes the same files as when generated sequentially") {
+    val expected = generated("generator.activityThreads" -> "1")(files)
+    val actual   = generated("generator.activityThreads" -> "4")(files)
+
+    assert(expected.keys.exists(_.startsWith("dynamic/Post/")))
+    assert(actual.keySet == expected.keySet)
+    for { (path, bytes) <- expected } assert(actual(path) == bytes, s"${path} differs")
+  }
+
+  test("per person activity generated in parallel writes the same files as when generated sequentially") {
+    val expected = generated("generator.perPersonActivity" -> "true", "generator.activityThreads" -> "1")(files)
+    val actual   = generated("generator.perPersonActivity" -> "true", "generator.activityThreads" -> "4")(files)
+
+    assert(expected.keys.exists(_.startsWith("dynamic/Comment/")))
+    assert(actual.keySet == expected.keySet)
+    for { (path, bytes) <- expected } assert(actual(path) == bytes, s"${path} differs")
+  }
+
+  test("the local engine writes the same rows as the generation stage") {
+    val expected = generatedBy(GenerationStage.run)(rows)
+    val actual   = generatedBy(LocalEngine.run)(rows)
+
+    assert(expected.contains("dynamic/Person_knows_Person"))
+    assert(actual.keySet == expected.keySet)
+    for { (entity, entityRows) <- expected } assert(actual(entity) == entityRows, s"${entity} differs")
+  }
+}
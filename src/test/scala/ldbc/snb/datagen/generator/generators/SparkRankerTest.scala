@@ -0,0 +1,42 @@
+package ldbc.snb.datagen.generator.generators
+
+import ldbc.snb.datagen.entities.dynamic.person.Person
+import ldbc.snb.datagen.generator.{DatagenContext, GenerationStage}
+import ldbc.snb.datagen.util.SparkTesting
+import org.apache.spark.rdd.RDD
+import org.scalatest.funsuite.AnyFunSuite
+
+class SparkRankerTest extends AnyFunSuite with SparkTesting {
+  import ldbc.snb.datagen.entities.Keys._
+
+  // blocks smaller than the 50 persons of the scale factor, so that some straddle the ranges of the range ranker
+  private val blockSize = 7L
+
+  private def persons(): RDD[Person] = {
+    val config = GenerationStage.buildConfig(GenerationStage.Args(scaleFactor = "0.003"), spark.sparkContext.hadoopConfiguration)
+    DatagenContext.initialize(config)
+    SparkPersonGenerator(config, Some(4))
+  }
+
+  private def accountIds(blocks: RDD[(Long, SortedBlock)]): Map[Long, Seq[Long]] =
+    blocks.mapValues(_.persons.map(_.getAccountId).toSeq).collect().toMap
+
+  test("the range ranker makes the same blocks as the sort ranker") {
+    val sorted = accountIds(SparkRanker.create(_.byRandomId).blocks(persons(), blockSize))
+    val ranged = accountIds(SparkRanker.rangePartitioned(_.byRandomId).blocks(persons(), blockSize))
+
+    assert(sorted.size == 8)
+    assert(ranged == sorted)
+  }
+
+  test("the blocks of the range ranker are read again without the changes of an earlier reader") {
+    val ranker = SparkRanker.rangePartitioned(_.byRandomId)
+    val blocks = ranker.blocks(persons(), blockSize)
+
+    // changes the persons of the blocks in place, as the knows generators do
+    blocks.foreach { case (_, block) => for { p <- block.persons } p.setMaxNumKnows(-1) }
+
+    assert(blocks.flatMap(_._2.persons).filter(_.getMaxNumKnows < 0).count() == 0)
+    ranker.unpersist()
+  }
+}
@@ -0,0 +1,66 @@
+package ldbc.snb.datagen.io.raw
+
+import ldbc.snb.datagen.io.raw.parquet.{ParquetRecordOutputStream, ParquetRowEncoder}
+import ldbc.snb.datagen.model.raw._
+import ldbc.snb.datagen.util.SparkTesting
+import org.apache.hadoop.fs.{FileUtil, Path}
+import org.apache.parquet.hadoop.ParquetOutputFormat
+import org.apache.spark.sql.Encoder
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io.File
+import java.nio.file.Files
+
+class ParquetRecordWriterTest extends AnyFunSuite with SparkTesting {
+  import ldbc.snb.datagen.io.raw.instances._
+  import ldbc.snb.datagen.util.sql._
+
+  /**
+   * Writes `ts` with their ParquetRecordWriter and checks that Spark reads them back with the schema of their
+   * encoder. The fields of a type have distinct values, so that a writer that swaps them is caught.
+   */
+  private def check[T <: Product: ParquetRowEncoder](ts: T*): Unit = {
+    val dir = Files.createTempDirectory("parquet-record-writer").toFile
+    try {
+      val conf   = spark.sparkContext.hadoopConfiguration
+      val path   = new Path(new File(dir, "part_0_0.snappy.parquet").toURI)
+      val wc     = WriteContext.local(0, conf, path.getFileSystem(conf))
+      val stream = new ParquetRecordOutputStream[T](path, wc.taskAttemptContext, Map(ParquetOutputFormat.COMPRESSION -> DefaultParquetCompression))
+      for { t <- ts } stream.write(t)
+      stream.close()
+
+      implicit val encoder: Encoder[T] = ParquetRowEncoder[T].encoder
+      val read                         = spark.read.parquet(path.toString)
+      assert(read.schema.map(f => (f.name, f.dataType)) == encoder.schema.map(f => (f.name, f.dataType)))
+      assert(read.as[T].collect().toSeq == ts)
+    } finally {
+      FileUtil.fullyDelete(dir)
+    }
+  }
+
+  test("every dynamic entity is read back as it was written") {
+    check(
+      Person(1L, 2L, false, 3L, "Ana", "Müller", "female", 4L, "192.168.0.1", "Firefox", 5, "de;en", "ana@example.com"),
+      Person(-1L, Long.MaxValue, true, Long.MinValue, null, "😀", "male", -4L, "", "Chrome", Int.MinValue, "", "b@example.com")
+    )
+    check(PersonKnowsPerson(1L, 2L, true, 3L, 4L), PersonKnowsPerson(-1L, -2L, false, Long.MinValue, Long.MaxValue))
+    check(PersonHasInterestTag(1L, 2L, 3L, 4), PersonHasInterestTag(-1L, -2L, -3L, Int.MinValue))
+    check(PersonStudyAtUniversity(1L, 2L, 3L, 4L, 5), PersonStudyAtUniversity(-1L, -2L, -3L, -4L, -5))
+    check(PersonWorkAtCompany(1L, 2L, 3L, 4L, 5), PersonWorkAtCompany(-1L, -2L, -3L, -4L, -5))
+    check(Forum(1L, 2L, false, 3L, "Wall of Ana Müller", 4L), Forum(-1L, -2L, true, -3L, "Group for 日本", -4L))
+    check(ForumHasMember(1L, 2L, true, 3L, 4L), ForumHasMember(-1L, -2L, false, -3L, -4L))
+    check(ForumHasTag(1L, 2L, 3L, 4), ForumHasTag(-1L, -2L, -3L, -4))
+    check(
+      Post(1L, 2L, false, 3L, Some("photo1.jpg"), "10.0.0.1", "Chrome", None, None, 4, 5L, 6L, 7L),
+      Post(-1L, -2L, true, -3L, None, "10.0.0.2", "Safari", Some("uz"), Some("About 😀"), -4, -5L, -6L, -7L)
+    )
+    check(PostHasTag(1L, 2L, 3L, 4), PostHasTag(-1L, -2L, -3L, -4))
+    check(
+      Comment(1L, 2L, false, 3L, "10.0.0.1", "Chrome", "ok", 4, 5L, 6, Some(7L), None),
+      Comment(-1L, -2L, true, -3L, "10.0.0.2", "Safari", "thx", -4, -5L, -6, None, Some(-7L))
+    )
+    check(CommentHasTag(1L, 2L, 3L, 4), CommentHasTag(-1L, -2L, -3L, -4))
+    check(PersonLikesPost(1L, 2L, true, 3L, 4L), PersonLikesPost(-1L, -2L, false, -3L, -4L))
+    check(PersonLikesComment(1L, 2L, true, 3L, 4L), PersonLikesComment(-1L, -2L, false, -3L, -4L))
+  }
+}
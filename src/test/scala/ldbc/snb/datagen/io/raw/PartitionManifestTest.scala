@@ -0,0 +1,103 @@
+package ldbc.snb.datagen.io.raw
+
+import ldbc.snb.datagen.syntax._
+import ldbc.snb.datagen.util.GeneratorConfiguration
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.{FileSystem, FileUtil, Path}
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.nio.file.Files
+import java.util.Properties
+import java.util.zip.CRC32
+import scala.collection.JavaConverters._
+
+class PartitionManifestTest extends AnyFunSuite {
+
+  private val hadoopConf = new Configuration()
+  private val fs         = FileSystem.getLocal(hadoopConf)
+
+  private def withOutputPath(f: String => Unit): Unit = {
+    val dir = Files.createTempDirectory("partition-manifest").toFile
+    try f(dir.getPath)
+    finally FileUtil.fullyDelete(dir)
+  }
+
+  private def sink(resume: Boolean, params: (String, String)*) =
+    RawSink(Csv, conf = new GeneratorConfiguration(params.toMap.asJava), resume = resume)
+
+  private def file(outputPath: String, partition: Int) = new Path(s"${outputPath}/Entity/part_${partition}_0.csv")
+
+  private def manifest(outputPath: String, partition: Int) = new Path(s"${outputPath}/_manifests/part_${partition}.properties")
+
+  /** Runs a partition that writes one file of `content`, and returns whether it was written and its counters. */
+  private def run(sink: RawSink, outputPath: String, partition: Int, numPartitions: Int, content: String = "a|b\n") = {
+    var written = false
+    val wc      = WriteContext.local(partition, hadoopConf, fs)
+    val counters = RawSerializationJobContext.runPartition(sink, outputPath, numPartitions, PartitionManifest.fingerprint(sink), wc) { wc =>
+      written = true
+      wc.outputFileSystem.create(file(outputPath, partition), true) use { _.write(content.getBytes(UTF_8)) }
+      wc.counters("Entity") = EntityCounters(1, 42)
+    }
+    (written, counters)
+  }
+
+  test("a complete partition is not written again when the job is resumed") {
+    withOutputPath { outputPath =>
+      assert(run(sink(resume = false), outputPath, 0, 2) == (true, Map("Entity" -> EntityCounters(1, 42))))
+      assert(PartitionManifest.isComplete(fs, outputPath, 0, 2, PartitionManifest.fingerprint(sink(resume = true))))
+      assert(run(sink(resume = true), outputPath, 0, 2) == (false, Map("Entity" -> EntityCounters(1, 42))))
+    }
+  }
+
+  test("the manifest records the length and checksum of the files as they were written") {
+    withOutputPath { outputPath =>
+      run(sink(resume = false), outputPath, 0, 1, content = "ä|b\n")
+      val properties = new Properties
+      fs.open(manifest(outputPath, 0)) use { in => properties.load(in) }
+
+      val crc = new CRC32
+      crc.update("ä|b\n".getBytes(UTF_8))
+      assert(properties.getProperty("files") == "1")
+      assert(properties.getProperty("file.0") == s"Entity/part_0_0.csv 5 ${crc.getValue}")
+    }
+  }
+
+  test("a partition whose files changed is written again") {
+    withOutputPath { outputPath =>
+      run(sink(resume = false), outputPath, 0, 1)
+      fs.create(file(outputPath, 0), true) use { _.write("a|c\n".getBytes(UTF_8)) }
+
+      assert(!PartitionManifest.isComplete(fs, outputPath, 0, 1, PartitionManifest.fingerprint(sink(resume = true))))
+      assert(run(sink(resume = true), outputPath, 0, 1)._1)
+      assert(PartitionManifest.isComplete(fs, outputPath, 0, 1, PartitionManifest.fingerprint(sink(resume = true))))
+    }
+  }
+
+  test("a partition of another partitioning or configuration is written again") {
+    withOutputPath { outputPath =>
+      run(sink(resume = false), outputPath, 0, 2)
+
+      assert(!PartitionManifest.isComplete(fs, outputPath, 0, 3, PartitionManifest.fingerprint(sink(resume = true))))
+      assert(!PartitionManifest.isComplete(fs, outputPath, 0, 2, PartitionManifest.fingerprint(sink(resume = true, "generator.scaleFactor" -> "1"))))
+      assert(run(sink(resume = true), outputPath, 0, 3)._1)
+    }
+  }
+
+  test("a job resumed with fewer partitions deletes the ones beyond its own") {
+    withOutputPath { outputPath =>
+      for { partition <- 0 until 12 } run(sink(resume = false), outputPath, partition, 12)
+
+      RawSerializationJobContext.prepareOutputPath(fs, sink(resume = true), outputPath, 2)
+
+      for { partition <- 0 until 2 } {
+        assert(fs.exists(file(outputPath, partition)))
+        assert(fs.exists(manifest(outputPath, partition)))
+      }
+      for { partition <- 2 until 12 } {
+        assert(!fs.exists(file(outputPath, partition)))
+        assert(!fs.exists(manifest(outputPath, partition)))
+      }
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package ldbc.snb.datagen.io.raw.csv
+
+import ldbc.snb.datagen.io.raw.Utf8
+import ldbc.snb.datagen.util.formatter.DateFormatter
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io.ByteArrayOutputStream
+import java.nio.charset.StandardCharsets.UTF_8
+
+class CsvFieldSinkTest extends AnyFunSuite {
+
+  private val MillisPerDay = 86400000L
+
+  private val dateFormatter = new DateFormatter
+
+  /** The bytes of the rows `fill` appends to a new sink, which starts small to grow while filled. */
+  private def written(separator: String = "|")(fill: CsvFieldSink => Unit): Seq[Byte] = {
+    val sink = new CsvFieldSink(separator, initialCapacity = 16)
+    fill(sink)
+    val out = new ByteArrayOutputStream()
+    sink.writeTo(out)
+    out.toByteArray.toSeq
+  }
+
+  /** The bytes of a row of `fields`, as they were written before the sink. */
+  private def joined(fields: String*)(separator: String = "|"): Seq[Byte] =
+    (fields.mkString(separator) + "\n").getBytes(UTF_8).toSeq
+
+  private val surrogates = Seq(
+    "😀",
+    "a😀b",
+    "\uD83D",
+    "a\uD83D",
+    "\uDE00b",
+    "\uDE00\uD83D",
+    "\uD83D😀",
+    "😀\uDE00"
+  )
+
+  test("longs are written as by Long.toString") {
+    val values = Seq(0L, 1L, -1L, 9L, 10L, -10L, 99L, 100L, 999999999999999999L, 1000000000000000000L, Int.MaxValue.toLong, Int.MinValue.toLong) ++
+      Seq(Long.MaxValue, Long.MaxValue - 1, Long.MinValue, Long.MinValue + 1)
+    for { v <- values } {
+      assert(written() { s => s.long(v); s.endRow() } == joined(java.lang.Long.toString(v))(), v)
+    }
+    for { v <- Seq(0, -1, Int.MaxValue, Int.MinValue) } {
+      assert(written() { s => s.int(v); s.endRow() } == joined(Integer.toString(v))(), v)
+    }
+  }
+
+  test("dates are written as by DateFormatter.formatDate") {
+    val edges = Seq(
+      0L,
+      1L,
+      -1L,
+      MillisPerDay - 1,
+      -MillisPerDay,
+      -MillisPerDay - 1,
+      951782400000L,       // 2000-02-29
+      951868800000L,       // 2000-03-01
+      -2208988800000L,     // 1900-01-01
+      -62135596800000L,    // 0001-01-01, the first date written by the sink
+      -62135596800001L,    // falls back to the formatter before it
+      253402300799999L,    // 9999-12-31, the last date written by the sink
+      253402300800000L,    // falls back to the formatter after it
+      Long.MinValue,
+      Long.MaxValue
+    )
+    // every day and a bit of the years 1 to 9999, and beyond them
+    val sweep = for { day <- -1000000L to 3500000L by 97 } yield day * MillisPerDay + (day * 7919) % MillisPerDay
+
+    for { epochMillis <- edges ++ sweep } {
+      assert(written() { s => s.date(epochMillis); s.endRow() } == joined(dateFormatter.formatDate(epochMillis))(), epochMillis)
+    }
+  }
+
+  test("strings are encoded as by getBytes(UTF_8)") {
+    val strings = Seq("", "plain", "ü", "€", "日本語", "x" * 100) ++ surrogates
+    for { s <- strings } {
+      assert(written() { sink => sink.string(s); sink.endRow() } == joined(s)(), s)
+    }
+    assert(written() { sink => sink.string(null); sink.endRow() } == joined("null")())
+  }
+
+  test("texts are encoded as their strings") {
+    for { s <- surrogates :+ "a|b" } {
+      assert(written() { sink => sink.text(new java.lang.StringBuilder(s)); sink.endRow() } == joined(s)(), s)
+      assert(written() { sink => sink.text(java.nio.CharBuffer.wrap(s)); sink.endRow() } == joined(s)(), s)
+    }
+    assert(written() { sink => sink.text(null); sink.endRow() } == joined("null")())
+  }
+
+  test("Utf8 encodes at an offset as getBytes(UTF_8)") {
+    for { s <- surrogates :+ "aü€" } {
+      val buffer = new Array[Byte](2 + Utf8.maxEncodedLength(s))
+      val end    = Utf8.encode(s, buffer, 2)
+      assert(buffer.slice(2, end).toSeq == s.getBytes(UTF_8).toSeq, s)
+    }
+  }
+
+  test("fields are separated within rows but not across them") {
+    for { separator <- Seq("|", ",", "\t", "||", "¦") } {
+      val actual = written(separator) { s =>
+        s.long(-42)
+        s.empty()
+        s.string("a😀")
+        s.boolean(true)
+        s.stringOption(None)
+        s.date(0)
+        s.longOption(Some(7))
+        s.endRow()
+        s.intOption(None)
+        s.endRow()
+        s.boolean(false)
+        s.intOption(Some(3))
+        s.endRow()
+      }
+      val expected = joined("-42", "", "a😀", "true", "", "1970-01-01", "7")(separator) ++ joined("")(separator) ++ joined("false", "3")(separator)
+      assert(actual == expected, separator)
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package ldbc.snb.datagen.io.raw.csv
+
+import ldbc.snb.datagen.io.raw.instances._
+import ldbc.snb.datagen.model.raw._
+import org.scalatest.funsuite.AnyFunSuite
+
+import java.io.ByteArrayOutputStream
+import java.nio.charset.StandardCharsets.UTF_8
+
+class CsvRowEncoderTest extends AnyFunSuite {
+
+  /** Checks that the stream writes `ts` as the rows of the encoder joined by the separator, as it did before the sink. */
+  private def check[T: CsvRowEncoder](ts: T*): Unit = {
+    val out    = new ByteArrayOutputStream()
+    val stream = new CsvRecordOutputStream[T](out, writeHeader = false)
+    for { t <- ts } stream.write(t)
+    stream.close()
+
+    val expected = ts.map(t => CsvRowEncoder[T].row(t).mkString("|") + "\n").mkString.getBytes(UTF_8)
+    assert(out.toByteArray.toSeq == expected.toSeq)
+  }
+
+  private val deleted = 253402300799999L
+  private val created = 1262304000000L
+
+  test("every dynamic entity is written as its row") {
+    check(
+      Person(created, deleted, false, 1L, "Ana", "Müller", "female", -315619200000L, "192.168.0.1", "Firefox", 42, "de;en", "ana@example.com"),
+      Person(-1L, Long.MaxValue, true, Long.MinValue, "李", "😀\uD83D", "male", 0L, "", "", Int.MinValue, "", ""),
+      Person(0L, 0L, false, 0L, null, "", "", -62135596800001L, "", "", 0, "", "")
+    )
+    check(PersonKnowsPerson(created, deleted, true, 1L, Long.MaxValue), PersonKnowsPerson(-1L, 0L, false, Long.MinValue, -7L))
+    check(PersonHasInterestTag(created, deleted, 1L, 2), PersonHasInterestTag(-1L, 0L, -3L, Int.MinValue))
+    check(PersonStudyAtUniversity(created, deleted, 1L, 2L, 2010), PersonStudyAtUniversity(-1L, 0L, -1L, Long.MinValue, -1))
+    check(PersonWorkAtCompany(created, deleted, 1L, 2L, 2012), PersonWorkAtCompany(-1L, 0L, -1L, Long.MaxValue, Int.MaxValue))
+    check(Forum(created, deleted, false, 1L, "Wall of Ana Müller", 2L), Forum(-1L, 0L, true, -1L, "Group for 日本 in 😀", Long.MinValue))
+    check(ForumHasTag(created, deleted, 1L, 2), ForumHasTag(-1L, 0L, Long.MinValue, -2))
+    check(ForumHasMember(created, deleted, false, 1L, 2L), ForumHasMember(-1L, 0L, true, Long.MinValue, Long.MaxValue))
+    check(
+      Post(created, deleted, false, 1L, Some("photo1.jpg"), "10.0.0.1", "Chrome", None, None, 0, 2L, 3L, 4L),
+      Post(-1L, 0L, true, -1L, None, "", "", Some("uz"), Some("About Müller, 日本 and 😀 \uDE00"), 37, Long.MinValue, Long.MaxValue, -4L)
+    )
+    check(PostHasTag(created, deleted, 1L, 2), PostHasTag(-1L, 0L, Long.MinValue, Int.MaxValue))
+    check(
+      Comment(created, deleted, false, 1L, "10.0.0.1", "Safari", "ok", 2, 2L, 3, Some(4L), None),
+      Comment(-1L, 0L, true, Long.MinValue, "", "", "thx 😀\uD83D", -1, -2L, Int.MinValue, None, Some(Long.MaxValue))
+    )
+    check(CommentHasTag(created, deleted, 1L, 2), CommentHasTag(-1L, 0L, Long.MinValue, -2))
+    check(PersonLikesPost(created, deleted, false, 1L, 2L), PersonLikesPost(-1L, 0L, true, Long.MinValue, Long.MaxValue))
+    check(PersonLikesComment(created, deleted, false, 1L, 2L), PersonLikesComment(-1L, 0L, true, Long.MinValue, Long.MaxValue))
+  }
+}
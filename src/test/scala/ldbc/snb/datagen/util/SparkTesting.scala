@@ -3,17 +3,42 @@ package ldbc.snb.datagen.util
 import org.apache.spark.sql.SparkSession
 
 trait SparkTesting {
-  implicit lazy val spark: SparkSession = GlobalSparkTesting.spark
+
+  /** The settings of the session of the suite on top of the ones of [[GlobalSparkTesting]]. */
+  def sparkConf: Map[String, String] = Map.empty
+
+  implicit lazy val spark: SparkSession = GlobalSparkTesting.session(sparkConf)
 }
 
+/**
+ * The session of the suites. The suites run one after the other in a single JVM, which has a single SparkContext,
+ * so a suite that asks for other settings than the suite before it stops the session and starts a new one.
+ */
 object GlobalSparkTesting {
-  lazy val spark: SparkSession = SparkSession
-    .builder()
-    .master("local[*]")
-    .appName("test")
-    .config("spark.driver.extraJavaOptions", "-XX:+CMSClassUnloadingEnabled")
-    .config("spark.ui.enabled", "false")
-    .config("spark.serializer", "org.apache.spark.serializer.KryoSerializer")
-    .config("spark.sql.shuffle.partitions", "1")
-    .getOrCreate()
+  private var current: Option[(Map[String, String], SparkSession)] = None
+
+  def spark: SparkSession = session(Map.empty)
+
+  def session(conf: Map[String, String]): SparkSession = synchronized {
+    current match {
+      case Some((c, s)) if c == conf && !s.sparkContext.isStopped => s
+      case previous =>
+        for { (_, s) <- previous } s.stop()
+        val s = conf
+          .foldLeft(
+            SparkSession
+              .builder()
+              .master("local[*]")
+              .appName("test")
+              .config("spark.driver.extraJavaOptions", "-XX:+CMSClassUnloadingEnabled")
+              .config("spark.ui.enabled", "false")
+              .config("spark.serializer", "org.apache.spark.serializer.KryoSerializer")
+              .config("spark.kryo.registrator", classOf[DatagenKryoRegistrator].getName)
+              .config("spark.sql.shuffle.partitions", "1")
+          ) { case (b, (k, v)) => b.config(k, v) }
+          .getOrCreate()
+        current = Some((conf, s))
+        s
+    }
+  }
 }